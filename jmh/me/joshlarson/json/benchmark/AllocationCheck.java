@@ -0,0 +1,233 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import me.joshlarson.json.JSONException;
+import me.joshlarson.json.JSONIndexedParser;
+import me.joshlarson.json.JSONInputStream;
+import me.joshlarson.json.JSONLazyParser;
+import me.joshlarson.json.JSONOutputStream;
+import me.joshlarson.json.JSONPath;
+import me.joshlarson.json.JSONProjection;
+import me.joshlarson.json.JSONReader;
+
+/**
+ * Measures the bytes allocated per operation for every JSONInputStream and JSONOutputStream entry
+ * point, using the per-thread allocation counter of the JVM. The results are compared against a
+ * checked-in baseline and the process exits with a non-zero status if any entry point allocates
+ * more than the baseline allows.
+ * <p>
+ * Usage: {@code AllocationCheck <baseline.properties> [--update]}
+ *
+ * @author josh
+ */
+public class AllocationCheck {
+	
+	private static final int WARMUP_ITERATIONS = 20;
+	private static final int MEASURE_ITERATIONS = 10;
+	private static final double TOLERANCE = 0.05;
+	
+	private final Map<String, Operation> operations;
+	
+	private AllocationCheck() {
+		this.operations = new LinkedHashMap<>();
+		JSONProjection projection = new JSONProjection("items[*].id");
+		JSONPath path = JSONPath.compile("items[0].id");
+		for (JSONCorpus corpus : JSONCorpus.values()) {
+			byte [] objectData = corpus.objectBytes();
+			byte [] arrayData = corpus.arrayBytes();
+			Map<String, Object> object = corpus.createObject();
+			List<Object> array = corpus.createArray();
+			ByteArrayOutputStream output = new ByteArrayOutputStream(objectData.length * 4);
+			
+			operations.put("readObject." + corpus, new Operation(objectData.length, () -> {
+				try (JSONInputStream in = new JSONInputStream(new ByteArrayInputStream(objectData))) {
+					return in.readObject();
+				}
+			}));
+			operations.put("readArray." + corpus, new Operation(arrayData.length, () -> {
+				try (JSONInputStream in = new JSONInputStream(new ByteArrayInputStream(arrayData))) {
+					return in.readArray();
+				}
+			}));
+			operations.put("readNext." + corpus, new Operation(objectData.length, () -> {
+				try (JSONInputStream in = new JSONInputStream(new ByteArrayInputStream(objectData))) {
+					return in.readNext();
+				}
+			}));
+			operations.put("readInPlace." + corpus, new Operation(objectData.length, () -> {
+				try (JSONInputStream in = new JSONInputStream(objectData)) {
+					return in.readObject();
+				}
+			}));
+			operations.put("readProjected." + corpus, new Operation(objectData.length, () -> {
+				try (JSONInputStream in = new JSONInputStream(objectData)) {
+					return in.readObject(projection);
+				}
+			}));
+			operations.put("getPath." + corpus, new Operation(objectData.length, () -> path.get(object)));
+			operations.put("readLazy." + corpus, new Operation(objectData.length, () -> JSONLazyParser.readObject(objectData).get("items")));
+			operations.put("readIndexed." + corpus, new Operation(objectData.length, () -> new JSONIndexedParser().readObject(objectData)));
+			operations.put("skipValue." + corpus, new Operation(objectData.length, () -> {
+				try (JSONReader reader = new JSONReader(new ByteArrayInputStream(objectData))) {
+					reader.skipValue();
+					return reader;
+				}
+			}));
+			operations.put("writeObject." + corpus, new Operation(objectData.length, () -> {
+				output.reset();
+				try (JSONOutputStream out = new JSONOutputStream(output)) {
+					out.setCompact(true);
+					out.writeObject(object);
+				}
+				return output;
+			}));
+			operations.put("writeArray." + corpus, new Operation(arrayData.length, () -> {
+				output.reset();
+				try (JSONOutputStream out = new JSONOutputStream(output)) {
+					out.setCompact(true);
+					out.writeArray(array);
+				}
+				return output;
+			}));
+		}
+	}
+	
+	public static void main(String [] args) throws IOException, JSONException {
+		if (args.length < 1) {
+			System.err.println("Usage: AllocationCheck <baseline.properties> [--update]");
+			System.exit(2);
+		}
+		File baselineFile = new File(args[0]);
+		boolean update = args.length > 1 && args[1].equals("--update");
+		
+		Map<String, Long> results = new AllocationCheck().measure();
+		if (update) {
+			writeBaseline(baselineFile, results);
+			System.out.println("Wrote allocation baseline to " + baselineFile);
+			return;
+		}
+		
+		Properties baseline = readBaseline(baselineFile);
+		List<String> failures = new ArrayList<>();
+		for (Entry<String, Long> e : results.entrySet()) {
+			String expected = baseline.getProperty(e.getKey());
+			if (expected == null) {
+				failures.add(e.getKey() + ": no baseline entry");
+				continue;
+			}
+			long limit = (long) (Long.parseLong(expected) * (1 + TOLERANCE));
+			if (e.getValue() > limit)
+				failures.add(String.format("%s: %d bytes/op exceeds baseline of %s bytes/op", e.getKey(), e.getValue(), expected));
+		}
+		if (!failures.isEmpty()) {
+			System.err.println("Allocation regressions detected:");
+			for (String failure : failures)
+				System.err.println("    " + failure);
+			System.exit(1);
+		}
+		System.out.println("All " + results.size() + " entry points are within the allocation baseline");
+	}
+	
+	private Map<String, Long> measure() throws IOException, JSONException {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		Map<String, Long> results = new LinkedHashMap<>();
+		for (Entry<String, Operation> e : operations.entrySet()) {
+			Operation op = e.getValue();
+			for (int i = 0; i < WARMUP_ITERATIONS; i++)
+				op.run();
+			long start = threads.getThreadAllocatedBytes(thread);
+			for (int i = 0; i < MEASURE_ITERATIONS; i++)
+				op.run();
+			long perOp = (threads.getThreadAllocatedBytes(thread) - start) / MEASURE_ITERATIONS;
+			results.put(e.getKey(), perOp);
+			System.out.printf("%-28s %,14d bytes/op  %8.3f bytes/input byte%n", e.getKey(), perOp, perOp / (double) op.getInputSize());
+		}
+		return results;
+	}
+	
+	private static Properties readBaseline(File file) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream is = new FileInputStream(file)) {
+			properties.load(is);
+		}
+		return properties;
+	}
+	
+	private static void writeBaseline(File file, Map<String, Long> results) throws IOException {
+		try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			writer.println("# Bytes allocated per operation, generated by AllocationCheck --update");
+			for (Entry<String, Long> e : new TreeMap<>(results).entrySet())
+				writer.println(e.getKey() + '=' + e.getValue());
+		}
+	}
+	
+	private interface Task {
+		Object run() throws IOException, JSONException;
+	}
+	
+	private static class Operation {
+		
+		private final int inputSize;
+		private final Task task;
+		private Object sink;
+		
+		public Operation(int inputSize, Task task) {
+			this.inputSize = inputSize;
+			this.task = task;
+		}
+		
+		public int getInputSize() {
+			return inputSize;
+		}
+		
+		public void run() throws IOException, JSONException {
+			sink = task.run();
+		}
+		
+	}
+	
+}
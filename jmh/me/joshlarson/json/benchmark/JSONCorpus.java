@@ -0,0 +1,216 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import me.joshlarson.json.JSONOutputStream;
+
+/**
+ * Deterministic generator for the benchmark inputs. Every corpus is built from a fixed seed, so
+ * two runs on two machines always measure the exact same bytes
+ *
+ * @author josh
+ */
+public enum JSONCorpus {
+	/** A single large array of small, flat records */
+	BIG_ARRAY {
+		@Override
+		Map<String, Object> generate(Random random) {
+			List<Object> items = new ArrayList<>();
+			for (int i = 0; i < 40_000; i++) {
+				Map<String, Object> item = new LinkedHashMap<>();
+				item.put("id", (long) i);
+				item.put("name", randomAscii(random, 4 + random.nextInt(12)));
+				item.put("active", random.nextBoolean());
+				item.put("score", random.nextInt(1_000_000) / 100.0);
+				item.put("parent", random.nextInt(4) == 0 ? null : (long) random.nextInt(i + 1));
+				items.add(item);
+			}
+			return root("items", items);
+		}
+	},
+	/** A handful of very long string values */
+	BIG_STRING {
+		@Override
+		Map<String, Object> generate(Random random) {
+			Map<String, Object> obj = new LinkedHashMap<>();
+			for (int i = 0; i < 4; i++)
+				obj.put("text" + i, randomAscii(random, 1024 * 1024));
+			return obj;
+		}
+	},
+	/** Objects and arrays nested several hundred levels deep */
+	DEEP_NESTING {
+		@Override
+		Map<String, Object> generate(Random random) {
+			List<Object> trees = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				Object node = (long) random.nextInt();
+				for (int depth = 0; depth < 256; depth++) {
+					if ((depth & 1) == 0) {
+						Map<String, Object> obj = new LinkedHashMap<>();
+						obj.put("d", node);
+						node = obj;
+					} else {
+						List<Object> array = new ArrayList<>();
+						array.add(node);
+						node = array;
+					}
+				}
+				trees.add(node);
+			}
+			return root("trees", trees);
+		}
+	},
+	/** Mostly integers and doubles, like telemetry or coordinates */
+	NUMBERS {
+		@Override
+		Map<String, Object> generate(Random random) {
+			List<Object> ints = new ArrayList<>();
+			List<Object> doubles = new ArrayList<>();
+			for (int i = 0; i < 100_000; i++) {
+				ints.add(random.nextInt(4) == 0 ? random.nextLong() : (long) random.nextInt(100_000));
+				doubles.add((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12) - 4));
+			}
+			Map<String, Object> obj = new LinkedHashMap<>();
+			obj.put("ints", ints);
+			obj.put("doubles", doubles);
+			return obj;
+		}
+	},
+	/** A very wide object where the keys make up most of the document */
+	KEYS {
+		@Override
+		Map<String, Object> generate(Random random) {
+			Map<String, Object> obj = new LinkedHashMap<>();
+			for (int i = 0; i < 100_000; i++)
+				obj.put(randomAscii(random, 8 + random.nextInt(24)) + '_' + i, (long) (i & 0xFF));
+			return obj;
+		}
+	},
+	/** Strings made up of accented Latin, CJK and emoji (surrogate pair) characters */
+	NON_ASCII {
+		@Override
+		Map<String, Object> generate(Random random) {
+			List<Object> lines = new ArrayList<>();
+			for (int i = 0; i < 20_000; i++)
+				lines.add(randomUnicode(random, 16 + random.nextInt(64)));
+			return root("lines", lines);
+		}
+	};
+	
+	private static final long SEED = 0x4A534F4EL;
+	private static final String ASCII = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 .,-_";
+	private static final String [] UNICODE = {"\u00E9", "\u00FC", "\u00DF", "\u00F1", "\u65E5", "\u672C", "\u8A9E", "\u4E2D", "\u6587", "\uD55C", "\uD83D\uDE00", "\uD83D\uDC4D", "a", "z", " "};
+	
+	/**
+	 * Builds the root value of this corpus
+	 *
+	 * @param random the seeded random number generator to draw from
+	 * @return the root object
+	 */
+	abstract Map<String, Object> generate(Random random);
+	
+	/**
+	 * Creates the root object of this corpus. The result is identical on every call
+	 *
+	 * @return the root object
+	 */
+	public Map<String, Object> createObject() {
+		return generate(new Random(SEED + ordinal()));
+	}
+	
+	/**
+	 * Creates an array containing the values of the root object, for the array entry points
+	 *
+	 * @return the root values as an array
+	 */
+	public List<Object> createArray() {
+		return new ArrayList<>(createObject().values());
+	}
+	
+	/**
+	 * Serializes {@link #createObject()} in compact form
+	 *
+	 * @return the UTF-8 encoded JSON object
+	 */
+	public byte [] objectBytes() {
+		return serialize(createObject());
+	}
+	
+	/**
+	 * Serializes {@link #createArray()} in compact form
+	 *
+	 * @return the UTF-8 encoded JSON array
+	 */
+	public byte [] arrayBytes() {
+		return serialize(createArray());
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static byte [] serialize(Object root) {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (JSONOutputStream out = new JSONOutputStream(baos)) {
+			out.setCompact(true);
+			if (root instanceof Map)
+				out.writeObject((Map<String, Object>) root);
+			else
+				out.writeArray((List<Object>) root);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return baos.toByteArray();
+	}
+	
+	private static Map<String, Object> root(String key, Object value) {
+		Map<String, Object> obj = new LinkedHashMap<>();
+		obj.put(key, value);
+		return obj;
+	}
+	
+	private static String randomAscii(Random random, int length) {
+		char [] str = new char[length];
+		for (int i = 0; i < length; i++)
+			str[i] = ASCII.charAt(random.nextInt(ASCII.length()));
+		return new String(str);
+	}
+	
+	private static String randomUnicode(Random random, int length) {
+		StringBuilder str = new StringBuilder(length * 2);
+		for (int i = 0; i < length; i++)
+			str.append(UNICODE[random.nextInt(UNICODE.length)]);
+		return str.toString();
+	}
+	
+}
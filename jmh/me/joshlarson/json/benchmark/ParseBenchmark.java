@@ -0,0 +1,183 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import me.joshlarson.json.JSONException;
+import me.joshlarson.json.JSONFeedParser;
+import me.joshlarson.json.JSONIndexedParser;
+import me.joshlarson.json.JSONInputStream;
+import me.joshlarson.json.JSONLazyParser;
+import me.joshlarson.json.JSONParallelParser;
+import me.joshlarson.json.JSONProjection;
+import me.joshlarson.json.JSONQuery;
+import me.joshlarson.json.JSONReader;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the JSONInputStream entry points over every corpus. The {@code bytes} counter reports
+ * the input consumed per second, which is the MB/s figure to compare between changes
+ *
+ * @author josh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ParseBenchmark {
+	
+	@Param({"BIG_ARRAY", "BIG_STRING", "DEEP_NESTING", "NUMBERS", "KEYS", "NON_ASCII"})
+	public JSONCorpus corpus;
+	
+	private byte [] objectData;
+	private byte [] arrayData;
+	private Path objectFile;
+	private final JSONIndexedParser parser = new JSONIndexedParser();
+	private final JSONProjection projection = new JSONProjection("items[*].id");
+	private final JSONQuery query = JSONQuery.compile("$.items[?(@.active == true)].id");
+	private final JSONParallelParser parallelParser = new JSONParallelParser(ForkJoinPool.commonPool(), 16 * 1024);
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		objectData = corpus.objectBytes();
+		arrayData = corpus.arrayBytes();
+		objectFile = Files.createTempFile("fast-json-" + corpus, ".json");
+		Files.write(objectFile, objectData);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.delete(objectFile);
+	}
+	
+	@Benchmark
+	public Map<String, Object> readObject(Throughput throughput) throws IOException, JSONException {
+		throughput.bytes += objectData.length;
+		try (JSONInputStream in = new JSONInputStream(new ByteArrayInputStream(objectData))) {
+			return in.readObject();
+		}
+	}
+	
+	@Benchmark
+	public List<Object> readArray(Throughput throughput) throws IOException, JSONException {
+		throughput.bytes += arrayData.length;
+		try (JSONInputStream in = new JSONInputStream(new ByteArrayInputStream(arrayData))) {
+			return in.readArray();
+		}
+	}
+	
+	@Benchmark
+	public List<Object> readArrayParallel(Throughput throughput) throws IOException, JSONException {
+		throughput.bytes += arrayData.length;
+		return parallelParser.readArray(arrayData);
+	}
+	
+	@Benchmark
+	public Object readNext(Throughput throughput) throws IOException, JSONException {
+		throughput.bytes += objectData.length;
+		try (JSONInputStream in = new JSONInputStream(new ByteArrayInputStream(objectData))) {
+			return in.readNext();
+		}
+	}
+	
+	@Benchmark
+	public Map<String, Object> readInPlace(Throughput throughput) throws IOException, JSONException {
+		throughput.bytes += objectData.length;
+		try (JSONInputStream in = new JSONInputStream(objectData)) {
+			return in.readObject();
+		}
+	}
+	
+	@Benchmark
+	public Map<String, Object> readProjected(Throughput throughput) throws IOException, JSONException {
+		throughput.bytes += objectData.length;
+		try (JSONInputStream in = new JSONInputStream(objectData)) {
+			return in.readObject(projection);
+		}
+	}
+	
+	@Benchmark
+	public Object readLazy(Throughput throughput) throws JSONException {
+		throughput.bytes += objectData.length;
+		return JSONLazyParser.readObject(objectData).get("items");
+	}
+	
+	@Benchmark
+	public long readQuery(Throughput throughput) throws IOException, JSONException {
+		throughput.bytes += objectData.length;
+		long [] sum = new long[1];
+		try (JSONInputStream in = new JSONInputStream(objectData)) {
+			query.evaluate(in, id -> sum[0] += (Long) id);
+		}
+		return sum[0];
+	}
+	
+	@Benchmark
+	public Map<String, Object> readFile(Throughput throughput) throws IOException, JSONException {
+		throughput.bytes += objectData.length;
+		try (JSONInputStream in = new JSONInputStream(objectFile)) {
+			return in.readObject();
+		}
+	}
+	
+	@Benchmark
+	public Object readFeed(Throughput throughput) throws JSONException {
+		throughput.bytes += objectData.length;
+		JSONFeedParser parser = new JSONFeedParser();
+		Object value = null;
+		for (int pos = 0; pos < objectData.length && value == null; pos += 4096) {
+			parser.feed(objectData, pos, Math.min(4096, objectData.length - pos));
+			value = parser.readNext();
+		}
+		return value;
+	}
+	
+	@Benchmark
+	public Map<String, Object> readIndexed(Throughput throughput) throws JSONException {
+		throughput.bytes += objectData.length;
+		return parser.readObject(objectData);
+	}
+	
+	@Benchmark
+	public JSONReader skipValue(Throughput throughput) throws IOException, JSONException {
+		throughput.bytes += objectData.length;
+		try (JSONReader reader = new JSONReader(new ByteArrayInputStream(objectData))) {
+			reader.skipValue();
+			return reader;
+		}
+	}
+	
+}
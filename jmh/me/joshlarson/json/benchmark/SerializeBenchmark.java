@@ -23,62 +23,68 @@
  * SOFTWARE.                                                                      *
  **********************************************************************************
  */
-package me.joshlarson.json.example;
+package me.joshlarson.json.benchmark;
 
-import java.io.*;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
-import me.joshlarson.json.JSONException;
-import me.joshlarson.json.JSONInputStream;
-import me.joshlarson.json.JSONObject;
 import me.joshlarson.json.JSONOutputStream;
+import org.openjdk.jmh.annotations.*;
 
-public class BigFileTest {
+/**
+ * Measures the JSONOutputStream entry points over every corpus, in both compact and indented mode.
+ * The {@code bytes} counter reports the output produced per second
+ *
+ * @author josh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SerializeBenchmark {
+	
+	@Param({"BIG_ARRAY", "BIG_STRING", "DEEP_NESTING", "NUMBERS", "KEYS", "NON_ASCII"})
+	public JSONCorpus corpus;
+	
+	@Param({"true", "false"})
+	public boolean compact;
+	
+	private Map<String, Object> object;
+	private List<Object> array;
+	private ByteArrayOutputStream output;
 	
-	public static void main(String [] args) throws IOException, JSONException, InterruptedException {
-		byte [] bigArrayData = Files.readAllBytes(new File("testdata/json-bigarray.json").toPath());
-		byte [] bigStringData = Files.readAllBytes(new File("testdata/json-bigstring.json").toPath());
-		Map<String, Object> obj;
-		long start, end;
-		
-		System.out.println("Running...");
-		start = System.nanoTime();
-		obj = testInputSpeed(bigArrayData);
-		end = System.nanoTime();
-		System.out.printf("Input-bigarray:   %.6fms%n", (end-start)/1E6);
-		start = System.nanoTime();
-		testOutputSpeed(obj);
-		end = System.nanoTime();
-		System.out.printf("Output-bigarray:  %.6fms%n", (end-start)/1E6);
-		
-		start = System.nanoTime();
-		obj = testInputSpeed(bigStringData);
-		end = System.nanoTime();
-		System.out.printf("Input-bigstring:  %.6fms%n", (end-start)/1E6);
-		start = System.nanoTime();
-		testOutputSpeed(obj);
-		end = System.nanoTime();
-		System.out.printf("Output-bigstring: %.6fms%n", (end-start)/1E6);
+	@Setup(Level.Trial)
+	public void setup() {
+		object = corpus.createObject();
+		array = corpus.createArray();
+		output = new ByteArrayOutputStream(corpus.objectBytes().length * 2);
 	}
 	
-	private static void testOutputSpeed(Map<String, Object> obj) throws IOException {
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		try (JSONOutputStream out = new JSONOutputStream(baos)) {
-			out.writeObject(obj);
+	@Benchmark
+	public ByteArrayOutputStream writeObject(Throughput throughput) throws IOException {
+		output.reset();
+		try (JSONOutputStream out = new JSONOutputStream(output)) {
+			out.setCompact(compact);
+			out.writeObject(object);
 		}
+		throughput.bytes += output.size();
+		return output;
 	}
 	
-	private static Map<String, Object> testInputSpeed(byte [] data) throws IOException, JSONException {
-		Map<String, Object> obj = null;
-		for (int i = 0; i < 10; ++i) {
-			try (JSONInputStream in = new JSONInputStream(new ByteArrayInputStream(data))) {
-				obj = in.readObject();
-			}
+	@Benchmark
+	public ByteArrayOutputStream writeArray(Throughput throughput) throws IOException {
+		output.reset();
+		try (JSONOutputStream out = new JSONOutputStream(output)) {
+			out.setCompact(compact);
+			out.writeArray(array);
 		}
-		return obj;
+		throughput.bytes += output.size();
+		return output;
 	}
 	
 }
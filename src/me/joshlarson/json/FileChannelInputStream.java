@@ -0,0 +1,135 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a range of a file with positional reads straight into the caller's buffer. The channel's own
+ * position is never used, so streams over different ranges of one channel can be read on different
+ * threads at the same time, and files larger than 2GB are supported
+ *
+ * @author josh
+ */
+final class FileChannelInputStream extends InputStream {
+	
+	private final FileChannel channel;
+	private final boolean ownsChannel;
+	private final long end;
+	private long position;
+	private byte [] wrapped;
+	private ByteBuffer wrapper;
+	
+	/**
+	 * Reads the whole file, and closes it along with this stream
+	 */
+	FileChannelInputStream(Path path) throws IOException {
+		this(FileChannel.open(path, StandardOpenOption.READ));
+	}
+	
+	private FileChannelInputStream(FileChannel channel) throws IOException {
+		this(channel, true, 0, size(channel));
+	}
+	
+	/**
+	 * Reads the bytes between start and end of the channel, which is left open when this stream is
+	 * closed
+	 */
+	FileChannelInputStream(FileChannel channel, long start, long end) {
+		this(channel, false, start, end);
+	}
+	
+	private FileChannelInputStream(FileChannel channel, boolean ownsChannel, long start, long end) {
+		this.channel = channel;
+		this.ownsChannel = ownsChannel;
+		this.end = end;
+		this.position = start;
+		this.wrapped = null;
+		this.wrapper = null;
+	}
+	
+	@Override
+	public int read() throws IOException {
+		byte [] b = new byte[1];
+		return read(b, 0, 1) <= 0 ? -1 : b[0] & 0xFF;
+	}
+	
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		long remaining = end - position;
+		if (remaining <= 0)
+			return -1;
+		if (len > remaining)
+			len = (int) remaining;
+		ByteBuffer wrapper = this.wrapper;
+		if (b != wrapped) { // the parse buffer is the same array on every call
+			wrapper = ByteBuffer.wrap(b);
+			this.wrapper = wrapper;
+			this.wrapped = b;
+		}
+		wrapper.limit(off + len).position(off);
+		int n = channel.read(wrapper, position);
+		if (n < 0)
+			return -1; // the file was truncated
+		position += n;
+		return n;
+	}
+	
+	@Override
+	public long skip(long n) {
+		long skipped = Math.max(0, Math.min(n, end - position));
+		position += skipped;
+		return skipped;
+	}
+	
+	@Override
+	public int available() {
+		return (int) Math.max(0, Math.min(end - position, Integer.MAX_VALUE));
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (ownsChannel)
+			channel.close();
+	}
+	
+	private static long size(FileChannel channel) throws IOException {
+		try {
+			return channel.size();
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+}
@@ -25,11 +25,23 @@
  */
 package me.joshlarson.json;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Provides convenience methods for stream operations that do automatic resource cleanup
+ * Provides convenience methods for stream operations that do automatic resource cleanup. Except for
+ * files, the input streams are taken from a shared pool and pointed at each source, so repeated calls
+ * reuse the same buffers instead of allocating new ones
  *
  * @author josh
  */
@@ -44,7 +56,8 @@ public class JSON {
 	 * @return the JSONObject read from the stream, or null if there was an exception
 	 */
 	public static Object readNext(InputStream is, boolean printError) {
-		try (JSONInputStream in = new JSONInputStream(is)) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(is);
 			return in.readNext();
 		} catch (IOException | JSONException e) {
 			if (printError)
@@ -61,7 +74,8 @@ public class JSON {
 	 * @return the JSONObject read from the stream, or null if there was an exception
 	 */
 	public static Object readNext(String str, boolean printError) {
-		try (JSONInputStream in = new JSONInputStream(str)) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(str);
 			return in.readNext();
 		} catch (IOException | JSONException e) {
 			if (printError)
@@ -78,7 +92,8 @@ public class JSON {
 	 * @return the JSONObject read from the stream, or null if there was an exception
 	 */
 	public static JSONObject readObject(InputStream is, boolean printError) {
-		try (JSONInputStream in = new JSONInputStream(is)) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(is);
 			return new JSONObject(in.readObject());
 		} catch (IOException | JSONException e) {
 			if (printError)
@@ -95,7 +110,8 @@ public class JSON {
 	 * @return the JSONObject read from the string, or null if there was an exception
 	 */
 	public static JSONObject readObject(String str, boolean printError) {
-		try (JSONInputStream in = new JSONInputStream(str)) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(str);
 			return new JSONObject(in.readObject());
 		} catch (IOException | JSONException e) {
 			if (printError)
@@ -112,7 +128,8 @@ public class JSON {
 	 * @return the JSONArray read from the stream, or null if there was an exception
 	 */
 	public static JSONArray readArray(InputStream is, boolean printError) {
-		try (JSONInputStream in = new JSONInputStream(is)) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(is);
 			return new JSONArray(in.readArray());
 		} catch (IOException | JSONException e) {
 			if (printError)
@@ -129,7 +146,287 @@ public class JSON {
 	 * @return the JSONArray read from the string, or null if there was an exception
 	 */
 	public static JSONArray readArray(String str, boolean printError) {
-		try (JSONInputStream in = new JSONInputStream(str)) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(str);
+			return new JSONArray(in.readArray());
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified bytes and reads either a JSONObject or a JSONArray
+	 *
+	 * @param data       the UTF-8 bytes to read from, which are parsed in place
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONObject or JSONArray read from the bytes, or null if there was an exception
+	 */
+	public static Object readNext(byte [] data, boolean printError) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data);
+			return in.readNext();
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified bytes and reads a JSONObject
+	 *
+	 * @param data       the UTF-8 bytes to read from, which are parsed in place
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONObject read from the bytes, or null if there was an exception
+	 */
+	public static JSONObject readObject(byte [] data, boolean printError) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data);
+			return new JSONObject(in.readObject());
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified bytes and reads a JSONArray
+	 *
+	 * @param data       the UTF-8 bytes to read from, which are parsed in place
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONArray read from the bytes, or null if there was an exception
+	 */
+	public static JSONArray readArray(byte [] data, boolean printError) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data);
+			return new JSONArray(in.readArray());
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified bytes and reads either a JSONObject or a JSONArray
+	 *
+	 * @param data       the UTF-8 bytes to read from, which are parsed in place
+	 * @param offset     the index of the first byte
+	 * @param length     the number of bytes
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONObject or JSONArray read from the bytes, or null if there was an exception
+	 */
+	public static Object readNext(byte [] data, int offset, int length, boolean printError) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data, offset, length);
+			return in.readNext();
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified bytes and reads a JSONObject
+	 *
+	 * @param data       the UTF-8 bytes to read from, which are parsed in place
+	 * @param offset     the index of the first byte
+	 * @param length     the number of bytes
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONObject read from the bytes, or null if there was an exception
+	 */
+	public static JSONObject readObject(byte [] data, int offset, int length, boolean printError) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data, offset, length);
+			return new JSONObject(in.readObject());
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified bytes and reads a JSONArray
+	 *
+	 * @param data       the UTF-8 bytes to read from, which are parsed in place
+	 * @param offset     the index of the first byte
+	 * @param length     the number of bytes
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONArray read from the bytes, or null if there was an exception
+	 */
+	public static JSONArray readArray(byte [] data, int offset, int length, boolean printError) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data, offset, length);
+			return new JSONArray(in.readArray());
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified buffer and reads either a JSONObject or a JSONArray
+	 *
+	 * @param data       the buffer to read from, which is parsed in place through its array. Its position is left
+	 *                   unchanged
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONObject or JSONArray read from the buffer, or null if there was an exception
+	 * @throws IllegalArgumentException if the buffer is direct or read-only, and so has no accessible array
+	 */
+	public static Object readNext(ByteBuffer data, boolean printError) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data);
+			return in.readNext();
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified buffer and reads a JSONObject
+	 *
+	 * @param data       the buffer to read from, which is parsed in place through its array. Its position is left
+	 *                   unchanged
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONObject read from the buffer, or null if there was an exception
+	 * @throws IllegalArgumentException if the buffer is direct or read-only, and so has no accessible array
+	 */
+	public static JSONObject readObject(ByteBuffer data, boolean printError) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data);
+			return new JSONObject(in.readObject());
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified buffer and reads a JSONArray
+	 *
+	 * @param data       the buffer to read from, which is parsed in place through its array. Its position is left
+	 *                   unchanged
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONArray read from the buffer, or null if there was an exception
+	 * @throws IllegalArgumentException if the buffer is direct or read-only, and so has no accessible array
+	 */
+	public static JSONArray readArray(ByteBuffer data, boolean printError) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data);
+			return new JSONArray(in.readArray());
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified characters and reads either a JSONObject or a JSONArray
+	 *
+	 * @param str        the characters to read from
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONObject or JSONArray read from the characters, or null if there was an exception
+	 */
+	public static Object readNext(CharSequence str, boolean printError) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(str);
+			return in.readNext();
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified characters and reads a JSONObject
+	 *
+	 * @param str        the characters to read from
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONObject read from the characters, or null if there was an exception
+	 */
+	public static JSONObject readObject(CharSequence str, boolean printError) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(str);
+			return new JSONObject(in.readObject());
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified characters and reads a JSONArray
+	 *
+	 * @param str        the characters to read from
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONArray read from the characters, or null if there was an exception
+	 */
+	public static JSONArray readArray(CharSequence str, boolean printError) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(str);
+			return new JSONArray(in.readArray());
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified file and reads either a JSONObject or a JSONArray. The file is closed afterwards
+	 *
+	 * @param path       the file to read from
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONObject or JSONArray read from the file, or null if there was an exception
+	 */
+	public static Object readNext(Path path, boolean printError) {
+		try (JSONInputStream in = new JSONInputStream(path)) {
+			return in.readNext();
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified file and reads a JSONObject. The file is closed afterwards
+	 *
+	 * @param path       the file to read from
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONObject read from the file, or null if there was an exception
+	 */
+	public static JSONObject readObject(Path path, boolean printError) {
+		try (JSONInputStream in = new JSONInputStream(path)) {
+			return new JSONObject(in.readObject());
+		} catch (IOException | JSONException e) {
+			if (printError)
+				e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified file and reads a JSONArray. The file is closed afterwards
+	 *
+	 * @param path       the file to read from
+	 * @param printError TRUE if exception stack traces should be printed, FALSE otherwise
+	 * @return the JSONArray read from the file, or null if there was an exception
+	 */
+	public static JSONArray readArray(Path path, boolean printError) {
+		try (JSONInputStream in = new JSONInputStream(path)) {
 			return new JSONArray(in.readArray());
 		} catch (IOException | JSONException e) {
 			if (printError)
@@ -147,7 +444,8 @@ public class JSON {
 	 * @throws JSONException if there is a JSON parsing error
 	 */
 	public static Object readNext(InputStream is) throws IOException, JSONException {
-		try (JSONInputStream in = new JSONInputStream(is)) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(is);
 			return in.readNext();
 		}
 	}
@@ -161,7 +459,8 @@ public class JSON {
 	 * @throws JSONException if there is a JSON parsing error
 	 */
 	public static Object readNext(String str) throws IOException, JSONException {
-		try (JSONInputStream in = new JSONInputStream(str)) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(str);
 			return in.readNext();
 		}
 	}
@@ -175,7 +474,8 @@ public class JSON {
 	 * @throws JSONException if there is a JSON parsing error
 	 */
 	public static JSONObject readObject(InputStream is) throws IOException, JSONException {
-		try (JSONInputStream in = new JSONInputStream(is)) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(is);
 			return new JSONObject(in.readObject());
 		}
 	}
@@ -189,7 +489,8 @@ public class JSON {
 	 * @throws JSONException if there is a JSON parsing error
 	 */
 	public static JSONObject readObject(String str) throws IOException, JSONException {
-		try (JSONInputStream in = new JSONInputStream(str)) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(str);
 			return new JSONObject(in.readObject());
 		}
 	}
@@ -203,7 +504,8 @@ public class JSON {
 	 * @throws JSONException if there is a JSON parsing error
 	 */
 	public static JSONArray readArray(InputStream is) throws IOException, JSONException {
-		try (JSONInputStream in = new JSONInputStream(is)) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(is);
 			return new JSONArray(in.readArray());
 		}
 	}
@@ -217,9 +519,295 @@ public class JSON {
 	 * @throws JSONException if there is a JSON parsing error
 	 */
 	public static JSONArray readArray(String str) throws IOException, JSONException {
-		try (JSONInputStream in = new JSONInputStream(str)) {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(str);
+			return new JSONArray(in.readArray());
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified bytes and reads either a JSONObject or a JSONArray
+	 *
+	 * @param data the UTF-8 bytes to read from, which are parsed in place
+	 * @return the JSONObject or JSONArray read from the bytes
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public static Object readNext(byte [] data) throws IOException, JSONException {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data);
+			return in.readNext();
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified bytes and reads a JSONObject
+	 *
+	 * @param data the UTF-8 bytes to read from, which are parsed in place
+	 * @return the JSONObject read from the bytes
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public static JSONObject readObject(byte [] data) throws IOException, JSONException {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data);
+			return new JSONObject(in.readObject());
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified bytes and reads a JSONArray
+	 *
+	 * @param data the UTF-8 bytes to read from, which are parsed in place
+	 * @return the JSONArray read from the bytes
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public static JSONArray readArray(byte [] data) throws IOException, JSONException {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data);
 			return new JSONArray(in.readArray());
 		}
 	}
 	
+	/**
+	 * Opens a new JSONInputStream with the specified bytes and reads either a JSONObject or a JSONArray
+	 *
+	 * @param data   the UTF-8 bytes to read from, which are parsed in place
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @return the JSONObject or JSONArray read from the bytes
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public static Object readNext(byte [] data, int offset, int length) throws IOException, JSONException {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data, offset, length);
+			return in.readNext();
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified bytes and reads a JSONObject
+	 *
+	 * @param data   the UTF-8 bytes to read from, which are parsed in place
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @return the JSONObject read from the bytes
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public static JSONObject readObject(byte [] data, int offset, int length) throws IOException, JSONException {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data, offset, length);
+			return new JSONObject(in.readObject());
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified bytes and reads a JSONArray
+	 *
+	 * @param data   the UTF-8 bytes to read from, which are parsed in place
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @return the JSONArray read from the bytes
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public static JSONArray readArray(byte [] data, int offset, int length) throws IOException, JSONException {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data, offset, length);
+			return new JSONArray(in.readArray());
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified buffer and reads either a JSONObject or a JSONArray
+	 *
+	 * @param data the buffer to read from, which is parsed in place through its array. Its position is left
+	 *             unchanged
+	 * @return the JSONObject or JSONArray read from the buffer
+	 * @throws IOException              if there is an exception within the input stream
+	 * @throws JSONException            if there is a JSON parsing error
+	 * @throws IllegalArgumentException if the buffer is direct or read-only, and so has no accessible array
+	 */
+	public static Object readNext(ByteBuffer data) throws IOException, JSONException {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data);
+			return in.readNext();
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified buffer and reads a JSONObject
+	 *
+	 * @param data the buffer to read from, which is parsed in place through its array. Its position is left
+	 *             unchanged
+	 * @return the JSONObject read from the buffer
+	 * @throws IOException              if there is an exception within the input stream
+	 * @throws JSONException            if there is a JSON parsing error
+	 * @throws IllegalArgumentException if the buffer is direct or read-only, and so has no accessible array
+	 */
+	public static JSONObject readObject(ByteBuffer data) throws IOException, JSONException {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data);
+			return new JSONObject(in.readObject());
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified buffer and reads a JSONArray
+	 *
+	 * @param data the buffer to read from, which is parsed in place through its array. Its position is left
+	 *             unchanged
+	 * @return the JSONArray read from the buffer
+	 * @throws IOException              if there is an exception within the input stream
+	 * @throws JSONException            if there is a JSON parsing error
+	 * @throws IllegalArgumentException if the buffer is direct or read-only, and so has no accessible array
+	 */
+	public static JSONArray readArray(ByteBuffer data) throws IOException, JSONException {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(data);
+			return new JSONArray(in.readArray());
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified characters and reads either a JSONObject or a JSONArray
+	 *
+	 * @param str the characters to read from
+	 * @return the JSONObject or JSONArray read from the characters
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public static Object readNext(CharSequence str) throws IOException, JSONException {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(str);
+			return in.readNext();
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified characters and reads a JSONObject
+	 *
+	 * @param str the characters to read from
+	 * @return the JSONObject read from the characters
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public static JSONObject readObject(CharSequence str) throws IOException, JSONException {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(str);
+			return new JSONObject(in.readObject());
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified characters and reads a JSONArray
+	 *
+	 * @param str the characters to read from
+	 * @return the JSONArray read from the characters
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public static JSONArray readArray(CharSequence str) throws IOException, JSONException {
+		try (JSONInputStream in = JSONPool.acquireInput()) {
+			in.setInput(str);
+			return new JSONArray(in.readArray());
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified file and reads either a JSONObject or a JSONArray. The file is closed afterwards
+	 *
+	 * @param path the file to read from
+	 * @return the JSONObject or JSONArray read from the file
+	 * @throws IOException   if the file cannot be read
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public static Object readNext(Path path) throws IOException, JSONException {
+		try (JSONInputStream in = new JSONInputStream(path)) {
+			return in.readNext();
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified file and reads a JSONObject. The file is closed afterwards
+	 *
+	 * @param path the file to read from
+	 * @return the JSONObject read from the file
+	 * @throws IOException   if the file cannot be read
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public static JSONObject readObject(Path path) throws IOException, JSONException {
+		try (JSONInputStream in = new JSONInputStream(path)) {
+			return new JSONObject(in.readObject());
+		}
+	}
+	
+	/**
+	 * Opens a new JSONInputStream with the specified file and reads a JSONArray. The file is closed afterwards
+	 *
+	 * @param path the file to read from
+	 * @return the JSONArray read from the file
+	 * @throws IOException   if the file cannot be read
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public static JSONArray readArray(Path path) throws IOException, JSONException {
+		try (JSONInputStream in = new JSONInputStream(path)) {
+			return new JSONArray(in.readArray());
+		}
+	}
+	
+	/**
+	 * Opens a stream over the elements of the top-level array of the specified input stream. Each element is parsed when the stream reaches it, so
+	 * the array is never held in memory as a whole. Closing the returned stream closes the input stream
+	 *
+	 * @param is the input stream to read from
+	 * @return a stream of every element, which throws UncheckedJSONException or UncheckedIOException if the input cannot be parsed or read
+	 */
+	public static Stream<Object> streamArray(InputStream is) {
+		JSONInputStream in = new JSONInputStream(is);
+		return StreamSupport.stream(new JSONArraySpliterator(JSONArraySpliterator.source(in)), false).onClose(() -> close(in));
+	}
+	
+	/**
+	 * Opens a stream over the elements of the top-level array of the specified bytes, which are parsed in place as the stream reaches each
+	 * element. A parallel stream pre-scans the array once, and then parses ranges of elements on every thread
+	 *
+	 * @param data the UTF-8 encoded JSON
+	 * @return a stream of every element, which throws UncheckedJSONException if the input cannot be parsed
+	 */
+	public static Stream<Object> streamArray(byte [] data) {
+		return StreamSupport.stream(new JSONArraySpliterator(JSONArraySpliterator.source(data, 0, data.length, LinkedHashMap::new, ArrayList::new)), false);
+	}
+	
+	/**
+	 * Opens a stream over the elements of the top-level array of the specified file, which is read as the stream reaches each element. A
+	 * parallel stream pre-scans the array once, and then parses ranges of elements on every thread. Closing the returned stream closes the
+	 * file
+	 *
+	 * @param path the file to read from
+	 * @return a stream of every element, which throws UncheckedJSONException or UncheckedIOException if the file cannot be parsed or read
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static Stream<Object> streamArray(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			JSONArraySpliterator.SplittableSource source = JSONArraySpliterator.source(channel, channel.size(), LinkedHashMap::new, ArrayList::new);
+			return StreamSupport.stream(new JSONArraySpliterator(source), false).onClose(() -> close(channel));
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	private static void close(Closeable closeable) {
+		try {
+			closeable.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
 }
@@ -25,7 +25,6 @@
  */
 package me.joshlarson.json;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.*;
 
@@ -47,6 +46,10 @@ public class JSONArray implements List<Object>, Iterable<Object> {
 		this.array = array;
 	}
 	
+	List<Object> getBackingList() {
+		return array;
+	}
+	
 	@Override
 	public int size() {
 		return array.size();
@@ -289,14 +292,17 @@ public class JSONArray implements List<Object>, Iterable<Object> {
 	 * @return a JSON string compatible with RFC 4627
 	 */
 	public String toString(boolean compact) {
-		ByteArrayOutputStream str = new ByteArrayOutputStream();
-		try (JSONOutputStream stream = new JSONOutputStream(str)) {
+		JSONPool.StringOutput out = JSONPool.acquireOutput();
+		try {
+			JSONOutputStream stream = out.getStream();
 			stream.setCompact(compact);
 			stream.writeArray(this);
+			return out.toUtf8String();
 		} catch (IOException e) {
 			return "Failed: " + e.getMessage();
+		} finally {
+			JSONPool.release(out);
 		}
-		return str.toString();
 	}
 	
 }
@@ -0,0 +1,300 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Yields the elements of a top-level array one at a time, as soon as each has been parsed, so the
+ * array is never held in memory as a whole. Arrays in memory or in a file can also be split for a
+ * parallel stream: the first call to {@link #trySplit()} pre-scans the rest of the input with a
+ * {@link JSONArraySplitter}, and each split then takes half of the remaining ranges of elements. An
+ * array that is already being read one element at a time is no longer split
+ * <p>
+ * Parse errors are thrown as {@link UncheckedJSONException} and read errors as
+ * {@link UncheckedIOException}
+ *
+ * @author josh
+ */
+final class JSONArraySpliterator implements Spliterator<Object> {
+	
+	private final Source source;
+	private final SplittableSource splittable;
+	private JSONInputStream in;
+	private boolean first;
+	private boolean ended;
+	private JSONArraySplitter splitter;
+	private int range;
+	private int rangeEnd;
+	
+	JSONArraySpliterator(Source source) {
+		this(source, null);
+	}
+	
+	JSONArraySpliterator(SplittableSource source) {
+		this(source, source);
+	}
+	
+	private JSONArraySpliterator(Source source, SplittableSource splittable) {
+		this.source = source;
+		this.splittable = splittable;
+		this.in = null;
+		this.first = true;
+		this.ended = false;
+		this.splitter = null;
+	}
+	
+	private JSONArraySpliterator(SplittableSource source, JSONArraySplitter splitter, int range, int rangeEnd, JSONInputStream in, boolean first) {
+		this.source = source;
+		this.splittable = source;
+		this.in = in;
+		this.first = first;
+		this.ended = false;
+		this.splitter = splitter;
+		this.range = range;
+		this.rangeEnd = rangeEnd;
+	}
+	
+	@Override
+	public boolean tryAdvance(Consumer<? super Object> action) {
+		try {
+			if (splitter == null)
+				return advanceArray(action);
+			return advanceRange(action);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (JSONException e) {
+			throw new UncheckedJSONException(e);
+		}
+	}
+	
+	@Override
+	public Spliterator<Object> trySplit() {
+		if (ended)
+			return null;
+		if (splitter == null) {
+			if (splittable == null || in != null)
+				return null;
+			try {
+				splitter = splittable.split();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} catch (JSONException e) {
+				throw new UncheckedJSONException(e);
+			}
+			range = 0;
+			rangeEnd = splitter.isEmpty() ? 0 : splitter.getRangeCount();
+		}
+		int remaining = rangeEnd - range;
+		if (remaining < 2)
+			return null;
+		int mid = range + remaining / 2;
+		Spliterator<Object> prefix = new JSONArraySpliterator(splittable, splitter, range, mid, in, first);
+		range = mid;
+		in = null;
+		return prefix;
+	}
+	
+	/**
+	 * Returns the number of bytes left to read, which is all that is known about the number of
+	 * elements. The stream framework sizes its splits from the first estimate, so an input that can
+	 * be split reports its whole length up front rather than switching units after the first split
+	 */
+	@Override
+	public long estimateSize() {
+		if (splitter == null) {
+			if (ended)
+				return 0;
+			return splittable == null ? Long.MAX_VALUE : splittable.size();
+		}
+		if (range >= rangeEnd)
+			return 0;
+		return splitter.getRangeEnd(rangeEnd - 1) - splitter.getRangeStart(range);
+	}
+	
+	@Override
+	public int characteristics() {
+		return ORDERED;
+	}
+	
+	private boolean advanceArray(Consumer<? super Object> action) throws IOException, JSONException {
+		if (ended)
+			return false;
+		if (in == null) {
+			in = source.open();
+			if (!in.beginArray()) {
+				finish();
+				return false;
+			}
+		}
+		if (!in.readElement(action, first)) {
+			finish();
+			return false;
+		}
+		first = false;
+		return true;
+	}
+	
+	private boolean advanceRange(Consumer<? super Object> action) throws IOException, JSONException {
+		while (range < rangeEnd) {
+			if (in == null) {
+				splitter.checkComplete();
+				in = splittable.open(splitter.getRangeStart(range), splitter.getRangeEnd(range));
+				first = true;
+			}
+			if (in.readRangeElement(action, first, range == splitter.getRangeCount() - 1)) {
+				first = false;
+				return true;
+			}
+			in.close();
+			in = null;
+			range++;
+		}
+		return false;
+	}
+	
+	private void finish() throws IOException {
+		ended = true;
+		in.close();
+		in = null;
+	}
+	
+	/**
+	 * Creates a source that reads the array from a stream, which cannot be split
+	 */
+	static Source source(JSONInputStream in) {
+		return new Source() {
+			@Override
+			JSONInputStream open() {
+				return in;
+			}
+		};
+	}
+	
+	/**
+	 * Creates a source that parses the array in place
+	 */
+	static SplittableSource source(byte [] data, int offset, int length, Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
+		return new SplittableSource() {
+			@Override
+			JSONInputStream open() {
+				return new JSONInputStream(data, offset, length, objectSupplier, arraySupplier);
+			}
+			
+			@Override
+			long size() {
+				return length;
+			}
+			
+			@Override
+			JSONArraySplitter split() throws JSONException {
+				return JSONArraySplitter.split(data, offset, length, rangeSize(length));
+			}
+			
+			@Override
+			JSONInputStream open(long start, long end) {
+				return new JSONInputStream(data, (int) start, (int) (end - start), objectSupplier, arraySupplier);
+			}
+		};
+	}
+	
+	/**
+	 * Creates a source that reads the array with positional reads on the file, which is left open
+	 */
+	static SplittableSource source(FileChannel channel, long size, Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
+		return new SplittableSource() {
+			@Override
+			JSONInputStream open() {
+				return new JSONInputStream(new FileChannelInputStream(channel, 0, size), JSONInputStream.FILE_BUFFER_SIZE, objectSupplier, arraySupplier);
+			}
+			
+			@Override
+			long size() {
+				return size;
+			}
+			
+			@Override
+			JSONArraySplitter split() throws IOException, JSONException {
+				return JSONArraySplitter.split(channel, size, rangeSize(size));
+			}
+			
+			@Override
+			JSONInputStream open(long start, long end) {
+				return new JSONInputStream(new FileChannelInputStream(channel, start, end), JSONInputStream.FILE_BUFFER_SIZE, objectSupplier, arraySupplier);
+			}
+		};
+	}
+	
+	/**
+	 * Parallel streams run on the common pool, so that is what the ranges are sized for
+	 */
+	private static long rangeSize(long length) {
+		return JSONArraySplitter.rangeSize(length, JSONParallelParser.DEFAULT_MIN_RANGE_SIZE, ForkJoinPool.getCommonPoolParallelism());
+	}
+	
+	/**
+	 * An input that can only be read from start to end
+	 */
+	abstract static class Source {
+		
+		/**
+		 * Opens a stream over the whole input, positioned before the array
+		 */
+		abstract JSONInputStream open() throws IOException;
+		
+	}
+	
+	/**
+	 * An input that can also be pre-scanned and then read one range of elements at a time
+	 */
+	abstract static class SplittableSource extends Source {
+		
+		/**
+		 * Returns the number of bytes of the input
+		 */
+		abstract long size();
+		
+		/**
+		 * Pre-scans the whole array
+		 */
+		abstract JSONArraySplitter split() throws IOException, JSONException;
+		
+		/**
+		 * Opens a stream over a range of elements that has been found by {@link #split()}
+		 */
+		abstract JSONInputStream open(long start, long end) throws IOException;
+		
+	}
+	
+}
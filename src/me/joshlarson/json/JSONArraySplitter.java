@@ -0,0 +1,231 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Finds the top-level commas of an array without parsing it, so that ranges of its elements can be
+ * parsed on several threads. Only quotes, backslashes and brackets are looked at: strings are
+ * skipped with {@link JSONScanner#findQuoteOrBackslash(int, int)} and everything else is a single
+ * switch per byte, which is several times faster than building the values. Whether the elements
+ * themselves are valid is left to the parser of each range
+ * <p>
+ * The input may be scanned in pieces, each at its offset within the whole input, so files are
+ * scanned through a buffer and offsets beyond 2GB are supported
+ *
+ * @author josh
+ */
+final class JSONArraySplitter {
+	
+	private static final int TASKS_PER_THREAD = 4;
+	private static final int FILE_BUFFER_SIZE = 64 * 1024;
+	
+	private final long rangeSize;
+	private long [] splits;
+	private int splitCount;
+	private long open;
+	private long close;
+	private long lastSplit;
+	private int depth;
+	private boolean inString;
+	private boolean escaped;
+	
+	/**
+	 * Creates a splitter that ends a range at the first top-level comma that is at least the specified
+	 * number of bytes after the start of the range
+	 */
+	JSONArraySplitter(long rangeSize) {
+		this.rangeSize = rangeSize;
+		this.splits = new long[16];
+		this.splitCount = 0;
+		this.open = -1;
+		this.close = -1;
+		this.depth = 0;
+		this.inString = false;
+		this.escaped = false;
+	}
+	
+	/**
+	 * Scans the array within the specified range of bytes
+	 */
+	static JSONArraySplitter split(byte [] data, int offset, int length, long rangeSize) throws JSONException {
+		JSONArraySplitter splitter = new JSONArraySplitter(rangeSize);
+		splitter.scan(new JSONScanner(data), data, offset, offset + length, 0);
+		return splitter;
+	}
+	
+	/**
+	 * Scans the array at the start of the specified file, reading it sequentially through a buffer
+	 */
+	static JSONArraySplitter split(FileChannel channel, long size, long rangeSize) throws IOException, JSONException {
+		JSONArraySplitter splitter = new JSONArraySplitter(rangeSize);
+		byte [] buffer = new byte[FILE_BUFFER_SIZE];
+		JSONScanner scanner = new JSONScanner(buffer);
+		try (FileChannelInputStream in = new FileChannelInputStream(channel, 0, size)) {
+			long offset = 0;
+			int n;
+			while ((n = in.read(buffer)) > 0 && !splitter.scan(scanner, buffer, 0, n, offset))
+				offset += n;
+		}
+		return splitter;
+	}
+	
+	/**
+	 * Aims for a few ranges per thread, so that threads that finish early can take on another range
+	 */
+	static long rangeSize(long length, int minRangeSize, int parallelism) {
+		return Math.max(minRangeSize, length / ((long) parallelism * TASKS_PER_THREAD));
+	}
+	
+	/**
+	 * Scans the bytes between pos and end of the specified array, which start at the specified offset
+	 * of the whole input
+	 *
+	 * @return TRUE once the closing bracket of the array has been found, FALSE if more input is needed
+	 */
+	boolean scan(JSONScanner scanner, byte [] data, int pos, int end, long offset) throws JSONException {
+		if (close >= 0)
+			return true;
+		if (open < 0) {
+			pos = scanner.skipWhitespace(pos, end);
+			if (pos >= end)
+				return false;
+			if (data[pos] != '[')
+				throw new JSONException("JSON array must start with '['");
+			open = offset + pos;
+			lastSplit = open;
+			depth = 1;
+			pos++;
+		}
+		int depth = this.depth;
+		boolean inString = this.inString;
+		boolean escaped = this.escaped;
+		try {
+			while (pos < end) {
+				if (inString) {
+					if (escaped) {
+						escaped = false;
+						pos++;
+						continue;
+					}
+					pos = scanner.findQuoteOrBackslash(pos, end);
+					if (pos >= end)
+						break;
+					if (data[pos] == '\\')
+						escaped = true;
+					else
+						inString = false;
+					pos++;
+					continue;
+				}
+				byte c = data[pos];
+				switch (c) {
+					case '\"':
+						inString = true;
+						break;
+					case '[':
+					case '{':
+						depth++;
+						break;
+					case ']':
+					case '}':
+						if (--depth == 0) {
+							if (c != ']')
+								throw new JSONException("Expected ',' or ']' after value!");
+							close = offset + pos;
+							return true;
+						}
+						break;
+					case ',':
+						if (depth == 1 && offset + pos - lastSplit >= rangeSize)
+							addSplit(offset + pos);
+						break;
+					default:
+						break;
+				}
+				pos++;
+			}
+			return false;
+		} finally {
+			this.depth = depth;
+			this.inString = inString;
+			this.escaped = escaped;
+		}
+	}
+	
+	/**
+	 * Returns TRUE if the input was nothing but whitespace
+	 */
+	boolean isEmpty() {
+		return open < 0;
+	}
+	
+	/**
+	 * Checks that the closing bracket was found, once the whole input has been scanned
+	 */
+	void checkComplete() throws JSONException {
+		if (open >= 0 && close < 0)
+			throw new JSONException(inString ? "Unterminated string" : "Unexpected end of input");
+	}
+	
+	int getRangeCount() {
+		return splitCount + 1;
+	}
+	
+	/**
+	 * Returns the offset of the first byte of a range, which is just past the opening bracket or a
+	 * top-level comma
+	 */
+	long getRangeStart(int range) {
+		return (range == 0 ? open : splits[range - 1]) + 1;
+	}
+	
+	/**
+	 * Returns the offset just past the last byte of a range, which is a top-level comma or the closing
+	 * bracket
+	 */
+	long getRangeEnd(int range) {
+		return range == splitCount ? close : splits[range];
+	}
+	
+	/**
+	 * Returns the offset just past the closing bracket of the array
+	 */
+	long getEnd() {
+		return close + 1;
+	}
+	
+	private void addSplit(long comma) {
+		if (splitCount >= splits.length)
+			splits = Arrays.copyOf(splits, splitCount * 2);
+		splits[splitCount++] = comma;
+		lastSplit = comma;
+	}
+	
+}
@@ -0,0 +1,551 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A non-blocking parser that is pushed chunks of input as they arrive, instead of pulling them from
+ * an InputStream. Chunks may be split anywhere, including in the middle of a string, escape
+ * sequence, UTF-8 character or number. Everything needed to continue is kept between chunks, so a
+ * selector loop or a virtual thread can parse each chunk as soon as it has been received:
+ * <pre>
+ * parser.feed(chunk, 0, length);
+ * Object value;
+ * while ((value = parser.readNext()) != null)
+ *     handle(value);
+ * </pre>
+ * Tokens can also be read one at a time with {@link #nextToken()}, which returns
+ * {@link JSONToken#NOT_AVAILABLE} when the current chunk has been used up. Fed arrays are parsed in
+ * place, so they must not be modified until {@link #needsInput()} returns true. A parser must not be
+ * shared between threads
+ *
+ * @author josh
+ */
+public class JSONFeedParser {
+	
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_OBJECT = 2;
+	private static final int NONEMPTY_OBJECT = 3;
+	private static final int DANGLING_NAME = 4;
+	private static final int EMPTY_ARRAY = 5;
+	private static final int NONEMPTY_ARRAY = 6;
+	private static final int OBJECT_NAME = 7; // after a ',' within an object
+	private static final int OBJECT_VALUE = 8; // after a ':'
+	private static final int ARRAY_VALUE = 9; // after a ',' within an array
+	
+	private static final int PARTIAL_NONE = 0;
+	private static final int PARTIAL_STRING = 1;
+	private static final int PARTIAL_NAME = 2;
+	private static final int PARTIAL_SCALAR = 3;
+	
+	private static final int STRING_PLAIN = 0;
+	private static final int STRING_ESCAPE = 1;
+	private static final int STRING_UNICODE = 2;
+	private static final int STRING_UTF8 = 3;
+	
+	private final Supplier<Map<String, Object>> objectSupplier;
+	private final Supplier<List<Object>> arraySupplier;
+	
+	private byte [] data;
+	private int pos;
+	private int end;
+	private boolean ended;
+	private JSONScanner scanner;
+	private byte [] copyBuffer;
+	
+	private int [] stack;
+	private int stackSize;
+	private int partial;
+	private int stringState;
+	private int unicodeCount; // hex digits of a unicode escape still to come
+	private int unicode;
+	private final JSONStringDecoder str;
+	private final long [] number;
+	private byte [] scalarData;
+	private int scalarLength;
+	private Object value;
+	
+	private Object [] building;
+	private String [] names;
+	private int buildingSize;
+	
+	/**
+	 * Creates a new parser that produces LinkedHashMap objects and ArrayList arrays
+	 */
+	public JSONFeedParser() {
+		this(LinkedHashMap::new, ArrayList::new);
+	}
+	
+	/**
+	 * Creates a new parser
+	 *
+	 * @param objectSupplier a supplier for JSON object implementations
+	 * @param arraySupplier  a supplier for JSON array implementations
+	 */
+	public JSONFeedParser(Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
+		this.objectSupplier = objectSupplier;
+		this.arraySupplier = arraySupplier;
+		this.data = null;
+		this.pos = 0;
+		this.end = 0;
+		this.ended = false;
+		this.stack = new int[32];
+		this.stackSize = 1;
+		this.stack[0] = EMPTY_DOCUMENT;
+		this.partial = PARTIAL_NONE;
+		this.str = new JSONStringDecoder(512);
+		this.number = new long[2];
+		this.scalarData = new byte[32];
+		this.building = new Object[32];
+		this.names = new String[32];
+		this.buildingSize = 0;
+	}
+	
+	/**
+	 * Supplies the next chunk of UTF-8 encoded input. The array is parsed in place
+	 *
+	 * @param data the next bytes of input
+	 * @throws IllegalStateException if the previous chunk has not been consumed yet, or
+	 *                               {@link #endOfInput()} has been called
+	 */
+	public void feed(byte [] data) {
+		feed(data, 0, data.length);
+	}
+	
+	/**
+	 * Supplies the next chunk of UTF-8 encoded input. The range is parsed in place
+	 *
+	 * @param data   the next bytes of input
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @throws IllegalStateException if the previous chunk has not been consumed yet, or
+	 *                               {@link #endOfInput()} has been called
+	 */
+	public void feed(byte [] data, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > data.length || offset + length < 0)
+			throw new IndexOutOfBoundsException("offset=" + offset + " length=" + length + " array length=" + data.length);
+		if (pos < end)
+			throw new IllegalStateException("The previous input has not been consumed yet");
+		if (ended)
+			throw new IllegalStateException("The end of input has already been reached");
+		if (data != this.data) {
+			this.data = data;
+			this.scanner = new JSONScanner(data);
+		}
+		this.pos = offset;
+		this.end = offset + length;
+	}
+	
+	/**
+	 * Supplies the remaining bytes of the specified buffer as the next chunk, and advances its
+	 * position to its limit. Buffers with an accessible array are parsed in place, while direct and
+	 * read-only buffers are copied into an internal buffer that is reused between chunks
+	 *
+	 * @param data the next bytes of input
+	 * @throws IllegalStateException if the previous chunk has not been consumed yet, or
+	 *                               {@link #endOfInput()} has been called
+	 */
+	public void feed(ByteBuffer data) {
+		int length = data.remaining();
+		if (data.hasArray()) {
+			feed(data.array(), data.arrayOffset() + data.position(), length);
+		} else {
+			if (pos < end)
+				throw new IllegalStateException("The previous input has not been consumed yet");
+			if (copyBuffer == null || copyBuffer.length < length)
+				copyBuffer = new byte[Math.max(length, 4 * 1024)];
+			data.duplicate().get(copyBuffer, 0, length);
+			feed(copyBuffer, 0, length);
+		}
+		data.position(data.limit());
+	}
+	
+	/**
+	 * Marks the end of the input. Any number, boolean or null that ends with the input is completed,
+	 * and {@link JSONToken#END_DOCUMENT} is returned once everything else has been read
+	 */
+	public void endOfInput() {
+		ended = true;
+	}
+	
+	/**
+	 * Returns whether or not all of the fed input has been consumed, so that the next chunk can be
+	 * supplied
+	 *
+	 * @return TRUE if more input can be fed, FALSE otherwise
+	 */
+	public boolean needsInput() {
+		return pos >= end && !ended;
+	}
+	
+	/**
+	 * Returns the number of objects and arrays that are currently open
+	 *
+	 * @return the current nesting depth
+	 */
+	public int getDepth() {
+		return stackSize - 1;
+	}
+	
+	/**
+	 * Returns the decoded value of the name or scalar most recently returned by {@link #nextToken()}:
+	 * a String, Long, Double, Boolean or null
+	 *
+	 * @return the value of the last token
+	 */
+	public Object getValue() {
+		return value;
+	}
+	
+	/**
+	 * Reads the next object or array that is completed by the input fed so far. Partially read values
+	 * are kept until the rest of their input arrives, so this can be called again after every feed
+	 *
+	 * @return the next Map or List, or null if more input is needed or the input has ended
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public Object readNext() throws JSONException {
+		if (buildingSize == 0 && stackSize > 1)
+			throw new IllegalStateException("readNext() cannot be used after reading part of a value with nextToken()");
+		while (true) {
+			JSONToken token = nextToken();
+			switch (token) {
+				case NOT_AVAILABLE:
+				case END_DOCUMENT:
+					return null;
+				case BEGIN_OBJECT:
+					startContainer(objectSupplier.get());
+					break;
+				case BEGIN_ARRAY:
+					startContainer(arraySupplier.get());
+					break;
+				case NAME:
+					names[buildingSize - 1] = (String) value;
+					break;
+				case END_OBJECT:
+				case END_ARRAY:
+					Object container = building[--buildingSize];
+					building[buildingSize] = null;
+					if (buildingSize == 0)
+						return container;
+					break;
+				default:
+					if (buildingSize == 0)
+						throw new JSONException("Invalid start to object/array!");
+					addValue(value);
+					break;
+			}
+		}
+	}
+	
+	/**
+	 * Reads the next token from the input fed so far. For names and scalar values, the decoded value
+	 * is available afterwards through {@link #getValue()}
+	 *
+	 * @return the next token, or {@link JSONToken#NOT_AVAILABLE} if more input is needed first
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public JSONToken nextToken() throws JSONException {
+		value = null;
+		switch (partial) {
+			case PARTIAL_STRING:
+			case PARTIAL_NAME:
+				return continueString();
+			case PARTIAL_SCALAR:
+				return continueScalar();
+		}
+		while (true) {
+			int c = nextStructural();
+			if (c < 0) {
+				if (!ended)
+					return JSONToken.NOT_AVAILABLE;
+				if (stackSize > 1)
+					throw new JSONException("Unexpected end of input");
+				return JSONToken.END_DOCUMENT;
+			}
+			switch (stack[stackSize - 1]) {
+				case EMPTY_DOCUMENT:
+				case NONEMPTY_DOCUMENT:
+					stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+					return startValue(c);
+				case EMPTY_ARRAY:
+					if (c == ']') {
+						stackSize--;
+						return JSONToken.END_ARRAY;
+					}
+					stack[stackSize - 1] = NONEMPTY_ARRAY;
+					return startValue(c);
+				case NONEMPTY_ARRAY:
+					if (c == ']') {
+						stackSize--;
+						return JSONToken.END_ARRAY;
+					}
+					if (c != ',')
+						throw new JSONException("Expected ',' or ']' after value!");
+					stack[stackSize - 1] = ARRAY_VALUE;
+					break;
+				case ARRAY_VALUE:
+					stack[stackSize - 1] = NONEMPTY_ARRAY;
+					return startValue(c);
+				case EMPTY_OBJECT:
+					if (c == '}') {
+						stackSize--;
+						return JSONToken.END_OBJECT;
+					}
+					return startName(c);
+				case NONEMPTY_OBJECT:
+					if (c == '}') {
+						stackSize--;
+						return JSONToken.END_OBJECT;
+					}
+					if (c != ',')
+						throw new JSONException("Expected ',' or '}' after value!");
+					stack[stackSize - 1] = OBJECT_NAME;
+					break;
+				case OBJECT_NAME:
+					return startName(c);
+				case DANGLING_NAME:
+					if (c != ':')
+						throw new JSONException("Attributes must be key-value pairs separated by ':'");
+					stack[stackSize - 1] = OBJECT_VALUE;
+					break;
+				case OBJECT_VALUE:
+					stack[stackSize - 1] = NONEMPTY_OBJECT;
+					return startValue(c);
+				default:
+					throw new IllegalStateException("nextToken()");
+			}
+		}
+	}
+	
+	/**
+	 * Consumes and returns the next byte that is not whitespace, or returns -1 if the input fed so far
+	 * has been used up
+	 */
+	private int nextStructural() {
+		byte [] data = this.data;
+		int pos = this.pos;
+		int end = this.end;
+		while (pos < end) {
+			byte c = data[pos++];
+			if (c != ' ' && c != '\n' && c != '\t' && c != '\r') {
+				this.pos = pos;
+				return c & 0xFF;
+			}
+		}
+		this.pos = pos;
+		return -1;
+	}
+	
+	private JSONToken startName(int c) throws JSONException {
+		if (c != '\"')
+			throw new JSONException("Keys must start with \"!");
+		stack[stackSize - 1] = DANGLING_NAME;
+		partial = PARTIAL_NAME;
+		stringState = STRING_PLAIN;
+		str.clear();
+		return continueString();
+	}
+	
+	private JSONToken startValue(int c) throws JSONException {
+		switch (c) {
+			case '{':
+				push(EMPTY_OBJECT);
+				return JSONToken.BEGIN_OBJECT;
+			case '[':
+				push(EMPTY_ARRAY);
+				return JSONToken.BEGIN_ARRAY;
+			case '\"':
+				partial = PARTIAL_STRING;
+				stringState = STRING_PLAIN;
+				str.clear();
+				return continueString();
+			case 't':
+			case 'f':
+			case 'n':
+			case '-':
+			case '+':
+			case '0':
+			case '1':
+			case '2':
+			case '3':
+			case '4':
+			case '5':
+			case '6':
+			case '7':
+			case '8':
+			case '9':
+				partial = PARTIAL_SCALAR;
+				scalarData[0] = (byte) c;
+				scalarLength = 1;
+				return continueScalar();
+			default:
+				throw new JSONException("Unexpected character: " + (char) c);
+		}
+	}
+	
+	/**
+	 * Decodes as much of the current string as the input allows. Plain ASCII strings that are entirely
+	 * within one chunk are created straight from the input
+	 */
+	private JSONToken continueString() throws JSONException {
+		byte [] data = this.data;
+		int pos = this.pos;
+		int end = this.end;
+		JSONStringDecoder str = this.str;
+		if (str.length() == 0 && stringState == STRING_PLAIN && pos < end) {
+			int run = scanner.findStringSpecial(pos, end);
+			if (run < end && data[run] == '\"') {
+				this.pos = run + 1;
+				return finishString(JSONScanner.asciiString(data, pos, run - pos));
+			}
+		}
+		while (pos < end) {
+			int b = data[pos] & 0xFF;
+			switch (stringState) {
+				case STRING_PLAIN: {
+					int run = scanner.findStringSpecial(pos, end);
+					if (run > pos) {
+						str.appendAscii(data, pos, run);
+						pos = run;
+						break;
+					}
+					pos++;
+					if (b == '\"') {
+						this.pos = pos;
+						return finishString(str.toString());
+					}
+					if (b == '\\')
+						stringState = STRING_ESCAPE;
+					else if (str.startUtf8(b) > 0)
+						stringState = STRING_UTF8;
+					break;
+				}
+				case STRING_ESCAPE:
+					pos++;
+					stringState = STRING_PLAIN;
+					if (!str.appendEscape(b)) {
+						stringState = STRING_UNICODE;
+						unicodeCount = 4;
+						unicode = 0;
+					}
+					break;
+				case STRING_UNICODE:
+					pos++;
+					unicode = (unicode << 4) | JSONStringDecoder.hex(b);
+					if (--unicodeCount == 0) {
+						str.append((char) unicode);
+						stringState = STRING_PLAIN;
+					}
+					break;
+				case STRING_UTF8: {
+					int remaining = str.continueUtf8(b);
+					if (remaining < 0) {
+						stringState = STRING_PLAIN; // the offending byte is decoded again as the start of the next character
+						break;
+					}
+					pos++;
+					if (remaining == 0)
+						stringState = STRING_PLAIN;
+					break;
+				}
+			}
+		}
+		this.pos = pos;
+		if (ended)
+			throw new JSONException("Unterminated string");
+		return JSONToken.NOT_AVAILABLE;
+	}
+	
+	private JSONToken finishString(String str) {
+		JSONToken token = partial == PARTIAL_NAME ? JSONToken.NAME : JSONToken.STRING;
+		partial = PARTIAL_NONE;
+		value = str;
+		return token;
+	}
+	
+	/**
+	 * Collects the current number, boolean or null until whitespace, ',', ']', '}' or the end of input
+	 */
+	private JSONToken continueScalar() throws JSONException {
+		byte [] data = this.data;
+		int pos = this.pos;
+		int end = this.end;
+		while (pos < end && !JSONIndexedParser.isTokenEnd(data[pos])) {
+			if (scalarLength == scalarData.length)
+				scalarData = Arrays.copyOf(scalarData, scalarLength * 2);
+			scalarData[scalarLength++] = data[pos++];
+		}
+		this.pos = pos;
+		if (pos >= end && !ended)
+			return JSONToken.NOT_AVAILABLE;
+		partial = PARTIAL_NONE;
+		value = JSONNumbers.parseToken(scalarData, 0, scalarLength, number);
+		if (value == null)
+			return JSONToken.NULL;
+		return value instanceof Boolean ? JSONToken.BOOLEAN : JSONToken.NUMBER;
+	}
+	
+	/**
+	 * Adds the new container to its parent straight away, so that the parent keeps the attribute order
+	 * of the input
+	 */
+	private void startContainer(Object container) {
+		if (buildingSize == building.length) {
+			building = Arrays.copyOf(building, buildingSize * 2);
+			names = Arrays.copyOf(names, buildingSize * 2);
+		}
+		if (buildingSize > 0)
+			addValue(container);
+		building[buildingSize++] = container;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void addValue(Object o) {
+		Object parent = building[buildingSize - 1];
+		if (parent instanceof List) {
+			((List<Object>) parent).add(o);
+		} else {
+			((Map<String, Object>) parent).put(names[buildingSize - 1], o);
+			names[buildingSize - 1] = null;
+		}
+	}
+	
+	private void push(int state) {
+		if (stackSize == stack.length)
+			stack = Arrays.copyOf(stack, stackSize * 2);
+		stack[stackSize++] = state;
+	}
+	
+}
@@ -0,0 +1,422 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Parses JSON that is already in memory in two passes, in the style of simdjson. The first pass
+ * classifies 64 bytes at a time into bitmasks without branching on the content, and records the
+ * position of every structural character ({ } [ ] : ,), string and scalar that is outside of a
+ * string. The second pass walks that index to build the tree, using the same object and array
+ * suppliers as {@link JSONInputStream}
+ * <p>
+ * The index is kept between calls to avoid reallocating it, so a parser must not be shared between
+ * threads
+ *
+ * @author josh
+ */
+public class JSONIndexedParser {
+	
+	private static final long ODD_BITS = 0xAAAAAAAAAAAAAAAAL;
+	
+	private final Supplier<Map<String, Object>> objectSupplier;
+	private final Supplier<List<Object>> arraySupplier;
+	
+	private int [] index;
+	private int indexSize;
+	private int indexPos;
+	private byte [] data;
+	private int end;
+	private JSONScanner scanner;
+	private final long [] masks;
+	private final JSONStringDecoder str;
+	private final long [] number;
+	
+	/**
+	 * Creates a new parser that produces LinkedHashMap objects and ArrayList arrays
+	 */
+	public JSONIndexedParser() {
+		this(LinkedHashMap::new, ArrayList::new);
+	}
+	
+	/**
+	 * Creates a new parser
+	 *
+	 * @param objectSupplier a supplier for JSON object implementations
+	 * @param arraySupplier  a supplier for JSON array implementations
+	 */
+	public JSONIndexedParser(Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
+		this.objectSupplier = objectSupplier;
+		this.arraySupplier = arraySupplier;
+		this.index = new int[1024];
+		this.masks = new long[4];
+		this.str = new JSONStringDecoder(512);
+		this.number = new long[2];
+	}
+	
+	/**
+	 * Reads a Map or a List from the specified bytes
+	 *
+	 * @param data the UTF-8 encoded JSON
+	 * @return the read Map/List or null if there is only whitespace
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public Object readNext(byte [] data) throws JSONException {
+		return readNext(data, 0, data.length);
+	}
+	
+	/**
+	 * Reads a Map or a List from the specified range of bytes
+	 *
+	 * @param data   the UTF-8 encoded JSON
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @return the read Map/List or null if there is only whitespace
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public Object readNext(byte [] data, int offset, int length) throws JSONException {
+		try {
+			if (!begin(data, offset, length))
+				return null;
+			switch (data[nextIndex()]) {
+				case '{':
+					return parseObject();
+				case '[':
+					return parseArray();
+				default:
+					throw new JSONException("Invalid start to object/array!");
+			}
+		} finally {
+			finish();
+		}
+	}
+	
+	/**
+	 * Reads a Map from the specified bytes
+	 *
+	 * @param data the UTF-8 encoded JSON
+	 * @return the read Map, or null if there is only whitespace
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public Map<String, Object> readObject(byte [] data) throws JSONException {
+		return readObject(data, 0, data.length);
+	}
+	
+	/**
+	 * Reads a Map from the specified range of bytes
+	 *
+	 * @param data   the UTF-8 encoded JSON
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @return the read Map, or null if there is only whitespace
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public Map<String, Object> readObject(byte [] data, int offset, int length) throws JSONException {
+		try {
+			if (!begin(data, offset, length))
+				return null;
+			if (data[nextIndex()] != '{')
+				throw new JSONException("JSON object must start with '{'");
+			return parseObject();
+		} finally {
+			finish();
+		}
+	}
+	
+	/**
+	 * Reads a List from the specified bytes
+	 *
+	 * @param data the UTF-8 encoded JSON
+	 * @return the read List, or null if there is only whitespace
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public List<Object> readArray(byte [] data) throws JSONException {
+		return readArray(data, 0, data.length);
+	}
+	
+	/**
+	 * Reads a List from the specified range of bytes
+	 *
+	 * @param data   the UTF-8 encoded JSON
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @return the read List, or null if there is only whitespace
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public List<Object> readArray(byte [] data, int offset, int length) throws JSONException {
+		try {
+			if (!begin(data, offset, length))
+				return null;
+			if (data[nextIndex()] != '[')
+				throw new JSONException("JSON array must start with '['");
+			return parseArray();
+		} finally {
+			finish();
+		}
+	}
+	
+	private boolean begin(byte [] data, int offset, int length) throws JSONException {
+		if (offset < 0 || length < 0 || offset + length > data.length)
+			throw new IndexOutOfBoundsException("offset=" + offset + " length=" + length + " array length=" + data.length);
+		this.data = data;
+		this.end = offset + length;
+		this.scanner = new JSONScanner(data);
+		this.indexPos = 0;
+		buildIndex(offset);
+		return indexSize > 0;
+	}
+	
+	private void finish() {
+		data = null;
+		scanner = null;
+	}
+	
+	/**
+	 * Stage one: records the start of every structural character, string and scalar, 64 bytes at a
+	 * time. Quotes preceded by an odd number of backslashes are removed with simdjson's carry trick,
+	 * and a prefix xor of the remaining quotes gives the mask of bytes within strings
+	 */
+	private void buildIndex(int offset) throws JSONException {
+		byte [] data = this.data;
+		int end = this.end;
+		int [] idx = index;
+		int n = 0;
+		long prevEscaped = 0;
+		long prevInString = 0;
+		long prevScalar = 0;
+		long [] masks = this.masks;
+		for (int base = offset; base < end; base += 64) {
+			JSONScanner src = scanner;
+			int pos = base;
+			if (base + 64 > end) { // pad the final block with whitespace
+				byte [] tail = new byte[64];
+				Arrays.fill(tail, (byte) ' ');
+				System.arraycopy(data, base, tail, 0, end - base);
+				src = new JSONScanner(tail);
+				pos = 0;
+			}
+			src.classifyBlock(pos, masks);
+			long quote = masks[0];
+			long backslash = masks[1];
+			long structural = masks[2];
+			long whitespace = masks[3];
+			
+			long escaped;
+			if (backslash == 0) {
+				escaped = prevEscaped;
+				prevEscaped = 0;
+			} else {
+				long potentialEscape = backslash & ~prevEscaped;
+				long escapeAndTerminal = (((potentialEscape << 1) | ODD_BITS) - potentialEscape) ^ ODD_BITS;
+				escaped = escapeAndTerminal ^ (backslash | prevEscaped);
+				prevEscaped = (escapeAndTerminal & backslash) >>> 63;
+			}
+			quote &= ~escaped;
+			long inString = prefixXor(quote) ^ prevInString;
+			prevInString = inString >> 63;
+			long scalar = ~(structural | whitespace | quote | inString);
+			long scalarStart = scalar & ~((scalar << 1) | prevScalar);
+			prevScalar = scalar >>> 63;
+			long bits = (structural & ~inString) | (quote & inString) | scalarStart;
+			
+			if (n + 64 > idx.length)
+				idx = Arrays.copyOf(idx, idx.length * 2);
+			while (bits != 0) {
+				idx[n++] = base + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+			}
+		}
+		index = idx;
+		indexSize = n;
+		if (prevInString != 0)
+			throw new JSONException("Unterminated string");
+	}
+	
+	private int nextIndex() throws JSONException {
+		if (indexPos >= indexSize)
+			throw new JSONException("Unexpected end of input");
+		return index[indexPos++];
+	}
+	
+	private Object parseValue() throws JSONException {
+		int p = nextIndex();
+		switch (data[p]) {
+			case '{':
+				return parseObject();
+			case '[':
+				return parseArray();
+			case '\"':
+				return parseString(p);
+			default:
+				return parseScalar(p);
+		}
+	}
+	
+	private Map<String, Object> parseObject() throws JSONException {
+		Map<String, Object> obj = objectSupplier.get();
+		byte [] data = this.data;
+		while (true) {
+			int p = nextIndex();
+			if (data[p] != '\"') {
+				if (data[p] == '}')
+					return obj;
+				throw new JSONException("Keys must start with \"!");
+			}
+			String key = parseString(p);
+			if (data[nextIndex()] != ':')
+				throw new JSONException("Attributes must be key-value pairs separated by ':'");
+			obj.put(key, parseValue());
+			byte c = data[nextIndex()];
+			if (c == '}')
+				return obj;
+			if (c != ',')
+				throw new JSONException("Expected ',' or '}' after value!");
+		}
+	}
+	
+	private List<Object> parseArray() throws JSONException {
+		List<Object> array = arraySupplier.get();
+		byte [] data = this.data;
+		if (indexPos < indexSize && data[index[indexPos]] == ']') {
+			indexPos++;
+			return array;
+		}
+		while (true) {
+			array.add(parseValue());
+			byte c = data[nextIndex()];
+			if (c == ']')
+				return array;
+			if (c != ',')
+				throw new JSONException("Expected ',' or ']' after value!");
+			if (indexPos < indexSize && data[index[indexPos]] == ']') {
+				indexPos++;
+				return array;
+			}
+		}
+	}
+	
+	/**
+	 * Decodes the string whose opening quote is at the specified position. Plain ASCII strings are
+	 * created straight from the input
+	 */
+	private String parseString(int quote) throws JSONException {
+		byte [] data = this.data;
+		int end = this.end;
+		int pos = quote + 1;
+		int run = scanner.findStringSpecial(pos, end);
+		if (run < end && data[run] == '\"')
+			return JSONScanner.asciiString(data, pos, run - pos);
+			
+		JSONStringDecoder str = this.str;
+		str.clear();
+		while (true) {
+			str.appendAscii(data, pos, run);
+			pos = run;
+			if (pos >= end)
+				throw new JSONException("Unterminated string");
+			int c = data[pos++] & 0xFF;
+			if (c == '\"')
+				break;
+			if (c == '\\') {
+				pos = readEscape(pos);
+			} else {
+				pos = readUtf8(c, pos);
+				pos = str.appendUtf8Run(data, pos, end);
+			}
+			run = scanner.findStringSpecial(pos, end);
+		}
+		return str.toString();
+	}
+	
+	private int readEscape(int pos) throws JSONException {
+		if (pos >= end)
+			throw new JSONException("Unterminated string");
+		byte [] data = this.data;
+		if (str.appendEscape(data[pos++] & 0xFF))
+			return pos;
+		if (pos + 4 > end)
+			throw new JSONException("Unterminated string");
+		int c = 0;
+		for (int i = 0; i < 4; i++)
+			c = (c << 4) | JSONStringDecoder.hex(data[pos + i]);
+		str.append((char) c);
+		return pos + 4;
+	}
+	
+	/**
+	 * Decodes the rest of a multi-byte UTF-8 sequence whose lead byte has already been consumed
+	 */
+	private int readUtf8(int lead, int pos) throws JSONException {
+		JSONStringDecoder str = this.str;
+		int remaining = str.startUtf8(lead);
+		while (remaining > 0) {
+			if (pos >= end)
+				throw new JSONException("Unterminated string");
+			remaining = str.continueUtf8(data[pos] & 0xFF);
+			if (remaining < 0)
+				break;
+			pos++;
+		}
+		return pos;
+	}
+	
+	/**
+	 * Converts the number, boolean or null at the specified position. The token runs until
+	 * whitespace, ',', ']', '}' or the end of input, just like in {@link JSONInputStream}
+	 */
+	private Object parseScalar(int start) throws JSONException {
+		byte [] data = this.data;
+		int end = this.end;
+		int pos = start;
+		while (pos < end && !isTokenEnd(data[pos]))
+			pos++;
+		return JSONNumbers.parseToken(data, start, pos, number);
+	}
+	
+	static boolean isTokenEnd(byte c) {
+		return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == ',' || c == ']' || c == '}';
+	}
+	
+	/**
+	 * Sets every bit from each quote up to, but not including, the next quote
+	 */
+	private static long prefixXor(long x) {
+		x ^= x << 1;
+		x ^= x << 2;
+		x ^= x << 4;
+		x ^= x << 8;
+		x ^= x << 16;
+		x ^= x << 32;
+		return x;
+	}
+	
+}
@@ -29,16 +29,22 @@ import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
  * This input stream will read RFC 4627 compatible JSON strings from either a string or an input
- * stream
+ * stream. Byte arrays and heap ByteBuffers are parsed in place, without being copied into an
+ * intermediate buffer
  *
  * @author josh
  */
@@ -50,10 +56,25 @@ public class JSONInputStream extends InputStream {
 	private static final boolean [] STRING_SEPARATORS = new boolean[256];
 	private static final boolean [] TOKEN_MATCHERS = new boolean[256];
 	private static final boolean [] WHITESPACE_MATCHERS = new boolean[256];
+	static final int TOKEN_OTHER = JSONNumbers.NUMBER_OTHER;
+	static final int TOKEN_LONG = JSONNumbers.NUMBER_LONG;
+	static final int TOKEN_DOUBLE = JSONNumbers.NUMBER_DOUBLE;
+	
+	private static final Object SKIPPED = new Object();
+	private static final byte [] EMPTY = new byte[0];
+	private static final InputStream EMPTY_STREAM = new ByteArrayInputStream(EMPTY);
+	private static final int DEFAULT_BUFFER_SIZE = 4 * 1024;
+	static final int FILE_BUFFER_SIZE = 64 * 1024;
+	private static final int STRING_BUFFER_SIZE = 512;
+	
+	private static final int LONG_CACHE_MIN = -128;
+	private static final Long [] LONG_CACHE = new Long[1024 - LONG_CACHE_MIN];
 	
 	static {
 		STRING_SEPARATORS['\\'] = true;
 		STRING_SEPARATORS['\"'] = true;
+		for (int c = 0x80; c < 256; c++)
+			STRING_SEPARATORS[c] = true; // UTF-8 lead and continuation bytes
 		
 		WHITESPACE_MATCHERS[' '] = true;
 		WHITESPACE_MATCHERS['\n'] = true;
@@ -64,20 +85,31 @@ public class JSONInputStream extends InputStream {
 		TOKEN_MATCHERS[','] = true;
 		TOKEN_MATCHERS[']'] = true;
 		TOKEN_MATCHERS['}'] = true;
+		
+		for (int i = 0; i < LONG_CACHE.length; i++)
+			LONG_CACHE[i] = (long) (i + LONG_CACHE_MIN);
 	}
 	
 	private final Supplier<Map<String, Object>> objectSupplier;
 	private final Supplier<List<Object>> arraySupplier;
 	
-	private final InputStream is;
-	private final byte[] buffer;
+	private InputStream is;
+	private byte[] buffer;
+	private JSONScanner scanner;
+	private byte[] streamBuffer;
+	private JSONScanner streamScanner;
+	private final int streamBufferSize;
 	
 	private int bufferPos;
 	private int bufferSize;
+	private boolean pooled;
 	
-	private char[] strData;
-	private int strLength;
-	private int strMaxLength;
+	private final long [] tokenNumber;
+	private byte [] tokenData;
+	private int tokenStart;
+	private int tokenEnd;
+	private byte [] tokenBuffer;
+	private final JSONStringDecoder str;
 	
 	/**
 	 * Creates a new input stream around the specified string
@@ -85,7 +117,7 @@ public class JSONInputStream extends InputStream {
 	 * @param str a RFC 4627 JSON string
 	 */
 	public JSONInputStream(String str) {
-		this(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)));
+		this(str, DEFAULT_OBJECT_SUPPLIER, DEFAULT_ARRAY_SUPPLIER);
 	}
 	
 	/**
@@ -96,7 +128,130 @@ public class JSONInputStream extends InputStream {
 	 * @param arraySupplier  a supplier for JSON array implementations
 	 */
 	public JSONInputStream(String str, Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
-		this(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), objectSupplier, arraySupplier);
+		this(str.getBytes(StandardCharsets.UTF_8), objectSupplier, arraySupplier);
+	}
+	
+	/**
+	 * Creates a new input stream around the specified characters, which are encoded to UTF-8 once and
+	 * then parsed in place
+	 *
+	 * @param str a RFC 4627 JSON string
+	 */
+	public JSONInputStream(CharSequence str) {
+		this(str, DEFAULT_OBJECT_SUPPLIER, DEFAULT_ARRAY_SUPPLIER);
+	}
+	
+	/**
+	 * Creates a new input stream around the specified characters, which are encoded to UTF-8 once and
+	 * then parsed in place
+	 *
+	 * @param str            a RFC 4627 JSON string
+	 * @param objectSupplier a supplier for JSON object implementations
+	 * @param arraySupplier  a supplier for JSON array implementations
+	 */
+	public JSONInputStream(CharSequence str, Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
+		this(str instanceof String ? ByteBuffer.wrap(((String) str).getBytes(StandardCharsets.UTF_8)) : StandardCharsets.UTF_8.encode(CharBuffer.wrap(str)), objectSupplier, arraySupplier);
+	}
+	
+	/**
+	 * Creates a new input stream that parses the specified UTF-8 bytes in place
+	 *
+	 * @param data the RFC 4627 JSON string
+	 */
+	public JSONInputStream(byte [] data) {
+		this(data, 0, data.length);
+	}
+	
+	/**
+	 * Creates a new input stream that parses the specified UTF-8 bytes in place
+	 *
+	 * @param data           the RFC 4627 JSON string
+	 * @param objectSupplier a supplier for JSON object implementations
+	 * @param arraySupplier  a supplier for JSON array implementations
+	 */
+	public JSONInputStream(byte [] data, Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
+		this(data, 0, data.length, objectSupplier, arraySupplier);
+	}
+	
+	/**
+	 * Creates a new input stream that parses the specified range of UTF-8 bytes in place. The array
+	 * must not be modified while it is being read
+	 *
+	 * @param data   the RFC 4627 JSON string
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 */
+	public JSONInputStream(byte [] data, int offset, int length) {
+		this(data, offset, length, DEFAULT_OBJECT_SUPPLIER, DEFAULT_ARRAY_SUPPLIER);
+	}
+	
+	/**
+	 * Creates a new input stream that parses the specified range of UTF-8 bytes in place. The array
+	 * must not be modified while it is being read
+	 *
+	 * @param data           the RFC 4627 JSON string
+	 * @param offset         the index of the first byte
+	 * @param length         the number of bytes
+	 * @param objectSupplier a supplier for JSON object implementations
+	 * @param arraySupplier  a supplier for JSON array implementations
+	 */
+	public JSONInputStream(byte [] data, int offset, int length, Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
+		this(objectSupplier, arraySupplier, null);
+		resetInPlace(checkRange(data, offset, length), offset, offset + length);
+	}
+	
+	/**
+	 * Creates a new input stream that parses the remaining bytes of the specified buffer in place,
+	 * through its array. The buffer's position is left unchanged. Direct and read-only buffers have
+	 * no accessible array, and can be parsed with {@link JSONFeedParser#feed(ByteBuffer)} instead
+	 *
+	 * @param data the UTF-8 encoded RFC 4627 JSON string
+	 * @throws IllegalArgumentException if the buffer has no accessible array
+	 */
+	public JSONInputStream(ByteBuffer data) {
+		this(data, DEFAULT_OBJECT_SUPPLIER, DEFAULT_ARRAY_SUPPLIER);
+	}
+	
+	/**
+	 * Creates a new input stream that parses the remaining bytes of the specified buffer in place,
+	 * through its array. The buffer's position is left unchanged. Direct and read-only buffers have
+	 * no accessible array, and can be parsed with {@link JSONFeedParser#feed(ByteBuffer)} instead
+	 *
+	 * @param data           the UTF-8 encoded RFC 4627 JSON string
+	 * @param objectSupplier a supplier for JSON object implementations
+	 * @param arraySupplier  a supplier for JSON array implementations
+	 * @throws IllegalArgumentException if the buffer has no accessible array
+	 */
+	public JSONInputStream(ByteBuffer data, Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
+		this(objectSupplier, arraySupplier, null);
+		setInput(data);
+	}
+	
+	/**
+	 * Creates a new input stream that reads the specified file into a 64KB parse buffer, with positional
+	 * reads on its channel. Files larger than 2GB are supported. The file is closed along with this
+	 * stream
+	 *
+	 * @param path the file containing the UTF-8 encoded RFC 4627 JSON string
+	 * @throws IOException if the file cannot be opened
+	 */
+	public JSONInputStream(Path path) throws IOException {
+		this(path, DEFAULT_OBJECT_SUPPLIER, DEFAULT_ARRAY_SUPPLIER);
+	}
+	
+	/**
+	 * Creates a new input stream that reads the specified file into a 64KB parse buffer, with positional
+	 * reads on its channel. Files larger than 2GB are supported. The file is closed along with this
+	 * stream
+	 *
+	 * @param path           the file containing the UTF-8 encoded RFC 4627 JSON string
+	 * @param objectSupplier a supplier for JSON object implementations
+	 * @param arraySupplier  a supplier for JSON array implementations
+	 * @throws IOException if the file cannot be opened
+	 */
+	public JSONInputStream(Path path, Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) throws IOException {
+		this(objectSupplier, arraySupplier, new byte[FILE_BUFFER_SIZE]);
+		resetStream(new FileChannelInputStream(path));
 	}
 	
 	/**
@@ -116,17 +271,159 @@ public class JSONInputStream extends InputStream {
 	 * @param arraySupplier  a supplier for JSON array implementations
 	 */
 	public JSONInputStream(InputStream is, Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
+		this(is, DEFAULT_BUFFER_SIZE, objectSupplier, arraySupplier);
+	}
+	
+	/**
+	 * Creates a new input stream around the specified input stream, which is read into a buffer of the
+	 * specified size. Larger buffers mean fewer reads from slow streams, smaller buffers cost less to
+	 * create for small documents
+	 *
+	 * @param is         the input stream pointing to the RFC 4627 JSON string
+	 * @param bufferSize the number of bytes read from the input stream at a time
+	 */
+	public JSONInputStream(InputStream is, int bufferSize) {
+		this(is, bufferSize, DEFAULT_OBJECT_SUPPLIER, DEFAULT_ARRAY_SUPPLIER);
+	}
+	
+	/**
+	 * Creates a new input stream around the specified input stream, which is read into a buffer of the
+	 * specified size. Larger buffers mean fewer reads from slow streams, smaller buffers cost less to
+	 * create for small documents
+	 *
+	 * @param is             the input stream pointing to the RFC 4627 JSON string
+	 * @param bufferSize     the number of bytes read from the input stream at a time
+	 * @param objectSupplier a supplier for JSON object implementations
+	 * @param arraySupplier  a supplier for JSON array implementations
+	 */
+	public JSONInputStream(InputStream is, int bufferSize, Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
+		this(objectSupplier, arraySupplier, new byte[checkBufferSize(bufferSize)]);
+		resetStream(is);
+	}
+	
+	/**
+	 * Creates a stream without a source. The stream buffer is used for every source that is not
+	 * parsed in place, and is created on demand if it is null
+	 */
+	private JSONInputStream(Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier, byte [] streamBuffer) {
 		this.objectSupplier = objectSupplier;
 		this.arraySupplier = arraySupplier;
 		
+		this.streamBuffer = streamBuffer;
+		this.streamScanner = streamBuffer == null ? null : new JSONScanner(streamBuffer);
+		this.streamBufferSize = streamBuffer == null ? DEFAULT_BUFFER_SIZE : streamBuffer.length;
+		
+		this.tokenNumber = new long[2];
+		this.tokenBuffer = null;
+		this.str = new JSONStringDecoder(STRING_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Creates a stream for {@link JSONPool}, which closes its source and returns itself to the pool
+	 * when it is closed
+	 */
+	static JSONInputStream createPooled() {
+		JSONInputStream in = new JSONInputStream(DEFAULT_OBJECT_SUPPLIER, DEFAULT_ARRAY_SUPPLIER, new byte[DEFAULT_BUFFER_SIZE]);
+		in.pooled = true;
+		in.trim();
+		return in;
+	}
+	
+	/**
+	 * Points this stream at a new input stream, so the buffers of this stream can be reused for
+	 * another document. Anything still buffered from the previous source is discarded, and the
+	 * previous source is not closed
+	 *
+	 * @param is the input stream pointing to the RFC 4627 JSON string
+	 */
+	public void setInput(InputStream is) {
+		resetStream(is);
+	}
+	
+	/**
+	 * Points this stream at the specified UTF-8 bytes, which are parsed in place. Anything still
+	 * buffered from the previous source is discarded, and the previous source is not closed
+	 *
+	 * @param data the RFC 4627 JSON string
+	 */
+	public void setInput(byte [] data) {
+		resetInPlace(data, 0, data.length);
+	}
+	
+	/**
+	 * Points this stream at the specified range of UTF-8 bytes, which are parsed in place. Anything
+	 * still buffered from the previous source is discarded, and the previous source is not closed
+	 *
+	 * @param data   the RFC 4627 JSON string
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 */
+	public void setInput(byte [] data, int offset, int length) {
+		resetInPlace(checkRange(data, offset, length), offset, offset + length);
+	}
+	
+	/**
+	 * Points this stream at the remaining bytes of the specified buffer, the same way as
+	 * {@link #JSONInputStream(ByteBuffer)}. Anything still buffered from the previous source is
+	 * discarded, and the previous source is not closed
+	 *
+	 * @param data the UTF-8 encoded RFC 4627 JSON string
+	 * @throws IllegalArgumentException if the buffer has no accessible array
+	 */
+	public void setInput(ByteBuffer data) {
+		if (!data.hasArray())
+			throw new IllegalArgumentException("Only buffers with an accessible array can be parsed in place: " + data);
+		resetInPlace(data.array(), data.arrayOffset() + data.position(), data.arrayOffset() + data.limit());
+	}
+	
+	/**
+	 * Points this stream at the specified characters, the same way as
+	 * {@link #JSONInputStream(CharSequence)}. Anything still buffered from the previous source is
+	 * discarded, and the previous source is not closed
+	 *
+	 * @param str a RFC 4627 JSON string
+	 */
+	public void setInput(CharSequence str) {
+		if (str instanceof String)
+			setInput(((String) str).getBytes(StandardCharsets.UTF_8));
+		else
+			setInput(StandardCharsets.UTF_8.encode(CharBuffer.wrap(str)));
+	}
+	
+	/**
+	 * Drops the reference to the current source and shrinks the string buffer back to its initial
+	 * size if a long string has grown it, so that an idle stream only holds on to its own buffers
+	 */
+	void trim() {
+		resetStream(EMPTY_STREAM);
+		tokenData = null;
+		str.trim();
+	}
+	
+	private void resetStream(InputStream is) {
+		if (streamBuffer == null) {
+			streamBuffer = new byte[streamBufferSize];
+			streamScanner = new JSONScanner(streamBuffer);
+		}
 		this.is = is;
-		this.buffer = new byte[1024 * 4];
+		this.buffer = streamBuffer;
+		this.scanner = streamScanner;
 		this.bufferPos = 0;
 		this.bufferSize = 0;
-		
-		this.strData = new char[512];
-		this.strLength = 0;
-		this.strMaxLength = 512;
+		this.str.clear();
+	}
+	
+	/**
+	 * Parses the bytes between start and end of the specified array, without ever refilling it
+	 */
+	private void resetInPlace(byte [] data, int start, int end) {
+		this.is = EMPTY_STREAM;
+		if (data != buffer)
+			this.scanner = data == streamBuffer ? streamScanner : new JSONScanner(data);
+		this.buffer = data;
+		this.bufferPos = start;
+		this.bufferSize = end;
+		this.str.clear();
 	}
 	
 	/**
@@ -178,43 +475,134 @@ public class JSONInputStream extends InputStream {
 	 * @throws JSONException if there is a JSON parsing error
 	 */
 	public List<Object> readArray() throws IOException, JSONException {
+		if (!beginArray())
+			return null;
+		return getNextArrayInternal();
+	}
+	
+	/**
+	 * Reads a Map or a List from the stream, but only the values selected by the projection. Every
+	 * other value is skipped without being decoded, and is not validated
+	 *
+	 * @param projection the paths to read
+	 * @return the read Map/List or null if it's the end of the stream
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public Object readNext(JSONProjection projection) throws IOException, JSONException {
+		char c;
+		try {
+			c = ingestWhitespace();
+		} catch (EOFException e) {
+			return null;
+		}
+		switch (c) {
+			case '{':
+				return getProjectedObject(projection.getRoot());
+			case '[':
+				return getProjectedArray(projectedElements(projection.getRoot()));
+			default:
+				throw new JSONException("Invalid start to object/array!");
+		}
+	}
+	
+	/**
+	 * Reads a Map from the stream, but only the values selected by the projection. Every other value
+	 * is skipped without being decoded, and is not validated
+	 *
+	 * @param projection the paths to read
+	 * @return the read Map, or null if it's the end of the stream
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public Map<String, Object> readObject(JSONProjection projection) throws IOException, JSONException {
+		try {
+			if (ingestWhitespace() != '{')
+				throw new JSONException("JSON object must start with '{'");
+		} catch (EOFException e) {
+			return null;
+		}
+		return getProjectedObject(projection.getRoot());
+	}
+	
+	/**
+	 * Reads a List from the stream, but only the values selected by the paths of the projection that
+	 * start with {@code [*]}. Every other value is skipped without being decoded, and is not validated
+	 *
+	 * @param projection the paths to read
+	 * @return the read List, or null if it's the end of the stream
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public List<Object> readArray(JSONProjection projection) throws IOException, JSONException {
+		if (!beginArray())
+			return null;
+		return getProjectedArray(projectedElements(projection.getRoot()));
+	}
+	
+	/**
+	 * Reads the opening bracket of an array, and returns FALSE instead if it's the end of the stream
+	 */
+	boolean beginArray() throws IOException, JSONException {
 		try {
 			if (ingestWhitespace() != '[')
 				throw new JSONException("JSON array must start with '['");
 		} catch (EOFException e) {
-			return null;
+			return false;
 		}
-		return getNextArrayInternal();
+		return true;
 	}
 	
 	@Override
 	public int read() throws IOException {
+		if (bufferPos < bufferSize)
+			return buffer[bufferPos++] & 0xFF;
 		return is.read();
 	}
 	
 	@Override
 	public int read(byte[] b) throws IOException {
-		return is.read(b);
+		return read(b, 0, b.length);
 	}
 	
 	@Override
 	public int read(byte[] b, int off, int len) throws IOException {
-		return is.read(b, off, len);
+		int buffered = bufferSize - bufferPos;
+		if (buffered <= 0 || len == 0)
+			return is.read(b, off, len);
+		if (len > buffered)
+			len = buffered;
+		System.arraycopy(buffer, bufferPos, b, off, len);
+		bufferPos += len;
+		return len;
 	}
 	
 	@Override
 	public long skip(long n) throws IOException {
-		return is.skip(n);
+		int buffered = bufferSize - bufferPos;
+		if (buffered <= 0)
+			return is.skip(n);
+		if (n <= buffered) {
+			bufferPos += (int) Math.max(n, 0);
+			return Math.max(n, 0);
+		}
+		bufferPos = bufferSize;
+		return buffered + is.skip(n - buffered);
 	}
 	
 	@Override
 	public int available() throws IOException {
-		return is.available();
+		return Math.max(bufferSize - bufferPos, 0) + is.available();
 	}
 	
 	@Override
 	public void close() throws IOException {
-		is.close();
+		try {
+			is.close();
+		} finally {
+			if (pooled)
+				JSONPool.release(this);
+		}
 	}
 	
 	@Override
@@ -222,7 +610,7 @@ public class JSONInputStream extends InputStream {
 		is.reset();
 	}
 	
-	private Map<String, Object> getNextObjectInternal() throws IOException, JSONException {
+	Map<String, Object> getNextObjectInternal() throws IOException, JSONException {
 		Map<String, Object> obj = objectSupplier.get();
 		
 		char c;
@@ -243,7 +631,7 @@ public class JSONInputStream extends InputStream {
 		return obj;
 	}
 	
-	private List<Object> getNextArrayInternal() throws IOException, JSONException {
+	List<Object> getNextArrayInternal() throws IOException, JSONException {
 		List<Object> array = arraySupplier.get();
 		
 		Object o;
@@ -264,9 +652,7 @@ public class JSONInputStream extends InputStream {
 				case ']':
 					break array_loop;
 				default:
-					strLength = 0;
-					stringAppend(c);
-					o = getNextTokenOther();
+					o = getNextTokenOther(c);
 					break;
 			}
 			
@@ -275,8 +661,149 @@ public class JSONInputStream extends InputStream {
 		return array;
 	}
 	
-	private Object getNextInternal() throws IOException, JSONException {
+	/**
+	 * Returns the index of the next byte to be read, which is an index into the array when it is
+	 * parsed in place
+	 */
+	int position() {
+		return bufferPos;
+	}
+	
+	/**
+	 * Reads the next element of an array whose opening bracket has already been read, the same way as
+	 * {@link #getNextArrayInternal()} does, and returns FALSE instead at the closing bracket
+	 *
+	 * @param first TRUE if no element of the array has been read yet
+	 */
+	boolean readElement(Consumer<? super Object> action, boolean first) throws IOException, JSONException {
+		if (!first && !ingestSeparator(']'))
+			return false;
 		char c = ingestWhitespace();
+		if (c == ']')
+			return false;
+		action.accept(getNextInternal(c));
+		return true;
+	}
+	
+	/**
+	 * Reads the next of the comma separated values that make up the rest of the input, where the
+	 * input is a range of the elements of a larger array that has been split at its top-level commas,
+	 * and returns FALSE instead at the end of the input. Only the last range may be empty or end with
+	 * a comma, the same as the array itself
+	 *
+	 * @param first TRUE if no element of the range has been read yet
+	 * @param last  TRUE if the range ends at the closing bracket of the array
+	 */
+	boolean readRangeElement(Consumer<? super Object> action, boolean first, boolean last) throws IOException, JSONException {
+		char c;
+		if (!first) {
+			try {
+				c = ingestWhitespace();
+			} catch (EOFException e) {
+				return false;
+			}
+			if (c != ',')
+				throw new JSONException("Expected ',' or ']' after value!");
+		}
+		try {
+			c = ingestWhitespace();
+		} catch (EOFException e) {
+			if (last)
+				return false;
+			throw new JSONException("Invalid token: ,");
+		}
+		action.accept(getNextInternal(c));
+		return true;
+	}
+	
+	/**
+	 * Reads the members of an object that are selected by the node, and skips the rest. Plain ASCII
+	 * keys are matched straight from the buffer, so skipped members allocate nothing at all
+	 */
+	private Map<String, Object> getProjectedObject(JSONProjection.Node node) throws IOException, JSONException {
+		Map<String, Object> obj = objectSupplier.get();
+		
+		char c;
+		do {
+			c = ingestWhitespace();
+			if (c != '\"') {
+				if (c == '}')
+					break;
+				throw new JSONException("Keys must start with \"!");
+			}
+			int member = getProjectedKey(node);
+			if (ingestWhitespace() != ':')
+				throw new JSONException("Attributes must be key-value pairs separated by ':'");
+			
+			c = ingestWhitespace();
+			if (member == -1) {
+				skipValue(c);
+				continue;
+			}
+			Object value = getProjectedValue(c, node.getChild(member));
+			if (value != SKIPPED)
+				obj.put(node.getName(member), value);
+		} while (ingestSeparator('}'));
+		return obj;
+	}
+	
+	private List<Object> getProjectedArray(JSONProjection.Node elements) throws IOException, JSONException {
+		List<Object> array = arraySupplier.get();
+		
+		char c;
+		do {
+			c = ingestWhitespace();
+			if (c == ']')
+				break;
+			Object value = getProjectedValue(c, elements);
+			if (value != SKIPPED)
+				array.add(value);
+		} while (ingestSeparator(']'));
+		return array;
+	}
+	
+	/**
+	 * Reads the value that starts with the specified, already consumed, character as far as the node
+	 * selects it, or skips it and returns {@link #SKIPPED} if the node does not fit the value
+	 */
+	private Object getProjectedValue(char c, JSONProjection.Node node) throws IOException, JSONException {
+		if (node.isAll())
+			return getNextInternal(c);
+		if (c == '{' && node.hasMembers())
+			return getProjectedObject(node);
+		if (c == '[' && node.getElements() != null)
+			return getProjectedArray(node.getElements());
+		skipValue(c);
+		return SKIPPED;
+	}
+	
+	/**
+	 * Reads a key whose opening quote has already been consumed, and returns the member of the node
+	 * with that name, or -1. Only keys that are escaped, non-ASCII or split across a buffer refill
+	 * are decoded into a String
+	 */
+	private int getProjectedKey(JSONProjection.Node node) throws IOException {
+		int pos = bufferPos;
+		int end = scanner.findStringSpecial(pos, bufferSize);
+		if (end < bufferSize && buffer[end] == '\"') {
+			bufferPos = end + 1;
+			return node.findMember(buffer, pos, end);
+		}
+		return node.findMember(getNextTokenString());
+	}
+	
+	private static JSONProjection.Node projectedElements(JSONProjection.Node root) {
+		return root.getElements() != null ? root.getElements() : JSONProjection.Node.NONE;
+	}
+	
+	private Object getNextInternal() throws IOException, JSONException {
+		return getNextInternal(ingestWhitespace());
+	}
+	
+	/**
+	 * Reads the value that starts with the specified, already consumed, character
+	 */
+	Object getNextInternal(char c) throws IOException, JSONException {
 		switch (c) {
 			case '\"':
 				return getNextTokenString();
@@ -285,159 +812,232 @@ public class JSONInputStream extends InputStream {
 			case '{':
 				return getNextObjectInternal();
 		}
-		
-		strLength = 0;
-		stringAppend(c);
-		return getNextTokenOther();
+		return getNextTokenOther(c);
 	}
 	
-	private String getNextTokenString() throws IOException {
-		int c, min;
+	String getNextTokenString() throws IOException {
 		int pos = bufferPos;
 		int size = bufferSize;
 		byte [] buf = buffer;
-		char [] str = strData;
-		int strLen = 0;
+		int end = scanner.findStringSpecial(pos, size);
+		if (end < size && buf[end] == '\"') { // plain ASCII that is entirely within the buffer
+			bufferPos = end + 1;
+			return JSONScanner.asciiString(buf, pos, end - pos);
+		}
+		
+		int c;
+		JSONStringDecoder str = this.str;
+		str.clear();
 		while (true) {
-			min = strMaxLength - strLen + pos;
-			if (size < min)
-				min = size;
-			while (pos < min) {
+			str.appendAscii(buf, pos, end);
+			pos = end;
+			if (pos >= size) {
+				if ((size = is.read(buf)) <= 0)
+					throw new EOFException();
+				pos = 0;
+			} else {
 				c = buf[pos++] & 0xFF;
-				if (!STRING_SEPARATORS[c]) {
-					str[strLen++] = (char) c;
-					continue;
-				}
 				bufferPos = pos;
 				bufferSize = size;
-				strLength = strLen;
-				strData = str;
+				if (c == '\"')
+					return str.toString();
 				if (c == '\\') {
-					stringAppend(readEscape());
-					pos = bufferPos;
-					size = bufferSize;
-					strLen = strLength;
-					str = strData;
-					break;
-				} else if (c == '\"') {
-					return stringCreate();
+					readEscape();
+				} else {
+					readUtf8(c);
+					bufferPos = str.appendUtf8Run(buf, bufferPos, bufferSize);
 				}
-				throw new IllegalStateException("getNextTokenString()");
+				pos = bufferPos;
+				size = bufferSize;
 			}
-			if (pos >= size) {
-				if ((size = is.read(buf)) <= 0)
-					throw new EOFException();
-				pos = 0;
+			end = scanner.findStringSpecial(pos, size);
+		}
+	}
+	
+	/**
+	 * Decodes a key whose opening quote has already been consumed into the string buffer, so that it
+	 * can be compared with {@link #stringEquals(String)}. Only keys that are escaped, non-ASCII or
+	 * split across a buffer refill are created as a String along the way
+	 */
+	void readKey() throws IOException {
+		int pos = bufferPos;
+		int end = scanner.findStringSpecial(pos, bufferSize);
+		if (end < bufferSize && buffer[end] == '\"') {
+			str.clear();
+			str.appendAscii(buffer, pos, end);
+			bufferPos = end + 1;
+			return;
+		}
+		getNextTokenString();
+	}
+	
+	/**
+	 * Skips the remainder of a string whose opening quote has already been consumed if it is plain
+	 * ASCII that is entirely within the buffer, and returns the index of its closing quote. Otherwise
+	 * nothing is consumed and -1 is returned
+	 */
+	int skipPlainString() {
+		int pos = bufferPos;
+		int end = scanner.findStringSpecial(pos, bufferSize);
+		if (end < bufferSize && buffer[end] == '\"') {
+			bufferPos = end + 1;
+			return end;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Reads a number, boolean or null that starts with the specified, already consumed, character
+	 */
+	Object getNextTokenOther(char first) throws IOException, JSONException {
+		switch (getNextTokenNumber(first)) {
+			case TOKEN_LONG:
+				return cachedLong(getTokenLong());
+			case TOKEN_DOUBLE:
+				return getTokenDouble();
+			default:
+				return parseToken();
+		}
+	}
+	
+	/**
+	 * Reads the token that starts with the specified, already consumed, character. Numbers are
+	 * converted by {@link JSONNumbers#scanNumber(byte[], int, int, long[])} straight from the input
+	 * buffer, unless the token continues past the end of the buffer: integers that fit within a long
+	 * are stored in {@link #getTokenLong()} and {@link #TOKEN_LONG} is returned, decimals are stored
+	 * in {@link #getTokenDouble()} and {@link #TOKEN_DOUBLE} is returned. Anything else (overflowing
+	 * integers, the rare ambiguous decimal, literals) is left for {@link #parseToken()} and
+	 * {@link #TOKEN_OTHER} is returned
+	 */
+	int getNextTokenNumber(char first) throws IOException {
+		boolean number = first == '-' || (first >= '0' && first <= '9');
+		int pos = bufferPos;
+		int size = bufferSize;
+		byte [] buf = buffer;
+		if (pos > 0 && (buf[pos - 1] & 0xFF) == first) { // the token starts within the buffer
+			if (number) {
+				int kind = JSONNumbers.scanNumber(buf, pos - 1, size, tokenNumber);
+				int end = (int) tokenNumber[1];
+				if (kind != TOKEN_OTHER && end < size && TOKEN_MATCHERS[buf[end] & 0xFF]) {
+					bufferPos = end;
+					return kind;
+				}
 			}
-			if (strLen >= strMaxLength) {
-				strMaxLength *= 8;
-				char [] replacement = new char[strMaxLength];
-				System.arraycopy(str, 0, replacement, 0, strLen);
-				str = replacement;
+			int end = pos;
+			while (end < size && !TOKEN_MATCHERS[buf[end] & 0xFF])
+				end++;
+			if (end < size) {
+				bufferPos = end;
+				tokenData = buf;
+				tokenStart = pos - 1;
+				tokenEnd = end;
+				return TOKEN_OTHER;
 			}
 		}
+		copyToken(first);
+		return number ? JSONNumbers.parseNumber(tokenData, tokenStart, tokenEnd, tokenNumber) : TOKEN_OTHER;
 	}
 	
-	private Object getNextTokenOther() throws IOException, JSONException {
-		int c, min;
+	long getTokenLong() {
+		return tokenNumber[0];
+	}
+	
+	double getTokenDouble() {
+		return Double.longBitsToDouble(tokenNumber[0]);
+	}
+	
+	/**
+	 * Collects a token that continues past the end of the buffer into the token buffer, refilling the
+	 * buffer until whitespace, ',', ']', '}' or the end of the stream
+	 */
+	private void copyToken(char first) throws IOException {
+		byte [] token = tokenBuffer;
+		if (token == null)
+			token = new byte[32];
+		int len = 0;
+		token[len++] = (byte) first;
 		int pos = bufferPos;
 		int size = bufferSize;
 		byte [] buf = buffer;
-		char [] str = strData;
-		int strLen = strLength;
-		outer_loop:
 		while (true) {
-			min = strMaxLength - strLen + pos;
-			if (size < min)
-				min = size;
-			while (pos < min) {
-				c = buf[pos] & 0xFF;
-				if (!TOKEN_MATCHERS[c]) {
-					str[strLen++] = (char) c;
-					pos++;
-					continue;
-				}
-				break outer_loop;
-			}
 			if (pos >= size) {
-				if ((size = is.read(buf)) <= 0)
-					throw new EOFException();
 				pos = 0;
+				if ((size = is.read(buf)) <= 0) {
+					size = 0;
+					break; // the end of the stream also ends the token
+				}
 			}
-			if (strLen >= strMaxLength) {
-				strMaxLength *= 8;
-				char [] replacement = new char[strMaxLength];
-				System.arraycopy(str, 0, replacement, 0, strLen);
-				str = replacement;
-			}
+			int c = buf[pos] & 0xFF;
+			if (TOKEN_MATCHERS[c])
+				break;
+			if (len == token.length)
+				token = Arrays.copyOf(token, len * 2);
+			token[len++] = (byte) c;
+			pos++;
 		}
-		strData = str;
-		strLength = strLen;
 		bufferPos = pos;
 		bufferSize = size;
-		
-		return parseToken();
-	}
-	
-	private Object parseToken() throws JSONException {
-		boolean decimal = false;
-		int len = strLength;
-		for (int i = 0; i < len; i++) {
-			switch (strData[i]) {
-				case '.':
-				case 'E':
-				case 'e':
-					decimal = true;
-				case '0':
-				case '1':
-				case '2':
-				case '3':
-				case '4':
-				case '5':
-				case '6':
-				case '7':
-				case '8':
-				case '9':
-				case '-':
-				case '+':
-					break;
-				default:
-					if (stringEquals("null"))
-						return null;
-					if (stringEquals("false"))
-						return Boolean.FALSE;
-					if (stringEquals("true"))
-						return Boolean.TRUE;
-					
-					throw new JSONException("Invalid token: " + stringCreate());
-			}
+		tokenBuffer = token;
+		tokenData = token;
+		tokenStart = 0;
+		tokenEnd = len;
+	}
+	
+	static Long cachedLong(long l) {
+		if (l >= LONG_CACHE_MIN && l < LONG_CACHE_MIN + LONG_CACHE.length)
+			return LONG_CACHE[(int) l - LONG_CACHE_MIN];
+		return l;
+	}
+	
+	/**
+	 * Converts the token most recently read by {@link #getNextTokenNumber(char)}
+	 */
+	Object parseToken() throws JSONException {
+		return JSONNumbers.parseToken(tokenData, tokenStart, tokenEnd, tokenNumber);
+	}
+	
+	/**
+	 * Skips past the value that starts with the specified, already consumed, character. Only bracket
+	 * depth and string/escape state are tracked, so nothing is decoded or allocated and the skipped
+	 * value is not validated
+	 */
+	void skipValue(char first) throws IOException {
+		switch (first) {
+			case '\"':
+				skipString();
+				break;
+			case '{':
+			case '[':
+				skipContainer();
+				break;
+			default:
+				skipToken();
+				break;
 		}
-		
-		String ret = stringCreate();
-		if (decimal)
-			return Double.valueOf(ret);
-		return Long.valueOf(ret);
-		
 	}
 	
-	private boolean ingestSeparator(char endChar) throws IOException, JSONException {
-		int c;
+	/**
+	 * Skips the remainder of a string whose opening quote has already been consumed
+	 */
+	void skipString() throws IOException {
 		int pos = bufferPos;
 		int size = bufferSize;
 		byte [] buf = buffer;
+		boolean escaped = false;
 		while (true) {
-			while (pos < size) {
-				c = buf[pos++];
-				if (WHITESPACE_MATCHERS[c]) {
-					continue;
+			if (escaped && pos < size) {
+				escaped = false;
+				pos++;
+			}
+			pos = scanner.findQuoteOrBackslash(pos, size);
+			if (pos < size) {
+				if (buf[pos++] == '\"') {
+					bufferPos = pos;
+					bufferSize = size;
+					return;
 				}
-				bufferPos = pos;
-				bufferSize = size;
-				if (c == ',')
-					return true;
-				if (c == endChar)
-					return false;
-				throw new JSONException("Expected ',' or '"+endChar+"' after value!");
+				escaped = true;
+				continue;
 			}
 			if ((size = is.read(buf)) <= 0)
 				throw new EOFException();
@@ -445,20 +1045,43 @@ public class JSONInputStream extends InputStream {
 		}
 	}
 	
-	private char ingestWhitespace() throws IOException {
+	private void skipContainer() throws IOException {
 		int c;
 		int pos = bufferPos;
 		int size = bufferSize;
 		byte [] buf = buffer;
+		int depth = 1;
+		boolean inString = false;
+		boolean escaped = false;
 		while (true) {
 			while (pos < size) {
 				c = buf[pos++];
-				if (WHITESPACE_MATCHERS[c]) {
+				if (inString) {
+					if (escaped)
+						escaped = false;
+					else if (c == '\\')
+						escaped = true;
+					else if (c == '\"')
+						inString = false;
 					continue;
 				}
-				bufferPos = pos;
-				bufferSize = size;
-				return (char) c;
+				switch (c) {
+					case '\"':
+						inString = true;
+						break;
+					case '{':
+					case '[':
+						depth++;
+						break;
+					case '}':
+					case ']':
+						if (--depth == 0) {
+							bufferPos = pos;
+							bufferSize = size;
+							return;
+						}
+						break;
+				}
 			}
 			if ((size = is.read(buf)) <= 0)
 				throw new EOFException();
@@ -466,40 +1089,73 @@ public class JSONInputStream extends InputStream {
 		}
 	}
 	
-	private char readEscape() throws IOException {
-		char c = readChar();
-		switch (c) {
-			case 'n':
-				return '\n';
-			case 'r':
-				return '\r';
-			case 't':
-				return '\t';
-			case 'b':
-				return '\b';
-			case 'u':
-				break;
-			default:
-				return c;
+	private void skipToken() throws IOException {
+		int pos = bufferPos;
+		int size = bufferSize;
+		byte [] buf = buffer;
+		while (true) {
+			while (pos < size) {
+				if (TOKEN_MATCHERS[buf[pos] & 0xFF]) {
+					bufferPos = pos;
+					bufferSize = size;
+					return;
+				}
+				pos++;
+			}
+			pos = 0;
+			if ((size = is.read(buf)) <= 0) {
+				bufferPos = 0;
+				bufferSize = 0;
+				return;
+			}
 		}
-		
-		char result = 0;
-		for (int i = 0; i < 4; i++) {
-			result |= readHexCharacter() << ((3 - i) * 4);
+	}
+	
+	boolean ingestSeparator(char endChar) throws IOException, JSONException {
+		char c = ingestWhitespace();
+		if (c == ',')
+			return true;
+		if (c == endChar)
+			return false;
+		throw new JSONException("Expected ',' or '"+endChar+"' after value!");
+	}
+	
+	char ingestWhitespace() throws IOException {
+		int c;
+		int pos = bufferPos;
+		int size = bufferSize;
+		byte [] buf = buffer;
+		while (true) {
+			if (pos < size) {
+				c = buf[pos] & 0xFF;
+				if (!WHITESPACE_MATCHERS[c]) { // most values are not preceded by whitespace at all
+					bufferPos = pos + 1;
+					bufferSize = size;
+					return (char) c;
+				}
+				pos = scanner.skipWhitespace(pos + 1, size);
+				if (pos < size) {
+					bufferPos = pos + 1;
+					bufferSize = size;
+					return (char) (buf[pos] & 0xFF);
+				}
+			}
+			if ((size = is.read(buf)) <= 0)
+				throw new EOFException();
+			pos = 0;
 		}
-		return result;
 	}
 	
-	private byte readHexCharacter() throws IOException {
-		char c = readChar();
-		if (c >= '0' && c <= '9')
-			return (byte) (c - '0');
-		else if (c >= 'a' && c <= 'f')
-			return (byte) (c - 'a' + 10);
-		else if (c >= 'A' && c <= 'F')
-			return (byte) (c - 'A' + 10);
-		
-		throw new NumberFormatException();
+	/**
+	 * Decodes an escape sequence whose backslash has already been consumed
+	 */
+	private void readEscape() throws IOException {
+		if (str.appendEscape(readChar()))
+			return;
+		int c = 0;
+		for (int i = 0; i < 4; i++)
+			c = (c << 4) | JSONStringDecoder.hex(readChar());
+		str.append((char) c);
 	}
 	
 	private char readChar() throws IOException {
@@ -510,37 +1166,45 @@ public class JSONInputStream extends InputStream {
 			pos = 0;
 		}
 		bufferPos = pos + 1;
-		return (char) buffer[pos];
+		return (char) (buffer[pos] & 0xFF);
 	}
 	
-	private void stringAppend(char c) {
-		int len = strLength;
-		int max = strMaxLength;
-		strData[len] = c;
-		len++;
-		strLength = len;
-		if (len < max)
-			return;
-		max *= 2;
-		char [] replacement = new char[max];
-		System.arraycopy(strData, 0, replacement, 0, len);
-		strData = replacement;
-		strMaxLength = max;
+	/**
+	 * Decodes the rest of a multi-byte UTF-8 sequence whose lead byte has already been consumed
+	 */
+	private void readUtf8(int lead) throws IOException {
+		JSONStringDecoder str = this.str;
+		int remaining = str.startUtf8(lead);
+		while (remaining > 0) {
+			if (bufferPos >= bufferSize) {
+				if ((bufferSize = is.read(buffer)) <= 0)
+					throw new EOFException();
+				bufferPos = 0;
+			}
+			remaining = str.continueUtf8(buffer[bufferPos] & 0xFF);
+			if (remaining < 0)
+				return;
+			bufferPos++;
+		}
 	}
 	
-	private boolean stringEquals(String str) {
-		int len = str.length();
-		if (len != strLength)
-			return false;
-		for (int i = 0; i < len; ++i) {
-			if (strData[i] != str.charAt(i))
-				return false;
-		}
-		return true;
+	/**
+	 * Returns TRUE if the string buffer holds exactly the specified string
+	 */
+	boolean stringEquals(String str) {
+		return this.str.contentEquals(str);
+	}
+	
+	private static int checkBufferSize(int bufferSize) {
+		if (bufferSize < 1)
+			throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+		return bufferSize;
 	}
 	
-	private String stringCreate() {
-		return new String(strData, 0, strLength);
+	private static byte [] checkRange(byte [] data, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > data.length || offset + length < 0)
+			throw new IndexOutOfBoundsException("offset=" + offset + " length=" + length + " array length=" + data.length);
+		return data;
 	}
 	
 }
@@ -0,0 +1,172 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.IOException;
+
+/**
+ * The bytes behind the views created by {@link JSONLazyParser}, along with the stream that decodes
+ * their values in place. Every view of the same document shares this stream, so views are not
+ * thread safe even when they are only read. Views only record where each value starts, since the
+ * value itself finds where it ends
+ *
+ * @author josh
+ */
+final class JSONLazyDocument {
+	
+	private final byte [] data;
+	private final int end;
+	private final JSONInputStream in;
+	
+	/**
+	 * Creates a document for the bytes of the data array up to the specified end
+	 */
+	JSONLazyDocument(byte [] data, int end) {
+		this.data = data;
+		this.end = end;
+		this.in = new JSONInputStream(data);
+	}
+	
+	/**
+	 * Points the shared stream at the bytes from the specified start to the end of the document
+	 */
+	JSONInputStream begin(int start) {
+		in.setInput(data, start, end - start);
+		return in;
+	}
+	
+	/**
+	 * Decodes the value that starts at the specified index. Objects and arrays are indexed into new
+	 * views, and anything else is decoded completely
+	 *
+	 * @throws UncheckedJSONException if the value is not valid JSON
+	 */
+	Object decode(int start) {
+		try {
+			JSONInputStream in = begin(start + 1);
+			switch (data[start]) {
+				case '{':
+					return new JSONLazyMap(this, in);
+				case '[':
+					return new JSONLazyList(this, in);
+				default:
+					return in.getNextInternal((char) (data[start] & 0xFF));
+			}
+		} catch (JSONException e) {
+			throw new UncheckedJSONException(e);
+		} catch (IOException e) {
+			throw new UncheckedJSONException(new JSONException("Unexpected end of input"));
+		}
+	}
+	
+	/**
+	 * Copies the undecoded value that starts at the specified index to the output stream, as it was
+	 * written but without the whitespace between its tokens, so that the output stays compact
+	 */
+	void write(JSONOutputStream out, int start) throws IOException {
+		JSONInputStream in = begin(start + 1);
+		in.skipValue((char) (data[start] & 0xFF));
+		int end = in.position();
+		byte [] data = this.data;
+		int run = start;
+		boolean inString = false;
+		for (int i = start; i < end; i++) {
+			byte b = data[i];
+			if (inString) {
+				if (b == '\\')
+					i++;
+				else if (b == '\"')
+					inString = false;
+			} else if (b == '\"') {
+				inString = true;
+			} else if (b == ' ' || b == '\n' || b == '\t' || b == '\r') {
+				if (i > run)
+					out.write(data, run, i - run);
+				run = i + 1;
+			}
+		}
+		if (end > run)
+			out.write(data, run, end - run);
+	}
+	
+	/**
+	 * Copies the plain ASCII string between start and end to the output stream, along with its quotes
+	 */
+	void writeQuoted(JSONOutputStream out, int start, int end) throws IOException {
+		out.write(data, start - 1, end - start + 2);
+	}
+	
+	/**
+	 * Creates the plain ASCII string between start and end
+	 */
+	String asciiString(int start, int end) {
+		return JSONScanner.asciiString(data, start, end - start);
+	}
+	
+	/**
+	 * Returns the same hash as {@link String#hashCode()} of the plain ASCII string between start and
+	 * end, without creating it
+	 */
+	int asciiHash(int start, int end) {
+		byte [] data = this.data;
+		int h = 0;
+		for (int i = start; i < end; i++)
+			h = 31 * h + data[i];
+		return h;
+	}
+	
+	/**
+	 * Returns TRUE if the plain ASCII string between start and end is equal to the specified string
+	 */
+	boolean asciiEquals(String str, int start, int end) {
+		int length = end - start;
+		if (str.length() != length)
+			return false;
+		byte [] data = this.data;
+		for (int i = 0; i < length; i++) {
+			if (str.charAt(i) != data[start + i])
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns TRUE if the plain ASCII strings between start and end and between otherStart and
+	 * otherEnd are equal
+	 */
+	boolean asciiEquals(int start, int end, int otherStart, int otherEnd) {
+		int length = end - start;
+		if (otherEnd - otherStart != length)
+			return false;
+		byte [] data = this.data;
+		for (int i = 0; i < length; i++) {
+			if (data[start + i] != data[otherStart + i])
+				return false;
+		}
+		return true;
+	}
+	
+}
@@ -0,0 +1,165 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A JSON array that only indexes where each of its elements starts up front. An element is
+ * decoded the first time it is read and then cached, and nested objects and arrays become views
+ * themselves
+ *
+ * @author josh
+ */
+final class JSONLazyList extends AbstractList<Object> implements RandomAccess {
+	
+	private static final int INITIAL_CAPACITY = 8;
+	
+	private final JSONLazyDocument document;
+	private int [] starts; // -1 once the element has been decoded or replaced
+	private Object [] values; // created on demand
+	private int size;
+	
+	/**
+	 * Indexes the array whose opening bracket has already been read from the specified stream
+	 */
+	JSONLazyList(JSONLazyDocument document, JSONInputStream in) throws IOException, JSONException {
+		this.document = document;
+		this.starts = new int[INITIAL_CAPACITY];
+		this.values = null;
+		this.size = 0;
+		
+		char c;
+		do {
+			c = in.ingestWhitespace();
+			if (c == ']')
+				break;
+			int start = in.position() - 1;
+			in.skipValue(c);
+			int index = grow();
+			starts[index] = start;
+		} while (in.ingestSeparator(']'));
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@Override
+	public Object get(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		Object [] values = valueArray();
+		int start = starts[index];
+		if (start != -1) {
+			values[index] = document.decode(start);
+			starts[index] = -1;
+		}
+		return values[index];
+	}
+	
+	@Override
+	public Object set(int index, Object element) {
+		Object previous = get(index);
+		values[index] = element;
+		return previous;
+	}
+	
+	@Override
+	public void add(int index, Object element) {
+		if (index < 0 || index > size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		int moved = grow() - index;
+		Object [] values = valueArray();
+		System.arraycopy(starts, index, starts, index + 1, moved);
+		System.arraycopy(values, index, values, index + 1, moved);
+		starts[index] = -1;
+		values[index] = element;
+		modCount++;
+	}
+	
+	@Override
+	public Object remove(int index) {
+		Object previous = get(index);
+		int moved = size - index - 1;
+		System.arraycopy(starts, index + 1, starts, index, moved);
+		System.arraycopy(values, index + 1, values, index, moved);
+		values[--size] = null;
+		modCount++;
+		return previous;
+	}
+	
+	@Override
+	public void clear() {
+		if (values != null)
+			Arrays.fill(values, 0, size, null);
+		size = 0;
+		modCount++;
+	}
+	
+	/**
+	 * Writes this array in compact form, copying every element that has not been decoded straight
+	 * from the original bytes
+	 */
+	void writeCompact(JSONOutputStream out) throws IOException {
+		out.write('[');
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				out.write(',');
+			if (starts[i] != -1)
+				document.write(out, starts[i]);
+			else
+				out.writeValue(values[i], 0);
+		}
+		out.write(']');
+	}
+	
+	private Object [] valueArray() {
+		if (values == null)
+			values = new Object[starts.length];
+		return values;
+	}
+	
+	/**
+	 * Adds a slot to the end of this array, and returns its index
+	 */
+	private int grow() {
+		int index = size;
+		if (index == starts.length) {
+			int capacity = index * 2;
+			starts = Arrays.copyOf(starts, capacity);
+			if (values != null)
+				values = Arrays.copyOf(values, capacity);
+		}
+		size = index + 1;
+		return index;
+	}
+	
+}
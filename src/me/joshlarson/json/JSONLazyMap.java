@@ -0,0 +1,405 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A JSON object that only indexes where each of its keys and values starts up front. A value is
+ * decoded the first time it is read and then cached, and nested objects and arrays become views
+ * themselves. Plain ASCII keys are hashed and compared where they are, and only created as strings
+ * once the keys are iterated. Keys keep their order, and a repeated key keeps its first position
+ * with its last value, the same way as a LinkedHashMap filled by {@link JSONInputStream}
+ *
+ * @author josh
+ */
+final class JSONLazyMap extends AbstractMap<String, Object> {
+	
+	private static final int INITIAL_CAPACITY = 8;
+	
+	private final JSONLazyDocument document;
+	private int [] keyStarts;
+	private int [] keyEnds; // -1 if the key is only held in keys
+	private String [] keys; // created on demand
+	private int [] starts; // -1 once the value has been decoded or replaced
+	private Object [] values; // created on demand
+	private int [] table; // open addressing by key hash, holding the index + 1 of each key
+	private int size;
+	private Set<Entry<String, Object>> entrySet;
+	
+	/**
+	 * Indexes the object whose opening brace has already been read from the specified stream
+	 */
+	JSONLazyMap(JSONLazyDocument document, JSONInputStream in) throws IOException, JSONException {
+		this.document = document;
+		this.keyStarts = new int[INITIAL_CAPACITY];
+		this.keyEnds = new int[INITIAL_CAPACITY];
+		this.keys = null;
+		this.starts = new int[INITIAL_CAPACITY];
+		this.values = null;
+		this.table = new int[INITIAL_CAPACITY * 2];
+		this.size = 0;
+		this.entrySet = null;
+		
+		char c;
+		do {
+			c = in.ingestWhitespace();
+			if (c != '\"') {
+				if (c == '}')
+					break;
+				throw new JSONException("Keys must start with \"!");
+			}
+			int keyStart = in.position();
+			int keyEnd = in.skipPlainString();
+			String key = keyEnd == -1 ? in.getNextTokenString() : null;
+			if (in.ingestWhitespace() != ':')
+				throw new JSONException("Attributes must be key-value pairs separated by ':'");
+			
+			c = in.ingestWhitespace();
+			int start = in.position() - 1;
+			in.skipValue(c);
+			int index;
+			if (key == null) {
+				int hash = document.asciiHash(keyStart, keyEnd);
+				index = indexOf(keyStart, keyEnd, hash);
+				if (index == -1)
+					index = append(keyStart, keyEnd, null, hash);
+			} else {
+				index = indexOf(key);
+				if (index == -1)
+					index = append(key);
+			}
+			if (values != null)
+				values[index] = null;
+			starts[index] = start;
+		} while (in.ingestSeparator('}'));
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof String && indexOf((String) key) != -1;
+	}
+	
+	@Override
+	public Object get(Object key) {
+		if (!(key instanceof String))
+			return null;
+		int index = indexOf((String) key);
+		return index == -1 ? null : value(index);
+	}
+	
+	@Override
+	public Object put(String key, Object value) {
+		int index = indexOf(Objects.requireNonNull(key, "key"));
+		Object previous = null;
+		if (index == -1)
+			index = append(key);
+		else
+			previous = value(index);
+		starts[index] = -1;
+		valueArray()[index] = value;
+		return previous;
+	}
+	
+	@Override
+	public Object remove(Object key) {
+		if (!(key instanceof String))
+			return null;
+		int index = indexOf((String) key);
+		if (index == -1)
+			return null;
+		Object previous = value(index);
+		removeAt(index);
+		return previous;
+	}
+	
+	@Override
+	public void clear() {
+		if (keys != null)
+			Arrays.fill(keys, 0, size, null);
+		if (values != null)
+			Arrays.fill(values, 0, size, null);
+		Arrays.fill(table, 0);
+		size = 0;
+	}
+	
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		Set<Entry<String, Object>> entrySet = this.entrySet;
+		if (entrySet == null)
+			this.entrySet = entrySet = new EntrySet();
+		return entrySet;
+	}
+	
+	/**
+	 * Writes this object in compact form, copying every key and value that has not been decoded
+	 * straight from the original bytes
+	 */
+	void writeCompact(JSONOutputStream out) throws IOException {
+		out.write('{');
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				out.write(',');
+			if (keyEnds[i] != -1)
+				document.writeQuoted(out, keyStarts[i], keyEnds[i]);
+			else
+				out.writeQuoted(keys[i]);
+			out.write(':');
+			if (starts[i] != -1)
+				document.write(out, starts[i]);
+			else
+				out.writeValue(values[i], 0);
+		}
+		out.write('}');
+	}
+	
+	private String key(int index) {
+		if (keys == null)
+			keys = new String[keyStarts.length];
+		String key = keys[index];
+		if (key == null)
+			keys[index] = key = document.asciiString(keyStarts[index], keyEnds[index]);
+		return key;
+	}
+	
+	private Object value(int index) {
+		Object [] values = valueArray();
+		int start = starts[index];
+		if (start != -1) {
+			values[index] = document.decode(start);
+			starts[index] = -1;
+		}
+		return values[index];
+	}
+	
+	private Object [] valueArray() {
+		if (values == null)
+			values = new Object[starts.length];
+		return values;
+	}
+	
+	private int indexOf(String key) {
+		int [] table = this.table;
+		int mask = table.length - 1;
+		for (int slot = hash(key.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+			int entry = table[slot] - 1;
+			if (entry == -1)
+				return -1;
+			if (keyEnds[entry] != -1 ? document.asciiEquals(key, keyStarts[entry], keyEnds[entry]) : keys[entry].equals(key))
+				return entry;
+		}
+	}
+	
+	/**
+	 * Finds a plain ASCII key while indexing, without creating it as a string
+	 */
+	private int indexOf(int keyStart, int keyEnd, int hash) {
+		int [] table = this.table;
+		int mask = table.length - 1;
+		for (int slot = hash(hash) & mask; ; slot = (slot + 1) & mask) {
+			int entry = table[slot] - 1;
+			if (entry == -1)
+				return -1;
+			if (keyEnds[entry] != -1 ? document.asciiEquals(keyStarts[entry], keyEnds[entry], keyStart, keyEnd) : document.asciiEquals(keys[entry], keyStart, keyEnd))
+				return entry;
+		}
+	}
+	
+	private int append(String key) {
+		return append(0, -1, key, key.hashCode());
+	}
+	
+	private int append(int keyStart, int keyEnd, String key, int hash) {
+		int index = size;
+		if (index == starts.length) {
+			int capacity = index * 2;
+			keyStarts = Arrays.copyOf(keyStarts, capacity);
+			keyEnds = Arrays.copyOf(keyEnds, capacity);
+			starts = Arrays.copyOf(starts, capacity);
+			if (keys != null)
+				keys = Arrays.copyOf(keys, capacity);
+			if (values != null)
+				values = Arrays.copyOf(values, capacity);
+		}
+		keyStarts[index] = keyStart;
+		keyEnds[index] = keyEnd;
+		starts[index] = -1;
+		if (key != null) {
+			if (keys == null)
+				keys = new String[starts.length];
+			keys[index] = key;
+		}
+		size = index + 1;
+		if (size * 2 > table.length)
+			rehash(table.length * 2);
+		else
+			insert(hash, index);
+		return index;
+	}
+	
+	private void removeAt(int index) {
+		int moved = size - index - 1;
+		System.arraycopy(keyStarts, index + 1, keyStarts, index, moved);
+		System.arraycopy(keyEnds, index + 1, keyEnds, index, moved);
+		System.arraycopy(starts, index + 1, starts, index, moved);
+		size--;
+		if (keys != null) {
+			System.arraycopy(keys, index + 1, keys, index, moved);
+			keys[size] = null;
+		}
+		if (values != null) {
+			System.arraycopy(values, index + 1, values, index, moved);
+			values[size] = null;
+		}
+		rehash(table.length);
+	}
+	
+	private void rehash(int capacity) {
+		table = new int[capacity];
+		for (int i = 0; i < size; i++)
+			insert(keyEnds[i] != -1 ? document.asciiHash(keyStarts[i], keyEnds[i]) : keys[i].hashCode(), i);
+	}
+	
+	private void insert(int hash, int index) {
+		int [] table = this.table;
+		int mask = table.length - 1;
+		int slot = hash(hash) & mask;
+		while (table[slot] != 0)
+			slot = (slot + 1) & mask;
+		table[slot] = index + 1;
+	}
+	
+	private static int hash(int h) {
+		return h ^ (h >>> 16);
+	}
+	
+	private class EntrySet extends AbstractSet<Entry<String, Object>> {
+		
+		@Override
+		public int size() {
+			return size;
+		}
+		
+		@Override
+		public void clear() {
+			JSONLazyMap.this.clear();
+		}
+		
+		@Override
+		public Iterator<Entry<String, Object>> iterator() {
+			return new EntryIterator();
+		}
+		
+	}
+	
+	private class EntryIterator implements Iterator<Entry<String, Object>> {
+		
+		private int next = 0;
+		private int last = -1;
+		
+		@Override
+		public boolean hasNext() {
+			return next < size;
+		}
+		
+		@Override
+		public Entry<String, Object> next() {
+			if (next >= size)
+				throw new NoSuchElementException();
+			last = next++;
+			return new LazyEntry(key(last));
+		}
+		
+		@Override
+		public void remove() {
+			if (last == -1)
+				throw new IllegalStateException();
+			removeAt(last);
+			next = last;
+			last = -1;
+		}
+		
+	}
+	
+	/**
+	 * An entry that looks up its value by key, so it stays valid while other keys are removed
+	 */
+	private class LazyEntry implements Entry<String, Object> {
+		
+		private final String key;
+		
+		public LazyEntry(String key) {
+			this.key = key;
+		}
+		
+		@Override
+		public String getKey() {
+			return key;
+		}
+		
+		@Override
+		public Object getValue() {
+			return get(key);
+		}
+		
+		@Override
+		public Object setValue(Object value) {
+			return put(key, value);
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Entry))
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			return key.equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+		}
+		
+		@Override
+		public int hashCode() {
+			return key.hashCode() ^ Objects.hashCode(getValue());
+		}
+		
+		@Override
+		public String toString() {
+			return key + '=' + getValue();
+		}
+		
+	}
+	
+}
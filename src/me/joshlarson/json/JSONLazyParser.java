@@ -0,0 +1,154 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Parses JSON that is already in memory into views over the original bytes, for documents where
+ * only a few values are read. Only the keys and value boundaries of the top-level object or array
+ * are indexed up front. Each value is decoded the first time it is read and then cached, and nested
+ * objects and arrays are views themselves, indexed the first time they are read
+ * <p>
+ * A value is not validated until it is decoded, so a malformed value throws an
+ * {@link UncheckedJSONException} from the method that reads it. The views can be modified, but the
+ * bytes must not be while any view of them is in use, and the views of one document must not be
+ * shared between threads. When a view is written by a compact {@link JSONOutputStream}, values that
+ * were never decoded are copied as they were written, minus the whitespace between their tokens,
+ * so forwarding a document costs little more than the fields that were read
+ *
+ * @author josh
+ */
+public final class JSONLazyParser {
+	
+	private JSONLazyParser() {
+		
+	}
+	
+	/**
+	 * Reads a lazy JSONObject or JSONArray from the specified bytes
+	 *
+	 * @param data the UTF-8 encoded JSON
+	 * @return the read JSONObject/JSONArray or null if there is only whitespace
+	 * @throws JSONException if the top-level object or array is malformed
+	 */
+	public static Object readNext(byte [] data) throws JSONException {
+		return readNext(data, 0, data.length);
+	}
+	
+	/**
+	 * Reads a lazy JSONObject or JSONArray from the specified range of bytes
+	 *
+	 * @param data   the UTF-8 encoded JSON
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @return the read JSONObject/JSONArray or null if there is only whitespace
+	 * @throws JSONException if the top-level object or array is malformed
+	 */
+	public static Object readNext(byte [] data, int offset, int length) throws JSONException {
+		return read(data, offset, length, '\0');
+	}
+	
+	/**
+	 * Reads a lazy JSONObject from the specified bytes
+	 *
+	 * @param data the UTF-8 encoded JSON
+	 * @return the read JSONObject, or null if there is only whitespace
+	 * @throws JSONException if the top-level object is malformed
+	 */
+	public static JSONObject readObject(byte [] data) throws JSONException {
+		return readObject(data, 0, data.length);
+	}
+	
+	/**
+	 * Reads a lazy JSONObject from the specified range of bytes
+	 *
+	 * @param data   the UTF-8 encoded JSON
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @return the read JSONObject, or null if there is only whitespace
+	 * @throws JSONException if the top-level object is malformed
+	 */
+	public static JSONObject readObject(byte [] data, int offset, int length) throws JSONException {
+		return (JSONObject) read(data, offset, length, '{');
+	}
+	
+	/**
+	 * Reads a lazy JSONArray from the specified bytes
+	 *
+	 * @param data the UTF-8 encoded JSON
+	 * @return the read JSONArray, or null if there is only whitespace
+	 * @throws JSONException if the top-level array is malformed
+	 */
+	public static JSONArray readArray(byte [] data) throws JSONException {
+		return readArray(data, 0, data.length);
+	}
+	
+	/**
+	 * Reads a lazy JSONArray from the specified range of bytes
+	 *
+	 * @param data   the UTF-8 encoded JSON
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @return the read JSONArray, or null if there is only whitespace
+	 * @throws JSONException if the top-level array is malformed
+	 */
+	public static JSONArray readArray(byte [] data, int offset, int length) throws JSONException {
+		return (JSONArray) read(data, offset, length, '[');
+	}
+	
+	/**
+	 * Indexes the top-level value, which must start with the expected character unless it is '\0'
+	 */
+	private static Object read(byte [] data, int offset, int length, char expected) throws JSONException {
+		JSONLazyDocument document = new JSONLazyDocument(data, offset + length);
+		JSONInputStream in = document.begin(offset);
+		try {
+			char c;
+			try {
+				c = in.ingestWhitespace();
+			} catch (EOFException e) {
+				return null;
+			}
+			if (expected == '{' && c != '{')
+				throw new JSONException("JSON object must start with '{'");
+			if (expected == '[' && c != '[')
+				throw new JSONException("JSON array must start with '['");
+			switch (c) {
+				case '{':
+					return new JSONObject(new JSONLazyMap(document, in));
+				case '[':
+					return new JSONArray(new JSONLazyList(document, in));
+				default:
+					throw new JSONException("Invalid start to object/array!");
+			}
+		} catch (IOException e) {
+			throw new JSONException("Unexpected end of input");
+		}
+	}
+	
+}
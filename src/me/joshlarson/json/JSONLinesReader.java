@@ -0,0 +1,325 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reads JSON Lines (newline delimited JSON) on several threads. The input is split into chunks of
+ * roughly {@link #DEFAULT_CHUNK_SIZE} bytes that end on a newline, and each chunk is parsed by its
+ * own JSONInputStream on the executor. Values are handed to the consumer on the calling thread, one
+ * chunk at a time, so the consumer does not need to be thread-safe:
+ * <pre>
+ * new JSONLinesReader().read(Paths.get("events.jsonl"), true, event -&gt; handle(event));
+ * </pre>
+ * In order, values are delivered exactly as they appear in the input. Otherwise each chunk is
+ * delivered as soon as it has been parsed, which keeps every thread busy when some chunks take
+ * longer than others. Only a few chunks per thread are parsed ahead of the consumer, so files of any
+ * size are read in bounded memory. Every value must be an object or an array on a single line, the
+ * same as {@link JSONInputStream#readNext()} would read. A reader holds no state of its own between
+ * calls, and can be shared between threads
+ *
+ * @author josh
+ */
+public class JSONLinesReader {
+	
+	public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+	private static final int BOUNDARY_BUFFER_SIZE = 4 * 1024;
+	private static final int FILE_BUFFER_SIZE = 64 * 1024;
+	
+	private final Executor executor;
+	private final int chunkSize;
+	private final int maxPending;
+	private final Supplier<Map<String, Object>> objectSupplier;
+	private final Supplier<List<Object>> arraySupplier;
+	
+	/**
+	 * Creates a new reader that parses on the common ForkJoinPool
+	 */
+	public JSONLinesReader() {
+		this(ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates a new reader that parses on the specified executor
+	 *
+	 * @param executor the executor that parses each chunk
+	 */
+	public JSONLinesReader(Executor executor) {
+		this(executor, DEFAULT_CHUNK_SIZE);
+	}
+	
+	/**
+	 * Creates a new reader that parses on the specified executor
+	 *
+	 * @param executor  the executor that parses each chunk
+	 * @param chunkSize the number of bytes after which a chunk is ended at the next newline
+	 */
+	public JSONLinesReader(Executor executor, int chunkSize) {
+		this(executor, chunkSize, LinkedHashMap::new, ArrayList::new);
+	}
+	
+	/**
+	 * Creates a new reader that parses on the specified executor
+	 *
+	 * @param executor       the executor that parses each chunk
+	 * @param chunkSize      the number of bytes after which a chunk is ended at the next newline
+	 * @param objectSupplier a supplier for JSON object implementations
+	 * @param arraySupplier  a supplier for JSON array implementations
+	 */
+	public JSONLinesReader(Executor executor, int chunkSize, Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
+		if (chunkSize <= 0)
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+		this.executor = executor;
+		this.chunkSize = chunkSize;
+		this.maxPending = 2 * JSONTasks.parallelism(executor);
+		this.objectSupplier = objectSupplier;
+		this.arraySupplier = arraySupplier;
+	}
+	
+	/**
+	 * Reads every value of the specified UTF-8 bytes, which are parsed in place
+	 *
+	 * @param data     the JSON Lines input
+	 * @param ordered  TRUE if values must be delivered in input order, FALSE otherwise
+	 * @param consumer the consumer that is given each value on the calling thread
+	 * @throws IOException   if the calling thread is interrupted
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public void read(byte [] data, boolean ordered, Consumer<Object> consumer) throws IOException, JSONException {
+		read(data, 0, data.length, ordered, consumer);
+	}
+	
+	/**
+	 * Reads every value of the specified range of UTF-8 bytes, which are parsed in place
+	 *
+	 * @param data     the JSON Lines input
+	 * @param offset   the index of the first byte
+	 * @param length   the number of bytes
+	 * @param ordered  TRUE if values must be delivered in input order, FALSE otherwise
+	 * @param consumer the consumer that is given each value on the calling thread
+	 * @throws IOException   if the calling thread is interrupted
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public void read(byte [] data, int offset, int length, boolean ordered, Consumer<Object> consumer) throws IOException, JSONException {
+		if (offset < 0 || length < 0 || length > data.length - offset)
+			throw new IndexOutOfBoundsException("offset=" + offset + " length=" + length + " size=" + data.length);
+		read(new ArraySource(data), offset, offset + length, ordered, consumer);
+	}
+	
+	/**
+	 * Reads every value of the specified file. Each chunk is read with its own positional reads, the
+	 * same way as {@link JSONInputStream#JSONInputStream(Path)}
+	 *
+	 * @param path     the file containing the JSON Lines input
+	 * @param ordered  TRUE if values must be delivered in input order, FALSE otherwise
+	 * @param consumer the consumer that is given each value on the calling thread
+	 * @throws IOException   if the file cannot be read, or the calling thread is interrupted
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public void read(Path path, boolean ordered, Consumer<Object> consumer) throws IOException, JSONException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			read(new FileSource(channel), 0, channel.size(), ordered, consumer);
+		}
+	}
+	
+	/**
+	 * Reads every value of the specified UTF-8 bytes in input order
+	 *
+	 * @param data the JSON Lines input
+	 * @return a list of every value
+	 * @throws IOException   if the calling thread is interrupted
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public List<Object> readAll(byte [] data) throws IOException, JSONException {
+		List<Object> values = new ArrayList<>();
+		read(data, true, values::add);
+		return values;
+	}
+	
+	/**
+	 * Reads every value of the specified file in input order
+	 *
+	 * @param path the file containing the JSON Lines input
+	 * @return a list of every value
+	 * @throws IOException   if the file cannot be read, or the calling thread is interrupted
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public List<Object> readAll(Path path) throws IOException, JSONException {
+		List<Object> values = new ArrayList<>();
+		read(path, true, values::add);
+		return values;
+	}
+	
+	/**
+	 * Keeps up to {@link #maxPending} chunks parsing ahead of the consumer. If anything fails, the
+	 * chunks that are still pending are cancelled before the failure is thrown
+	 */
+	private void read(Source source, long start, long end, boolean ordered, Consumer<Object> consumer) throws IOException, JSONException {
+		ArrayDeque<Future<List<Object>>> pending = new ArrayDeque<>();
+		ExecutorCompletionService<List<Object>> completion = ordered ? null : new ExecutorCompletionService<>(executor);
+		long pos = start;
+		try {
+			while (true) {
+				while (pos < end && pending.size() < maxPending) {
+					long chunkEnd = source.findBoundary(pos + chunkSize, end);
+					Callable<List<Object>> chunk = source.chunk(pos, chunkEnd);
+					if (ordered) {
+						FutureTask<List<Object>> task = new FutureTask<>(chunk);
+						executor.execute(task);
+						pending.add(task);
+					} else {
+						pending.add(completion.submit(chunk));
+					}
+					pos = chunkEnd;
+				}
+				if (pending.isEmpty())
+					break;
+				Future<List<Object>> done;
+				if (ordered) {
+					done = pending.poll();
+				} else {
+					done = completion.take();
+					pending.remove(done);
+				}
+				for (Object value : JSONTasks.join(done))
+					consumer.accept(value);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a chunk to be parsed");
+		} finally {
+			for (Future<List<Object>> future : pending)
+				future.cancel(false);
+		}
+	}
+	
+	/**
+	 * Reads every value of a chunk, and closes the stream of the chunk
+	 */
+	private List<Object> parseChunk(JSONInputStream in) throws IOException, JSONException {
+		List<Object> values = new ArrayList<>();
+		try {
+			Object value;
+			while ((value = in.readNext()) != null)
+				values.add(value);
+		} finally {
+			in.close();
+		}
+		return values;
+	}
+	
+	private interface Source {
+		
+		/**
+		 * Returns the index just past the first newline at or after the specified index, or the end
+		 */
+		long findBoundary(long pos, long end) throws IOException;
+		
+		Callable<List<Object>> chunk(long start, long end);
+		
+	}
+	
+	private final class ArraySource implements Source {
+		
+		private final byte [] data;
+		
+		ArraySource(byte [] data) {
+			this.data = data;
+		}
+		
+		@Override
+		public long findBoundary(long pos, long end) {
+			byte [] data = this.data;
+			for (int i = (int) Math.min(pos, end); i < end; i++) {
+				if (data[i] == '\n')
+					return i + 1;
+			}
+			return end;
+		}
+		
+		@Override
+		public Callable<List<Object>> chunk(long start, long end) {
+			return () -> parseChunk(new JSONInputStream(data, (int) start, (int) (end - start), objectSupplier, arraySupplier));
+		}
+		
+	}
+	
+	private final class FileSource implements Source {
+		
+		private final FileChannel channel;
+		private final ByteBuffer boundaryBuffer;
+		
+		FileSource(FileChannel channel) {
+			this.channel = channel;
+			this.boundaryBuffer = ByteBuffer.allocate(BOUNDARY_BUFFER_SIZE);
+		}
+		
+		@Override
+		public long findBoundary(long pos, long end) throws IOException {
+			ByteBuffer buffer = boundaryBuffer;
+			byte [] data = buffer.array();
+			while (pos < end) {
+				buffer.clear();
+				buffer.limit((int) Math.min(BOUNDARY_BUFFER_SIZE, end - pos));
+				int read = channel.read(buffer, pos);
+				if (read <= 0)
+					return end;
+				for (int i = 0; i < read; i++) {
+					if (data[i] == '\n')
+						return pos + i + 1;
+				}
+				pos += read;
+			}
+			return end;
+		}
+		
+		@Override
+		public Callable<List<Object>> chunk(long start, long end) {
+			return () -> parseChunk(new JSONInputStream(new FileChannelInputStream(channel, start, end), FILE_BUFFER_SIZE, objectSupplier, arraySupplier));
+		}
+		
+	}
+	
+}
@@ -0,0 +1,580 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Conversions between decimal text and binary numbers that work on digits already scanned out of
+ * a buffer, rather than on Strings
+ *
+ * @author josh
+ */
+final class JSONNumbers {
+	
+	static final int NUMBER_OTHER = 0;
+	static final int NUMBER_LONG = 1;
+	static final int NUMBER_DOUBLE = 2;
+	
+	private static final int SMALLEST_POWER_OF_TEN = -342;
+	private static final int LARGEST_POWER_OF_TEN = 308;
+	
+	private static final double [] EXACT_POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	
+	/**
+	 * 128-bit approximations of 5^q for every q from {@link #SMALLEST_POWER_OF_TEN} to
+	 * {@link #LARGEST_POWER_OF_TEN}, normalized so that the highest bit is set. Entry 2i holds the
+	 * high 64 bits and entry 2i+1 the low 64 bits
+	 */
+	private static final long [] POWERS_OF_FIVE = new long[2 * (LARGEST_POWER_OF_TEN - SMALLEST_POWER_OF_TEN + 1)];
+	
+	static {
+		BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+		BigInteger two127 = BigInteger.ONE.shiftLeft(127);
+		int i = 0;
+		for (int q = SMALLEST_POWER_OF_TEN; q <= LARGEST_POWER_OF_TEN; q++) {
+			BigInteger power;
+			if (q < 0) {
+				BigInteger power5 = BigInteger.valueOf(5).pow(-q);
+				int z = power5.subtract(BigInteger.ONE).bitLength(); // smallest z where 2^z >= 5^-q
+				int b = (q >= -27) ? z + 127 : 2 * z + 128;
+				power = BigInteger.ONE.shiftLeft(b).divide(power5).add(BigInteger.ONE);
+			} else {
+				power = BigInteger.valueOf(5).pow(q);
+				while (power.compareTo(two127) < 0)
+					power = power.shiftLeft(1);
+			}
+			while (power.compareTo(two128) >= 0)
+				power = power.shiftRight(1);
+			POWERS_OF_FIVE[i++] = power.shiftRight(64).longValue();
+			POWERS_OF_FIVE[i++] = power.longValue();
+		}
+	}
+	
+	/**
+	 * The maximum number of bytes written by {@link #writeLong(long, byte[], int)} or
+	 * {@link #writeDouble(double, byte[], int)}
+	 */
+	static final int MAX_NUMBER_LENGTH = 24;
+	
+	private static final byte [] LONG_MIN_VALUE = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+	private static final long [] LONG_POWERS_OF_TEN = new long[19];
+	
+	private static final int K_MIN = -324;
+	private static final int K_MAX = 292;
+	private static final int Q_MIN = -1074;
+	private static final long C_MIN = 1L << 52;
+	private static final long C_TINY = 3;
+	private static final long MASK_63 = Long.MAX_VALUE;
+	
+	/**
+	 * For each k, the 126-bit value g = floor(10^-k * 2^-r) + 1 where r = flog2pow10(-k) - 125, as
+	 * used by Schubfach. Entry 2i holds the high 63 bits and entry 2i+1 the low 63 bits
+	 */
+	private static final long [] SCHUBFACH_G = new long[2 * (K_MAX - K_MIN + 1)];
+	
+	static {
+		LONG_POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < LONG_POWERS_OF_TEN.length; i++)
+			LONG_POWERS_OF_TEN[i] = LONG_POWERS_OF_TEN[i - 1] * 10;
+		
+		BigInteger mask63 = BigInteger.valueOf(MASK_63);
+		int i = 0;
+		for (int k = K_MIN; k <= K_MAX; k++) {
+			int e = 125 - flog2pow10(-k); // 10^-k * 2^e lies within [2^125, 2^126)
+			BigInteger g;
+			if (k <= 0) {
+				BigInteger power = BigInteger.TEN.pow(-k);
+				g = (e >= 0) ? power.shiftLeft(e) : power.shiftRight(-e);
+			} else {
+				g = BigInteger.ONE.shiftLeft(e).divide(BigInteger.TEN.pow(k));
+			}
+			g = g.add(BigInteger.ONE);
+			SCHUBFACH_G[i++] = g.shiftRight(63).longValue();
+			SCHUBFACH_G[i++] = g.and(mask63).longValue();
+		}
+	}
+	
+	private JSONNumbers() {
+	
+	}
+	
+	/**
+	 * Converts the number that fills the bytes between start and end
+	 *
+	 * @param data   the bytes to read from
+	 * @param start  the index of the first byte of the number
+	 * @param end    the index just past the last byte of the number
+	 * @param result receives the value in its first element, and needs at least two elements for
+	 *               {@link #scanNumber(byte[], int, int, long[])}
+	 * @return {@link #NUMBER_LONG}, {@link #NUMBER_DOUBLE}, or {@link #NUMBER_OTHER} if the bytes are
+	 * not entirely a number that can be converted exactly
+	 */
+	static int parseNumber(byte [] data, int start, int end, long [] result) {
+		int kind = scanNumber(data, start, end, result);
+		return result[1] == end ? kind : NUMBER_OTHER;
+	}
+	
+	/**
+	 * Converts the number at the start of the bytes between start and end, by accumulating up to 19
+	 * significant digits along with a decimal exponent, which are then converted by
+	 * {@link #decimalToDouble(long, int, boolean)}. Scanning stops at the first byte that cannot
+	 * continue the number. Nothing is allocated, so the results are stored in the specified array
+	 *
+	 * @param data   the bytes to read from
+	 * @param start  the index of the first byte of the number
+	 * @param end    the index to stop at if the number has not ended before it
+	 * @param result receives the value of an integer or the bits of a decimal in its first element,
+	 *               and the index just past the number in its second element
+	 * @return {@link #NUMBER_LONG} for an integer that fits within a long, {@link #NUMBER_DOUBLE} for
+	 * a decimal, or {@link #NUMBER_OTHER} for anything else: overflowing integers, the rare ambiguous
+	 * decimal and malformed numbers, which are left to {@link #parseToken(byte[], int, int, long[])}
+	 */
+	static int scanNumber(byte [] data, int start, int end, long [] result) {
+		int pos = start;
+		boolean negative = pos < end && data[pos] == '-';
+		if (negative)
+			pos++;
+		boolean decimal = false;
+		boolean truncated = false;
+		long mantissa = 0;
+		int significant = 0;
+		int exp10 = 0;
+		int digits = pos;
+		int d;
+		while (pos < end && (d = data[pos] - '0') >= 0 && d <= 9) { // integer digits
+			if (significant < 19) {
+				mantissa = mantissa * 10 + d;
+				if (mantissa != 0)
+					significant++;
+			} else {
+				exp10++;
+				truncated |= d != 0;
+			}
+			pos++;
+		}
+		if (pos == digits)
+			return NUMBER_OTHER;
+		if (pos < end && data[pos] == '.') {
+			decimal = true;
+			digits = ++pos;
+			while (pos < end && (d = data[pos] - '0') >= 0 && d <= 9) { // fraction digits
+				if (significant < 19) {
+					mantissa = mantissa * 10 + d;
+					if (mantissa != 0)
+						significant++;
+					exp10--;
+				} else {
+					truncated |= d != 0;
+				}
+				pos++;
+			}
+			if (pos == digits)
+				return NUMBER_OTHER;
+		}
+		if (pos < end && (data[pos] == 'e' || data[pos] == 'E')) {
+			decimal = true;
+			pos++;
+			boolean negativeExponent = false;
+			if (pos < end && (data[pos] == '-' || data[pos] == '+'))
+				negativeExponent = data[pos++] == '-';
+			int exponent = 0;
+			digits = pos;
+			while (pos < end && (d = data[pos] - '0') >= 0 && d <= 9) {
+				if (exponent < 100000)
+					exponent = exponent * 10 + d;
+				pos++;
+			}
+			if (pos == digits)
+				return NUMBER_OTHER;
+			exp10 += negativeExponent ? -exponent : exponent;
+		}
+		result[1] = pos;
+		if (!decimal) {
+			if (exp10 != 0 || (negative ? Long.compareUnsigned(mantissa, Long.MIN_VALUE) > 0 : mantissa < 0))
+				return NUMBER_OTHER; // overflow
+			result[0] = negative ? -mantissa : mantissa;
+			return NUMBER_LONG;
+		}
+		double value = decimalToDouble(mantissa, exp10, negative);
+		if (truncated && value != decimalToDouble(mantissa + 1, exp10, negative))
+			return NUMBER_OTHER; // the dropped digits could change the rounding
+		if (Double.isNaN(value))
+			return NUMBER_OTHER;
+		result[0] = Double.doubleToRawLongBits(value);
+		return NUMBER_DOUBLE;
+	}
+	
+	/**
+	 * Converts the number, boolean or null that fills the bytes between start and end. Numbers that
+	 * {@link #parseNumber(byte[], int, int, long[])} cannot convert go through
+	 * {@link Long#valueOf(String)} or {@link Double#valueOf(String)}
+	 *
+	 * @param data   the bytes to read from
+	 * @param start  the index of the first byte of the token
+	 * @param end    the index just past the last byte of the token
+	 * @param result scratch space for {@link #scanNumber(byte[], int, int, long[])}, with at least two
+	 *               elements
+	 * @return a Long, Double, Boolean or null
+	 * @throws JSONException if the token is not a number, boolean or null
+	 */
+	static Object parseToken(byte [] data, int start, int end, long [] result) throws JSONException {
+		switch (parseNumber(data, start, end, result)) {
+			case NUMBER_LONG:
+				return JSONInputStream.cachedLong(result[0]);
+			case NUMBER_DOUBLE:
+				return Double.longBitsToDouble(result[0]);
+			default:
+				break;
+		}
+		if (matches(data, start, end, "null"))
+			return null;
+		if (matches(data, start, end, "false"))
+			return Boolean.FALSE;
+		if (matches(data, start, end, "true"))
+			return Boolean.TRUE;
+		String token = new String(data, start, end - start, StandardCharsets.UTF_8);
+		for (int i = 0; i < token.length(); i++) {
+			switch (token.charAt(i)) {
+				case '0':
+				case '1':
+				case '2':
+				case '3':
+				case '4':
+				case '5':
+				case '6':
+				case '7':
+				case '8':
+				case '9':
+				case '-':
+				case '+':
+				case '.':
+				case 'E':
+				case 'e':
+					continue;
+				default:
+					throw new JSONException("Invalid token: " + token);
+			}
+		}
+		if (token.indexOf('.') >= 0 || token.indexOf('e') >= 0 || token.indexOf('E') >= 0)
+			return Double.valueOf(token);
+		return Long.valueOf(token);
+	}
+	
+	/**
+	 * Converts mantissa * 10^exp10 into the nearest double, rounding half to even. The mantissa is
+	 * treated as an unsigned value. Small values take Clinger's exact fast path, everything else
+	 * uses the Eisel-Lemire algorithm with a 128-bit power of five
+	 *
+	 * @param mantissa the decimal significand, unsigned
+	 * @param exp10    the power of ten to multiply by
+	 * @param negative TRUE if the result should be negative
+	 * @return the correctly rounded double, or NaN if the result cannot be determined without
+	 * arbitrary precision arithmetic
+	 */
+	static double decimalToDouble(long mantissa, int exp10, boolean negative) {
+		if (mantissa == 0 || exp10 < SMALLEST_POWER_OF_TEN)
+			return negative ? -0.0 : 0.0;
+		if (exp10 > LARGEST_POWER_OF_TEN)
+			return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		if (exp10 >= -22 && exp10 <= 22 && mantissa >= 0 && mantissa <= (1L << 53)) {
+			double d = mantissa;
+			d = (exp10 < 0) ? d / EXACT_POWERS_OF_TEN[-exp10] : d * EXACT_POWERS_OF_TEN[exp10];
+			return negative ? -d : d;
+		}
+		
+		int lz = Long.numberOfLeadingZeros(mantissa);
+		long w = mantissa << lz;
+		int index = 2 * (exp10 - SMALLEST_POWER_OF_TEN);
+		long high = multiplyHighUnsigned(w, POWERS_OF_FIVE[index]);
+		long low = w * POWERS_OF_FIVE[index];
+		if ((high & 0x1FF) == 0x1FF) { // the low bits might carry into the result
+			long secondHigh = multiplyHighUnsigned(w, POWERS_OF_FIVE[index + 1]);
+			low += secondHigh;
+			if (Long.compareUnsigned(low, secondHigh) < 0)
+				high++;
+			if (low == -1L && (exp10 < -27 || exp10 > 55))
+				return Double.NaN;
+		}
+		
+		int upperBit = (int) (high >>> 63);
+		long bits = high >>> (upperBit + 9);
+		int power2 = (((152170 + 65536) * exp10) >> 16) + 63 + upperBit - lz + 1023;
+		if (power2 <= 0) { // subnormal
+			if (-power2 + 1 >= 64)
+				return negative ? -0.0 : 0.0;
+			bits >>>= -power2 + 1;
+			bits += bits & 1;
+			bits >>>= 1;
+			power2 = (bits < (1L << 52)) ? 0 : 1;
+			return toDouble(bits, power2, negative);
+		}
+		if (Long.compareUnsigned(low, 1) <= 0 && exp10 >= -4 && exp10 <= 23 && (bits & 3) == 1) {
+			if ((bits << (upperBit + 9)) == high)
+				bits &= ~1L; // exactly halfway, round down to even
+		}
+		bits += bits & 1;
+		bits >>>= 1;
+		if (bits >= (2L << 52)) {
+			bits = 1L << 52;
+			power2++;
+		}
+		bits &= ~(1L << 52);
+		if (power2 >= 0x7FF)
+			return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		return toDouble(bits, power2, negative);
+	}
+	
+	private static boolean matches(byte [] data, int start, int end, String literal) {
+		if (end - start != literal.length())
+			return false;
+		for (int i = 0; i < literal.length(); i++) {
+			if (data[start + i] != literal.charAt(i))
+				return false;
+		}
+		return true;
+	}
+	
+	private static double toDouble(long bits, int power2, boolean negative) {
+		bits |= ((long) power2) << 52;
+		if (negative)
+			bits |= Long.MIN_VALUE;
+		return Double.longBitsToDouble(bits);
+	}
+	
+	/**
+	 * Returns the high 64 bits of the unsigned 128-bit product of x and y
+	 */
+	static long multiplyHighUnsigned(long x, long y) {
+		long x0 = x & 0xFFFFFFFFL;
+		long x1 = x >>> 32;
+		long y0 = y & 0xFFFFFFFFL;
+		long y1 = y >>> 32;
+		long p01 = x0 * y1;
+		long middle = x1 * y0 + ((x0 * y0) >>> 32) + (p01 & 0xFFFFFFFFL);
+		return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+	}
+	
+	/**
+	 * Writes the decimal digits of the specified value, returning the position after the last digit
+	 *
+	 * @param l   the value to write
+	 * @param buf the buffer to write into, with at least {@link #MAX_NUMBER_LENGTH} bytes remaining
+	 * @param pos the position to start writing at
+	 * @return the position after the last byte written
+	 */
+	static int writeLong(long l, byte [] buf, int pos) {
+		if (l < 0) {
+			if (l == Long.MIN_VALUE) {
+				System.arraycopy(LONG_MIN_VALUE, 0, buf, pos, LONG_MIN_VALUE.length);
+				return pos + LONG_MIN_VALUE.length;
+			}
+			buf[pos++] = '-';
+			l = -l;
+		}
+		int len = decimalLength(l);
+		writeDigits(l, buf, pos + len, len);
+		return pos + len;
+	}
+	
+	/**
+	 * Writes the shortest decimal that parses back to exactly the specified value, using the
+	 * Schubfach algorithm. The layout matches {@link Double#toString(double)}: plain notation from
+	 * 10^-3 up to 10^7 and computerized scientific notation otherwise, always with at least one digit
+	 * after the decimal point. NaN and infinite values are not supported
+	 *
+	 * @param d   the finite value to write
+	 * @param buf the buffer to write into, with at least {@link #MAX_NUMBER_LENGTH} bytes remaining
+	 * @param pos the position to start writing at
+	 * @return the position after the last byte written
+	 */
+	static int writeDouble(double d, byte [] buf, int pos) {
+		long bits = Double.doubleToRawLongBits(d);
+		if (bits < 0)
+			buf[pos++] = '-';
+		long t = bits & (C_MIN - 1);
+		int bq = (int) (bits >>> 52) & 0x7FF;
+		if (bq != 0) { // normal
+			int mq = -Q_MIN + 1 - bq;
+			long c = C_MIN | t;
+			if (0 < mq && mq < 53) { // integers need no search
+				long f = c >> mq;
+				if (f << mq == c)
+					return writeDecimal(f, 0, buf, pos);
+			}
+			return toDecimal(-mq, c, 0, buf, pos);
+		}
+		if (t != 0) // subnormal
+			return (t < C_TINY) ? toDecimal(Q_MIN, 10 * t, -1, buf, pos) : toDecimal(Q_MIN, t, 0, buf, pos);
+		buf[pos++] = '0';
+		buf[pos++] = '.';
+		buf[pos++] = '0';
+		return pos;
+	}
+	
+	/**
+	 * Finds the shortest decimal within the rounding interval of c * 2^q, choosing the closest one
+	 * if there are several
+	 */
+	private static int toDecimal(int q, long c, int dk, byte [] buf, int pos) {
+		int out = (int) c & 1;
+		long cb = c << 2;
+		long cbr = cb + 2;
+		long cbl;
+		int k;
+		if (c != C_MIN || q == Q_MIN) {
+			cbl = cb - 2;
+			k = flog10pow2(q);
+		} else { // the interval is asymmetric at a power of two
+			cbl = cb - 1;
+			k = flog10threeQuartersPow2(q);
+		}
+		int h = q + flog2pow10(-k) + 2;
+		int index = 2 * (k - K_MIN);
+		long g1 = SCHUBFACH_G[index];
+		long g0 = SCHUBFACH_G[index + 1];
+		long vb = roundOdd(g1, g0, cb << h);
+		long vbl = roundOdd(g1, g0, cbl << h);
+		long vbr = roundOdd(g1, g0, cbr << h);
+		long s = vb >> 2;
+		if (s >= 100) {
+			long sp10 = 10 * multiplyHighUnsigned(s, 115_292_150_460_684_698L << 4);
+			long tp10 = sp10 + 10;
+			boolean upin = vbl + out <= sp10 << 2;
+			boolean wpin = (tp10 << 2) + out <= vbr;
+			if (upin != wpin)
+				return writeDecimal(upin ? sp10 : tp10, k, buf, pos);
+		}
+		long t = s + 1;
+		boolean uin = vbl + out <= s << 2;
+		boolean win = (t << 2) + out <= vbr;
+		if (uin != win)
+			return writeDecimal(uin ? s : t, k + dk, buf, pos);
+		long cmp = vb - ((s + t) << 1);
+		return writeDecimal((cmp < 0 || (cmp == 0 && (s & 1) == 0)) ? s : t, k + dk, buf, pos);
+	}
+	
+	private static long roundOdd(long g1, long g0, long cp) {
+		long x1 = multiplyHighUnsigned(g0, cp);
+		long y0 = g1 * cp;
+		long y1 = multiplyHighUnsigned(g1, cp);
+		long z = (y0 >>> 1) + x1;
+		long vbp = y1 + (z >>> 63);
+		return vbp | (((z & MASK_63) + MASK_63) >>> 63);
+	}
+	
+	/**
+	 * Writes f * 10^e in the same layout as {@link Double#toString(double)}
+	 */
+	private static int writeDecimal(long f, int e, byte [] buf, int pos) {
+		while (f % 10 == 0) {
+			f /= 10;
+			e++;
+		}
+		int len = decimalLength(f);
+		int exp = e + len; // the value is 0.[digits] * 10^exp
+		if (0 < exp && exp <= 7) {
+			if (len <= exp) {
+				writeDigits(f, buf, pos + len, len);
+				pos += len;
+				for (int i = len; i < exp; i++)
+					buf[pos++] = '0';
+				buf[pos++] = '.';
+				buf[pos++] = '0';
+			} else {
+				long scale = LONG_POWERS_OF_TEN[len - exp];
+				writeDigits(f / scale, buf, pos + exp, exp);
+				pos += exp;
+				buf[pos++] = '.';
+				writeDigits(f % scale, buf, pos + len - exp, len - exp);
+				pos += len - exp;
+			}
+		} else if (-3 < exp && exp <= 0) {
+			buf[pos++] = '0';
+			buf[pos++] = '.';
+			for (int i = exp; i < 0; i++)
+				buf[pos++] = '0';
+			writeDigits(f, buf, pos + len, len);
+			pos += len;
+		} else {
+			long scale = LONG_POWERS_OF_TEN[len - 1];
+			buf[pos++] = (byte) ('0' + f / scale);
+			buf[pos++] = '.';
+			if (len == 1) {
+				buf[pos++] = '0';
+			} else {
+				writeDigits(f % scale, buf, pos + len - 1, len - 1);
+				pos += len - 1;
+			}
+			buf[pos++] = 'E';
+			exp--;
+			if (exp < 0) {
+				buf[pos++] = '-';
+				exp = -exp;
+			}
+			int expLength = (exp >= 100) ? 3 : (exp >= 10) ? 2 : 1;
+			writeDigits(exp, buf, pos + expLength, expLength);
+			pos += expLength;
+		}
+		return pos;
+	}
+	
+	/**
+	 * Writes exactly len digits of the non-negative value, ending just before the specified position
+	 */
+	private static void writeDigits(long l, byte [] buf, int end, int len) {
+		int start = end - len;
+		while (end > start) {
+			buf[--end] = (byte) ('0' + (l % 10));
+			l /= 10;
+		}
+	}
+	
+	private static int decimalLength(long l) {
+		long [] powers = LONG_POWERS_OF_TEN;
+		int len = 1;
+		while (len < powers.length && l >= powers[len])
+			len++;
+		return len;
+	}
+	
+	private static int flog10pow2(int e) {
+		return (int) (e * 661_971_961_083L >> 41);
+	}
+	
+	private static int flog10threeQuartersPow2(int e) {
+		return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+	}
+	
+	private static int flog2pow10(int e) {
+		return (int) (e * 913_124_641_741L >> 38);
+	}
+	
+}
@@ -25,7 +25,6 @@
  */
 package me.joshlarson.json;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.*;
 
@@ -47,6 +46,10 @@ public class JSONObject implements Map<String, Object> {
 		this.attributes = map;
 	}
 	
+	Map<String, Object> getBackingMap() {
+		return attributes;
+	}
+	
 	/**
 	 * Returns the number of key-value pairs in the map
 	 * 
@@ -162,7 +165,8 @@ public class JSONObject implements Map<String, Object> {
 	
 	/**
 	 * Gets the value from this object using a layered syntax. For example: "data.username" looks for the "data" Map, then gets the value for
-	 * the key "username". This is a recursive call, so it get at any depth.
+	 * the key "username". This is a recursive call, so it get at any depth. For a path that is looked
+	 * up repeatedly, {@link JSONPath} splits it only once
 	 *
 	 * @param key the layered key
 	 * @return the value at that location, or null if none exists
@@ -291,14 +295,17 @@ public class JSONObject implements Map<String, Object> {
 	 * @return a JSON string compatible with RFC 4627
 	 */
 	public String toString(boolean compact) {
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		try (JSONOutputStream stream = new JSONOutputStream(baos)) {
+		JSONPool.StringOutput out = JSONPool.acquireOutput();
+		try {
+			JSONOutputStream stream = out.getStream();
 			stream.setCompact(compact);
 			stream.writeObject(this);
+			return out.toUtf8String();
 		} catch (IOException e) {
 			return "Failed: " + e.getMessage();
+		} finally {
+			JSONPool.release(out);
 		}
-		return baos.toString();
 	}
 	
 }
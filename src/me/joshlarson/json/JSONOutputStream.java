@@ -40,7 +40,23 @@ import java.util.Set;
  */
 public class JSONOutputStream extends OutputStream {
 	
-	private final OutputStream os;
+	private static final int BUFFER_SIZE = 8 * 1024;
+	private static final byte [][] ESCAPES = new byte[128][];
+	
+	static {
+		for (int c = 0; c <= 0x1F; c++)
+			ESCAPES[c] = String.format("\\u%04X", c).getBytes(StandardCharsets.US_ASCII);
+		ESCAPES['\n'] = new byte[]{'\\', 'n'};
+		ESCAPES['\r'] = new byte[]{'\\', 'r'};
+		ESCAPES['\t'] = new byte[]{'\\', 't'};
+		ESCAPES['\b'] = new byte[]{'\\', 'b'};
+		ESCAPES['\"'] = new byte[]{'\\', '\"'};
+		ESCAPES['\\'] = new byte[]{'\\', '\\'};
+	}
+	
+	private OutputStream os;
+	private final byte[] buffer;
+	private int bufferPos;
 	private String indentation;
 	private boolean compact;
 	
@@ -50,7 +66,36 @@ public class JSONOutputStream extends OutputStream {
 	 * @param os the output stream to wrap
 	 */
 	public JSONOutputStream(OutputStream os) {
+		this(os, BUFFER_SIZE);
+	}
+	
+	/**
+	 * Wraps this JSON output stream around the specified output stream, which receives the output in
+	 * chunks of up to the specified size
+	 * 
+	 * @param os         the output stream to wrap
+	 * @param bufferSize the number of bytes buffered before they are written to the output stream
+	 */
+	public JSONOutputStream(OutputStream os, int bufferSize) {
+		if (bufferSize < JSONNumbers.MAX_NUMBER_LENGTH)
+			throw new IllegalArgumentException("bufferSize must be at least " + JSONNumbers.MAX_NUMBER_LENGTH + ": " + bufferSize);
 		this.os = os;
+		this.buffer = new byte[bufferSize];
+		this.bufferPos = 0;
+		this.indentation = "    ";
+		this.compact = false;
+	}
+	
+	/**
+	 * Points this stream at a new output stream, so the buffer of this stream can be reused for another
+	 * document. Anything still buffered for the previous output stream is discarded, the previous
+	 * output stream is not closed, and the indentation and compact mode go back to their defaults
+	 * 
+	 * @param os the output stream to wrap
+	 */
+	public void setOutput(OutputStream os) {
+		this.os = os;
+		this.bufferPos = 0;
 		this.indentation = "    ";
 		this.compact = false;
 	}
@@ -73,6 +118,15 @@ public class JSONOutputStream extends OutputStream {
 		this.compact = compact;
 	}
 	
+	/**
+	 * Returns whether or not the compact mode is enabled
+	 * 
+	 * @return TRUE if compact is enabled, FALSE otherwise
+	 */
+	public boolean isCompact() {
+		return compact;
+	}
+	
 	/**
 	 * Writes the specified Map to the output stream
 	 * 
@@ -81,6 +135,7 @@ public class JSONOutputStream extends OutputStream {
 	 */
 	public void writeObject(Map<String, Object> obj) throws IOException {
 		writeObject(obj, 0);
+		flushBuffer();
 	}
 	
 	/**
@@ -91,9 +146,15 @@ public class JSONOutputStream extends OutputStream {
 	 */
 	public void writeArray(List<Object> array) throws IOException {
 		writeArray(array, 0);
+		flushBuffer();
 	}
 	
 	private void writeObject(Map<String, Object> obj, int depth) throws IOException {
+		Map<String, Object> map = obj instanceof JSONObject ? ((JSONObject) obj).getBackingMap() : obj;
+		if (compact && map instanceof JSONLazyMap) {
+			((JSONLazyMap) map).writeCompact(this);
+			return;
+		}
 		write('{');
 		if (!compact)
 			write('\n');
@@ -103,7 +164,8 @@ public class JSONOutputStream extends OutputStream {
 			Objects.requireNonNull(key, "key");
 			if (!compact)
 				writeIndentation(depth + 1);
-			writeStringSafe("\"" + escapeString(key) + "\":");
+			writeQuoted(key);
+			write(':');
 			if (!compact)
 				write(' ');
 			writeValue(obj.get(key), depth + 1);
@@ -119,6 +181,11 @@ public class JSONOutputStream extends OutputStream {
 	}
 	
 	private void writeArray(List<Object> array, int depth) throws IOException {
+		List<Object> list = array instanceof JSONArray ? ((JSONArray) array).getBackingList() : array;
+		if (compact && list instanceof JSONLazyList) {
+			((JSONLazyList) list).writeCompact(this);
+			return;
+		}
 		write('[');
 		if (!compact)
 			write('\n');
@@ -138,9 +205,9 @@ public class JSONOutputStream extends OutputStream {
 	}
 	
 	@SuppressWarnings("unchecked")
-	private void writeValue(Object o, int depth) throws IOException {
+	void writeValue(Object o, int depth) throws IOException {
 		if (o instanceof String)					// String
-			writeStringSafe("\"" + escapeString((String) o) + "\"");
+			writeQuoted((String) o);
 		else if (o instanceof Number)				// Number
 			writeNumber((Number) o);
 		else if (o instanceof Boolean)				// Boolean
@@ -156,87 +223,178 @@ public class JSONOutputStream extends OutputStream {
 	}
 	
 	private void writeNumber(Number n) throws IOException {
-		if (n instanceof Double && (Double.isNaN((Double) n) || Double.isInfinite((Double) n))) {
-			write('0');
-			return;
+		if (n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte) {
+			writeLong(n.longValue());
+		} else if (n instanceof Double) {
+			writeDouble(n.doubleValue());
+		} else if (n instanceof Float) {
+			float f = n.floatValue();
+			if (Float.isNaN(f) || Float.isInfinite(f))
+				writeByte('0');
+			else
+				writeString(n.toString());
+		} else {
+			writeString(n.toString());
 		}
-		if (n instanceof Float && (Float.isNaN((Float) n) || Float.isInfinite((Float) n))) {
-			write('0');
+	}
+	
+	void writeLong(long l) throws IOException {
+		if (bufferPos + JSONNumbers.MAX_NUMBER_LENGTH > buffer.length)
+			flushBuffer();
+		bufferPos = JSONNumbers.writeLong(l, buffer, bufferPos);
+	}
+	
+	void writeDouble(double d) throws IOException {
+		if (Double.isNaN(d) || Double.isInfinite(d)) {
+			writeByte('0');
 			return;
 		}
-		writeString(n.toString());
+		if (bufferPos + JSONNumbers.MAX_NUMBER_LENGTH > buffer.length)
+			flushBuffer();
+		bufferPos = JSONNumbers.writeDouble(d, buffer, bufferPos);
 	}
 	
-	private void writeIndentation(int depth) throws IOException {
+	void writeIndentation(int depth) throws IOException {
 		for (int i = 0; i < depth; ++i)
 			writeString(indentation);
 	}
 	
-	private void writeString(String str) throws IOException {
+	void writeString(String str) throws IOException {
 		for (int i = 0; i < str.length(); ++i)
-			write(str.charAt(i));
+			writeChar(str.charAt(i));
 	}
 	
-	private void writeStringSafe(String str) throws IOException {
-		write(str.getBytes(StandardCharsets.UTF_8));
+	void writeQuoted(String str) throws IOException {
+		writeByte('\"');
+		byte [][] escapes = ESCAPES;
+		int len = str.length();
+		int i = 0;
+		int start;
+		char c;
+		while (i < len) {
+			start = i;
+			while (i < len && (c = str.charAt(i)) < 0x80 && escapes[c] == null)
+				i++;
+			if (start < i)
+				writeAscii(str, start, i);
+			if (i >= len)
+				break;
+			c = str.charAt(i++);
+			if (c < 0x80)
+				write(escapes[c]);
+			else if (Character.isHighSurrogate(c) && i < len && Character.isLowSurrogate(str.charAt(i)))
+				writeCodePoint(Character.toCodePoint(c, str.charAt(i++)));
+			else
+				writeChar(c);
+		}
+		writeByte('\"');
 	}
 	
-	private String escapeString(String str) {
-		StringBuilder builder = new StringBuilder(str.length());
-		char c;
-		for (int i = 0; i < str.length(); ++i) {
-			c = str.charAt(i);
-			if (c == '\\' || c == '\"') {
-				builder.append('\\');
-				builder.append(c);
-			} else if (c <= 0x1F) {
-				builder.append('\\');
-				switch (c) {
-					case '\n':
-						builder.append('n');
-						break;
-					case '\r':
-						builder.append('r');
-						break;
-					case '\t':
-						builder.append('t');
-						break;
-					case '\b':
-						builder.append('b');
-						break;
-					default:
-						builder.append(String.format("u%04X", (int) c));
-						break;
-				}
-			} else
-				builder.append(c);
+	/**
+	 * Copies a run of ASCII characters straight into the buffer
+	 */
+	@SuppressWarnings("deprecation") // String.getBytes(int, int, byte[], int) is exactly right for ASCII
+	private void writeAscii(String str, int start, int end) throws IOException {
+		int n;
+		while (start < end) {
+			if (bufferPos >= buffer.length)
+				flushBuffer();
+			n = Math.min(end - start, buffer.length - bufferPos);
+			str.getBytes(start, start + n, buffer, bufferPos);
+			bufferPos += n;
+			start += n;
+		}
+	}
+	
+	/**
+	 * Encodes a single UTF-16 char as UTF-8. Unpaired surrogates are written as '?', the same as
+	 * {@link String#getBytes(java.nio.charset.Charset)} does
+	 */
+	private void writeChar(char c) throws IOException {
+		if (bufferPos + 3 > buffer.length)
+			flushBuffer();
+		byte [] buf = buffer;
+		int pos = bufferPos;
+		if (c < 0x80) {
+			buf[pos++] = (byte) c;
+		} else if (c < 0x800) {
+			buf[pos++] = (byte) (0xC0 | (c >>> 6));
+			buf[pos++] = (byte) (0x80 | (c & 0x3F));
+		} else if (Character.isSurrogate(c)) {
+			buf[pos++] = '?';
+		} else {
+			buf[pos++] = (byte) (0xE0 | (c >>> 12));
+			buf[pos++] = (byte) (0x80 | ((c >>> 6) & 0x3F));
+			buf[pos++] = (byte) (0x80 | (c & 0x3F));
+		}
+		bufferPos = pos;
+	}
+	
+	private void writeCodePoint(int codePoint) throws IOException {
+		if (bufferPos + 4 > buffer.length)
+			flushBuffer();
+		byte [] buf = buffer;
+		int pos = bufferPos;
+		buf[pos++] = (byte) (0xF0 | (codePoint >>> 18));
+		buf[pos++] = (byte) (0x80 | ((codePoint >>> 12) & 0x3F));
+		buf[pos++] = (byte) (0x80 | ((codePoint >>> 6) & 0x3F));
+		buf[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+		bufferPos = pos;
+	}
+	
+	void writeByte(int b) throws IOException {
+		if (bufferPos >= buffer.length)
+			flushBuffer();
+		buffer[bufferPos++] = (byte) b;
+	}
+	
+	/**
+	 * Hands everything buffered so far to the wrapped stream, without flushing the wrapped stream
+	 * itself
+	 */
+	void flushBuffer() throws IOException {
+		if (bufferPos > 0) {
+			os.write(buffer, 0, bufferPos);
+			bufferPos = 0;
 		}
-		return builder.toString();
 	}
 	
 	@Override
 	public void write(int b) throws IOException {
-		os.write(b);
+		writeByte(b);
 	}
 	
 	@Override
 	public void write(byte[] b) throws IOException {
-		os.write(b);
+		write(b, 0, b.length);
 	}
 	
 	@Override
 	public void write(byte[] b, int off, int len) throws IOException {
-		os.write(b, off, len);
+		if (len >= buffer.length) {
+			flushBuffer();
+			os.write(b, off, len);
+			return;
+		}
+		if (bufferPos + len > buffer.length)
+			flushBuffer();
+		System.arraycopy(b, off, buffer, bufferPos, len);
+		bufferPos += len;
 	}
 	
 	@Override
 	public void flush() throws IOException {
+		flushBuffer();
 		os.flush();
 	}
 	
 	@Override
 	public void close() throws IOException {
-		os.close();
+		try {
+			flushBuffer();
+		} finally {
+			os.close();
+		}
 	}
 	
 }
@@ -0,0 +1,220 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * Reads a single large top-level array on several threads. A quick pre-scan finds the top-level
+ * commas of the array without building any values, and splits the array into one range of elements
+ * per task. The ranges are parsed on the executor, each by its own JSONInputStream, and then joined
+ * in order, so the result is the same as that of {@link JSONInputStream#readArray()}:
+ * <pre>
+ * List&lt;Object&gt; events = new JSONParallelParser().readArray(Paths.get("events.json"));
+ * </pre>
+ * Arrays smaller than the minimum range size are parsed on the calling thread. A parser holds no
+ * state of its own between calls, and can be shared between threads
+ *
+ * @author josh
+ */
+public class JSONParallelParser {
+	
+	public static final int DEFAULT_MIN_RANGE_SIZE = 256 * 1024;
+	private static final int FILE_BUFFER_SIZE = 64 * 1024;
+	
+	private final Executor executor;
+	private final int minRangeSize;
+	private final int parallelism;
+	private final Supplier<Map<String, Object>> objectSupplier;
+	private final Supplier<List<Object>> arraySupplier;
+	
+	/**
+	 * Creates a new parser that parses on the common ForkJoinPool
+	 */
+	public JSONParallelParser() {
+		this(ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates a new parser that parses on the specified executor
+	 *
+	 * @param executor the executor that parses each range of elements
+	 */
+	public JSONParallelParser(Executor executor) {
+		this(executor, DEFAULT_MIN_RANGE_SIZE);
+	}
+	
+	/**
+	 * Creates a new parser that parses on the specified executor
+	 *
+	 * @param executor     the executor that parses each range of elements
+	 * @param minRangeSize the minimum number of bytes in a range of elements
+	 */
+	public JSONParallelParser(Executor executor, int minRangeSize) {
+		this(executor, minRangeSize, LinkedHashMap::new, ArrayList::new);
+	}
+	
+	/**
+	 * Creates a new parser that parses on the specified executor
+	 *
+	 * @param executor       the executor that parses each range of elements
+	 * @param minRangeSize   the minimum number of bytes in a range of elements
+	 * @param objectSupplier a supplier for JSON object implementations
+	 * @param arraySupplier  a supplier for JSON array implementations
+	 */
+	public JSONParallelParser(Executor executor, int minRangeSize, Supplier<Map<String, Object>> objectSupplier, Supplier<List<Object>> arraySupplier) {
+		if (minRangeSize <= 0)
+			throw new IllegalArgumentException("Minimum range size must be positive: " + minRangeSize);
+		this.executor = executor;
+		this.minRangeSize = minRangeSize;
+		this.parallelism = JSONTasks.parallelism(executor);
+		this.objectSupplier = objectSupplier;
+		this.arraySupplier = arraySupplier;
+	}
+	
+	/**
+	 * Reads a List from the specified bytes, which are parsed in place
+	 *
+	 * @param data the UTF-8 encoded JSON
+	 * @return the read List, or null if there is only whitespace
+	 * @throws IOException   if the calling thread is interrupted
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public List<Object> readArray(byte [] data) throws IOException, JSONException {
+		return readArray(data, 0, data.length);
+	}
+	
+	/**
+	 * Reads a List from the specified range of bytes, which are parsed in place
+	 *
+	 * @param data   the UTF-8 encoded JSON
+	 * @param offset the index of the first byte
+	 * @param length the number of bytes
+	 * @return the read List, or null if there is only whitespace
+	 * @throws IOException   if the calling thread is interrupted
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public List<Object> readArray(byte [] data, int offset, int length) throws IOException, JSONException {
+		if (offset < 0 || length < 0 || length > data.length - offset)
+			throw new IndexOutOfBoundsException("offset=" + offset + " length=" + length + " size=" + data.length);
+		if (length < minRangeSize) {
+			try (JSONInputStream in = new JSONInputStream(data, offset, length, objectSupplier, arraySupplier)) {
+				return in.readArray();
+			}
+		}
+		JSONArraySplitter splitter = JSONArraySplitter.split(data, offset, length, JSONArraySplitter.rangeSize(length, minRangeSize, parallelism));
+		return readRanges(splitter, (start, end, last) -> () -> readRange(new JSONInputStream(data, (int) start, (int) (end - start), objectSupplier, arraySupplier), last));
+	}
+	
+	/**
+	 * Reads a List from the specified file. The pre-scan reads the file sequentially, and each range
+	 * is then read with its own positional reads, the same way as
+	 * {@link JSONInputStream#JSONInputStream(Path)}
+	 *
+	 * @param path the file containing the UTF-8 encoded JSON
+	 * @return the read List, or null if there is only whitespace
+	 * @throws IOException   if the file cannot be read, or the calling thread is interrupted
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public List<Object> readArray(Path path) throws IOException, JSONException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < minRangeSize) {
+				try (JSONInputStream in = new JSONInputStream(new FileChannelInputStream(channel, 0, size), FILE_BUFFER_SIZE, objectSupplier, arraySupplier)) {
+					return in.readArray();
+				}
+			}
+			JSONArraySplitter splitter = JSONArraySplitter.split(channel, size, JSONArraySplitter.rangeSize(size, minRangeSize, parallelism));
+			return readRanges(splitter, (start, end, last) -> () -> readRange(new JSONInputStream(new FileChannelInputStream(channel, start, end), FILE_BUFFER_SIZE, objectSupplier, arraySupplier), last));
+		}
+	}
+	
+	/**
+	 * Reads every element of a range, and closes the stream of the range
+	 */
+	private static List<Object> readRange(JSONInputStream in, boolean last) throws IOException, JSONException {
+		List<Object> elements = new ArrayList<>();
+		try {
+			boolean first = true;
+			while (in.readRangeElement(elements::add, first, last))
+				first = false;
+		} finally {
+			in.close();
+		}
+		return elements;
+	}
+	
+	/**
+	 * Parses every range but the first on the executor, and the first on the calling thread. If
+	 * anything fails, the ranges that are still pending are cancelled before the failure is thrown
+	 */
+	private List<Object> readRanges(JSONArraySplitter splitter, RangeParser parser) throws IOException, JSONException {
+		if (splitter.isEmpty())
+			return null;
+		splitter.checkComplete();
+		int count = splitter.getRangeCount();
+		List<FutureTask<List<Object>>> tasks = new ArrayList<>(count);
+		try {
+			for (int i = 0; i < count; i++) {
+				FutureTask<List<Object>> task = new FutureTask<>(parser.createTask(splitter.getRangeStart(i), splitter.getRangeEnd(i), i == count - 1));
+				tasks.add(task);
+				if (i > 0)
+					executor.execute(task);
+			}
+			tasks.get(0).run();
+			List<Object> array = arraySupplier.get();
+			for (FutureTask<List<Object>> task : tasks)
+				array.addAll(JSONTasks.join(task));
+			return array;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a range to be parsed");
+		} finally {
+			for (FutureTask<List<Object>> task : tasks)
+				task.cancel(false);
+		}
+	}
+	
+	private interface RangeParser {
+		
+		Callable<List<Object>> createTask(long start, long end, boolean last);
+		
+	}
+	
+}
@@ -0,0 +1,276 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A layered key that is split once, and can then be resolved against any number of documents
+ * without allocating. The syntax is the same as {@link JSONObject#getLayered(String)}, plus
+ * {@code [n]} after a name for an array index:
+ * <pre>
+ * JSONPath price = JSONPath.compile("order.items[0].price");
+ * double value = price.getDouble(document, 0);
+ * </pre>
+ * A value is missing if any level of the path is missing or is not an object or array as the path
+ * requires. A path is immutable, and can be shared between threads
+ *
+ * @author josh
+ */
+public final class JSONPath {
+	
+	private final String path;
+	private final String [] names; // null for an index
+	private final int [] indexes;
+	
+	private JSONPath(String path, String [] names, int [] indexes) {
+		this.path = path;
+		this.names = names;
+		this.indexes = indexes;
+	}
+	
+	/**
+	 * Splits the specified layered key, such as "data.username" or "items[0].price"
+	 *
+	 * @param path the layered key
+	 * @return the compiled path
+	 * @throws IllegalArgumentException if a name is empty or an index is malformed
+	 */
+	public static JSONPath compile(String path) {
+		List<String> names = new ArrayList<>();
+		List<Integer> indexes = new ArrayList<>();
+		int pos = 0;
+		int length = path.length();
+		while (true) {
+			int end = pos;
+			while (end < length && path.charAt(end) != '.' && path.charAt(end) != '[')
+				end++;
+			if (end == pos && (pos > 0 || end >= length || path.charAt(end) != '['))
+				throw new IllegalArgumentException("Empty name in path: " + path);
+			if (end > pos) {
+				names.add(path.substring(pos, end));
+				indexes.add(-1);
+			}
+			while (end < length && path.charAt(end) == '[') {
+				int close = path.indexOf(']', end);
+				if (close == -1 || close == end + 1 || close - end > 10)
+					throw new IllegalArgumentException("Invalid index in path: " + path);
+				int index = 0;
+				for (int i = end + 1; i < close; i++) {
+					char c = path.charAt(i);
+					if (c < '0' || c > '9')
+						throw new IllegalArgumentException("Invalid index in path: " + path);
+					index = index * 10 + (c - '0');
+				}
+				names.add(null);
+				indexes.add(index);
+				end = close + 1;
+			}
+			if (end >= length)
+				break;
+			if (path.charAt(end) != '.')
+				throw new IllegalArgumentException("Expected '.' or '[' in path: " + path);
+			pos = end + 1;
+		}
+		int [] indexArray = new int[indexes.size()];
+		for (int i = 0; i < indexArray.length; i++)
+			indexArray[i] = indexes.get(i);
+		return new JSONPath(path, names.toArray(new String[0]), indexArray);
+	}
+	
+	/**
+	 * Gets the value at this path
+	 *
+	 * @param root the Map or List to start from
+	 * @return the value at this path, or null if it is missing
+	 */
+	public Object get(Object root) {
+		String [] names = this.names;
+		int [] indexes = this.indexes;
+		Object value = root;
+		for (int i = 0; i < names.length; i++) {
+			String name = names[i];
+			if (name != null) {
+				if (!(value instanceof Map))
+					return null;
+				value = ((Map<?, ?>) value).get(name);
+			} else {
+				if (!(value instanceof List))
+					return null;
+				List<?> list = (List<?>) value;
+				int index = indexes[i];
+				if (index >= list.size())
+					return null;
+				value = list.get(index);
+			}
+		}
+		return value;
+	}
+	
+	/**
+	 * Gets the value at this path. The value is casted to a Map internally
+	 *
+	 * @param root the Map or List to start from
+	 * @return the Map at this path, or null if it is missing
+	 * @throws ClassCastException if the object is not a Map
+	 */
+	@SuppressWarnings("unchecked") // caller's responsibility
+	public Map<String, Object> getObject(Object root) {
+		return (Map<String, Object>) get(root);
+	}
+	
+	/**
+	 * Gets the value at this path. The value is casted to a List internally
+	 *
+	 * @param root the Map or List to start from
+	 * @return the List at this path, or null if it is missing
+	 * @throws ClassCastException if the object is not a List
+	 */
+	@SuppressWarnings("unchecked") // caller's responsibility
+	public List<Object> getArray(Object root) {
+		return (List<Object>) get(root);
+	}
+	
+	/**
+	 * Gets the value at this path. The value is casted to a String internally
+	 *
+	 * @param root the Map or List to start from
+	 * @return the String at this path, or null if it is missing
+	 * @throws ClassCastException if the object is not a String
+	 */
+	public String getString(Object root) {
+		return (String) get(root);
+	}
+	
+	/**
+	 * Gets the value at this path. The value is casted to a int internally
+	 *
+	 * @param root the Map or List to start from
+	 * @return the int at this path
+	 * @throws NullPointerException if the value is missing or null
+	 */
+	public int getInt(Object root) {
+		return ((Number) get(root)).intValue();
+	}
+	
+	/**
+	 * Gets the value at this path. The value is casted to a long internally
+	 *
+	 * @param root the Map or List to start from
+	 * @return the long at this path
+	 * @throws NullPointerException if the value is missing or null
+	 */
+	public long getLong(Object root) {
+		return ((Number) get(root)).longValue();
+	}
+	
+	/**
+	 * Gets the value at this path. The value is casted to a long internally
+	 *
+	 * @param root         the Map or List to start from
+	 * @param defaultValue the value to return if the value is missing or not a number
+	 * @return the long at this path, or the default value
+	 */
+	public long getLong(Object root, long defaultValue) {
+		Object value = get(root);
+		return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+	}
+	
+	/**
+	 * Gets the value at this path. The value is casted to a double internally
+	 *
+	 * @param root the Map or List to start from
+	 * @return the double at this path
+	 * @throws NullPointerException if the value is missing or null
+	 */
+	public double getDouble(Object root) {
+		return ((Number) get(root)).doubleValue();
+	}
+	
+	/**
+	 * Gets the value at this path. The value is casted to a double internally
+	 *
+	 * @param root         the Map or List to start from
+	 * @param defaultValue the value to return if the value is missing or not a number
+	 * @return the double at this path, or the default value
+	 */
+	public double getDouble(Object root, double defaultValue) {
+		Object value = get(root);
+		return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+	}
+	
+	/**
+	 * Gets the value at this path. The value is casted to a boolean internally
+	 *
+	 * @param root the Map or List to start from
+	 * @return the boolean at this path
+	 * @throws NullPointerException if the value is missing or null
+	 * @throws ClassCastException if the object is not a boolean
+	 */
+	public boolean getBoolean(Object root) {
+		return (boolean) get(root);
+	}
+	
+	/**
+	 * Puts the value at this path, the same way as {@link JSONObject#putLayered(String, Object)}.
+	 * Missing objects along the path are created, while arrays must already be large enough
+	 *
+	 * @param root  the Map or List to start from
+	 * @param value the value to put
+	 * @return the previous value at this path, or null if none existed
+	 * @throws ClassCastException        if a level of the path is not an object or array as required
+	 * @throws IndexOutOfBoundsException if an index is beyond the end of its array
+	 */
+	@SuppressWarnings("unchecked") // caller's responsibility
+	public Object put(Object root, Object value) {
+		String [] names = this.names;
+		int last = names.length - 1;
+		Object parent = root;
+		for (int i = 0; i < last; i++) {
+			String name = names[i];
+			if (name != null) {
+				Map<String, Object> map = (Map<String, Object>) parent;
+				parent = map.get(name);
+				if (parent == null && names[i + 1] != null)
+					map.put(name, parent = new HashMap<>());
+			} else {
+				parent = ((List<Object>) parent).get(indexes[i]);
+			}
+		}
+		if (names[last] != null)
+			return ((Map<String, Object>) parent).put(names[last], value);
+		return ((List<Object>) parent).set(indexes[last], value);
+	}
+	
+	@Override
+	public String toString() {
+		return path;
+	}
+	
+}
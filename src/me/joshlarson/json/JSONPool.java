@@ -0,0 +1,135 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A small, bounded pool of parser and writer instances that is shared by every thread. Instances are
+ * taken and returned with a single compare-and-set, so the pool never blocks and works the same for
+ * platform and virtual threads, unlike a ThreadLocal that would create one instance per virtual
+ * thread. If the pool is empty a new instance is created, and if it is full a returned instance is
+ * simply left to the garbage collector
+ *
+ * @author josh
+ */
+final class JSONPool<T> {
+	
+	private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+	private static final int OUTPUT_INITIAL_SIZE = 1024;
+	private static final int OUTPUT_RETAINED_SIZE = 64 * 1024;
+	
+	private static final JSONPool<JSONInputStream> INPUTS = new JSONPool<>();
+	private static final JSONPool<StringOutput> OUTPUTS = new JSONPool<>();
+	
+	private final AtomicReferenceArray<T> slots;
+	
+	private JSONPool() {
+		this.slots = new AtomicReferenceArray<>(POOL_SIZE);
+	}
+	
+	/**
+	 * Returns a JSONInputStream with the default buffer size and suppliers that is not pointed at any
+	 * source yet. Closing it closes its current source and returns it to the pool
+	 */
+	static JSONInputStream acquireInput() {
+		JSONInputStream in = INPUTS.poll();
+		return in != null ? in : JSONInputStream.createPooled();
+	}
+	
+	static void release(JSONInputStream in) {
+		in.trim();
+		INPUTS.offer(in);
+	}
+	
+	/**
+	 * Returns an empty byte array output stream with a JSONOutputStream in its default mode writing to
+	 * it
+	 */
+	static StringOutput acquireOutput() {
+		StringOutput out = OUTPUTS.poll();
+		return out != null ? out : new StringOutput();
+	}
+	
+	static void release(StringOutput out) {
+		out.trim();
+		OUTPUTS.offer(out);
+	}
+	
+	private T poll() {
+		AtomicReferenceArray<T> slots = this.slots;
+		for (int i = 0; i < POOL_SIZE; i++) {
+			T item = slots.get(i);
+			if (item != null && slots.compareAndSet(i, item, null))
+				return item;
+		}
+		return null;
+	}
+	
+	private void offer(T item) {
+		AtomicReferenceArray<T> slots = this.slots;
+		for (int i = 0; i < POOL_SIZE; i++) {
+			if (slots.get(i) == null && slots.compareAndSet(i, null, item))
+				return;
+		}
+	}
+	
+	/**
+	 * Collects the output of a JSONOutputStream for toString(), and decodes it without copying the
+	 * bytes out first
+	 */
+	static final class StringOutput extends ByteArrayOutputStream {
+		
+		private final JSONOutputStream stream;
+		
+		private StringOutput() {
+			super(OUTPUT_INITIAL_SIZE);
+			this.stream = new JSONOutputStream(this);
+		}
+		
+		JSONOutputStream getStream() {
+			return stream;
+		}
+		
+		String toUtf8String() {
+			return new String(buf, 0, count, StandardCharsets.UTF_8);
+		}
+		
+		/**
+		 * Empties this output and shrinks it back to its initial size if a large document has grown it
+		 */
+		private void trim() {
+			reset();
+			stream.setOutput(this);
+			if (buf.length > OUTPUT_RETAINED_SIZE)
+				buf = new byte[OUTPUT_INITIAL_SIZE];
+		}
+		
+	}
+	
+}
@@ -0,0 +1,208 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A set of paths to read from a document, where everything else is skipped without being decoded or
+ * allocated. Paths use the same dotted syntax as {@link JSONObject#getLayered(String)}, and
+ * {@code [*]} after a name selects every element of that array:
+ * <pre>
+ * JSONProjection projection = new JSONProjection("id", "user.name", "items[*].price", "[*].id");
+ * Map&lt;String, Object&gt; event = in.readObject(projection);
+ * </pre>
+ * A path that starts with {@code [*]} applies to the elements of a top-level array. The requested
+ * values keep their place in the tree, so "user.name" is read as {@code {"user": {"name": ...}}}, and
+ * a path that ends on an object or array reads the whole of it. Values that do not have the
+ * requested structure, such as "user.name" when "user" is a string, are left out. A projection is
+ * immutable, and can be shared between threads
+ *
+ * @author josh
+ */
+public final class JSONProjection {
+	
+	private final Node root;
+	
+	/**
+	 * Compiles the specified paths
+	 *
+	 * @param paths the dotted paths to read
+	 * @throws IllegalArgumentException if a path is empty or malformed
+	 */
+	public JSONProjection(String ... paths) {
+		this(Arrays.asList(paths));
+	}
+	
+	/**
+	 * Compiles the specified paths
+	 *
+	 * @param paths the dotted paths to read
+	 * @throws IllegalArgumentException if a path is empty or malformed
+	 */
+	public JSONProjection(Collection<String> paths) {
+		Builder root = new Builder();
+		for (String path : paths)
+			root.add(path);
+		this.root = root.build();
+	}
+	
+	Node getRoot() {
+		return root;
+	}
+	
+	/**
+	 * A compiled level of the paths. A node either reads all of a value, or reads the named members
+	 * of an object and/or the elements of an array through further nodes
+	 */
+	static final class Node {
+		
+		static final Node NONE = new Node(false, new String[0], new Node[0], null);
+		static final Node ALL = new Node(true, new String[0], new Node[0], null);
+		
+		private final boolean all;
+		private final String [] names;
+		private final byte [][] nameBytes;
+		private final Node [] children;
+		private final Node elements;
+		
+		private Node(boolean all, String [] names, Node [] children, Node elements) {
+			this.all = all;
+			this.names = names;
+			this.nameBytes = new byte[names.length][];
+			for (int i = 0; i < names.length; i++)
+				nameBytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+			this.children = children;
+			this.elements = elements;
+		}
+		
+		boolean isAll() {
+			return all;
+		}
+		
+		boolean hasMembers() {
+			return names.length > 0;
+		}
+		
+		String getName(int member) {
+			return names[member];
+		}
+		
+		Node getChild(int member) {
+			return children[member];
+		}
+		
+		/**
+		 * Returns the node for every element of an array, or null if arrays are not read
+		 */
+		Node getElements() {
+			return elements;
+		}
+		
+		/**
+		 * Returns the member whose name is the UTF-8 bytes between start and end, or -1
+		 */
+		int findMember(byte [] data, int start, int end) {
+			int length = end - start;
+			byte [][] nameBytes = this.nameBytes;
+			for (int i = 0; i < nameBytes.length; i++) {
+				byte [] name = nameBytes[i];
+				if (name.length != length)
+					continue;
+				int j = 0;
+				while (j < length && name[j] == data[start + j])
+					j++;
+				if (j == length)
+					return i;
+			}
+			return -1;
+		}
+		
+		/**
+		 * Returns the member with the specified name, or -1
+		 */
+		int findMember(String name) {
+			String [] names = this.names;
+			for (int i = 0; i < names.length; i++) {
+				if (names[i].equals(name))
+					return i;
+			}
+			return -1;
+		}
+		
+	}
+	
+	private static final class Builder {
+		
+		private boolean all = false;
+		private final Map<String, Builder> members = new LinkedHashMap<>();
+		private Builder elements = null;
+		
+		void add(String path) {
+			if (path.isEmpty())
+				throw new IllegalArgumentException("Empty path");
+			Builder node = this;
+			int pos = 0;
+			while (true) {
+				int end = pos;
+				while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[')
+					end++;
+				if (end > pos)
+					node = node.members.computeIfAbsent(path.substring(pos, end), name -> new Builder());
+				else if (pos > 0 || end >= path.length() || path.charAt(end) != '[')
+					throw new IllegalArgumentException("Empty name in path: " + path);
+				while (path.startsWith("[*]", end)) {
+					if (node.elements == null)
+						node.elements = new Builder();
+					node = node.elements;
+					end += 3;
+				}
+				if (end >= path.length())
+					break;
+				if (path.charAt(end) != '.')
+					throw new IllegalArgumentException("Only [*] is supported within brackets: " + path);
+				pos = end + 1;
+			}
+			node.all = true;
+		}
+		
+		Node build() {
+			if (all)
+				return Node.ALL;
+			String [] names = members.keySet().toArray(new String[0]);
+			Node [] children = new Node[names.length];
+			for (int i = 0; i < names.length; i++)
+				children[i] = members.get(names[i]).build();
+			return new Node(false, names, children, elements == null ? null : elements.build());
+		}
+		
+	}
+	
+}
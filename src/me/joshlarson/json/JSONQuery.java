@@ -0,0 +1,682 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+
+/**
+ * A path query that is compiled once and then evaluated while a document is being read, so matches
+ * are found in a single pass without building the rest of the tree. Both JSON Pointer and a subset of
+ * JSONPath are supported:
+ * <ul>
+ *     <li>{@code /items/0/price} is a JSON Pointer, where each token is a key or an array index</li>
+ *     <li>{@code $.items[*].price} selects a member, every member or element with {@code *}, and an
+ *     index or quoted key within brackets</li>
+ *     <li>{@code $..price} searches every descendant</li>
+ *     <li>{@code $.items[?(@.type == 'x')]} selects the members or elements for which a relative path
+ *     compares to a string, number, true, false or null with ==, !=, &lt;, &lt;=, &gt; or &gt;=, or simply
+ *     exists with {@code [?(@.type)]}</li>
+ * </ul>
+ * The steps of the query are the states of an automaton. While reading, each value carries the set
+ * of states that are still active, and a value that no state applies to is skipped without being
+ * decoded. Matches are built and handed to the callback as soon as they have been read, in document
+ * order. Filters need the whole of each candidate to decide, so each candidate is built in turn,
+ * which keeps memory bounded by the largest candidate rather than the document. A query is
+ * immutable, and can be shared between threads
+ *
+ * @author josh
+ */
+public final class JSONQuery {
+	
+	private static final int MAX_STEPS = 63;
+	
+	private final String expression;
+	private final Step [] steps;
+	private final long accept;
+	
+	private JSONQuery(String expression, Step [] steps) {
+		this.expression = expression;
+		this.steps = steps;
+		this.accept = 1L << steps.length;
+	}
+	
+	/**
+	 * Compiles the specified JSON Pointer or JSONPath expression
+	 *
+	 * @param expression the query, such as "$.items[*].price" or "/items/0/price"
+	 * @return the compiled query
+	 * @throws IllegalArgumentException if the expression is malformed
+	 */
+	public static JSONQuery compile(String expression) {
+		List<Step> steps = expression.isEmpty() || expression.charAt(0) == '/' ? new PointerCompiler(expression).compile() : new PathCompiler(expression).compile();
+		if (steps.size() > MAX_STEPS)
+			throw new IllegalArgumentException("More than " + MAX_STEPS + " steps in " + expression);
+		return new JSONQuery(expression, steps.toArray(new Step[0]));
+	}
+	
+	/**
+	 * Reads the next value of the stream, and hands every match within it to the callback as soon as
+	 * it has been read. The value may be of any kind, not just an object or array
+	 *
+	 * @param in       the stream to read from
+	 * @param callback the callback that is given each match
+	 * @return TRUE if a value was read, FALSE if it's the end of the stream
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public boolean evaluate(JSONInputStream in, Consumer<Object> callback) throws IOException, JSONException {
+		char c;
+		try {
+			c = in.ingestWhitespace();
+		} catch (EOFException e) {
+			return false;
+		}
+		visit(in, c, 1L, callback);
+		return true;
+	}
+	
+	/**
+	 * Hands every match within a value that has already been read to the callback, in document order
+	 *
+	 * @param value    a Map, List or scalar value
+	 * @param callback the callback that is given each match
+	 */
+	public void evaluate(Object value, Consumer<Object> callback) {
+		evaluate(value, 1L, callback);
+	}
+	
+	/**
+	 * Returns every match within a value that has already been read, in document order
+	 *
+	 * @param value a Map, List or scalar value
+	 * @return a list of every match
+	 */
+	public List<Object> select(Object value) {
+		List<Object> matches = new ArrayList<>();
+		evaluate(value, matches::add);
+		return matches;
+	}
+	
+	@Override
+	public String toString() {
+		return expression;
+	}
+	
+	/**
+	 * Reads the value that starts with the specified, already consumed, character, where the states
+	 * are the steps to apply to its children. A match is built whole, along with anything below it
+	 */
+	private void visit(JSONInputStream in, char c, long states, Consumer<Object> callback) throws IOException, JSONException {
+		if ((states & accept) != 0) {
+			evaluate(in.getNextInternal(c), states, callback);
+		} else if (c == '{') {
+			visitObject(in, states, callback);
+		} else if (c == '[') {
+			visitArray(in, states, callback);
+		} else {
+			in.skipValue(c);
+		}
+	}
+	
+	private void visitObject(JSONInputStream in, long states, Consumer<Object> callback) throws IOException, JSONException {
+		boolean needsKey = needsKey(states);
+		char c;
+		do {
+			c = in.ingestWhitespace();
+			if (c != '\"') {
+				if (c == '}')
+					break;
+				throw new JSONException("Keys must start with \"!");
+			}
+			if (needsKey)
+				in.readKey();
+			else
+				in.skipString();
+			long children = 0;
+			long filters = 0;
+			for (long remaining = states; remaining != 0; remaining &= remaining - 1) {
+				int state = Long.numberOfTrailingZeros(remaining);
+				Step step = steps[state];
+				if (step.descendant)
+					children |= 1L << state;
+				if (step.kind == Step.FILTER)
+					filters |= 1L << state;
+				else if (step.matchesMember(in))
+					children |= 2L << state;
+			}
+			if (in.ingestWhitespace() != ':')
+				throw new JSONException("Attributes must be key-value pairs separated by ':'");
+			visitChild(in, in.ingestWhitespace(), children, filters, callback);
+		} while (in.ingestSeparator('}'));
+	}
+	
+	private void visitArray(JSONInputStream in, long states, Consumer<Object> callback) throws IOException, JSONException {
+		char c;
+		int index = 0;
+		do {
+			c = in.ingestWhitespace();
+			if (c == ']')
+				break;
+			long children = 0;
+			long filters = 0;
+			for (long remaining = states; remaining != 0; remaining &= remaining - 1) {
+				int state = Long.numberOfTrailingZeros(remaining);
+				Step step = steps[state];
+				if (step.descendant)
+					children |= 1L << state;
+				if (step.kind == Step.FILTER)
+					filters |= 1L << state;
+				else if (step.matchesIndex(index))
+					children |= 2L << state;
+			}
+			visitChild(in, c, children, filters, callback);
+			index++;
+		} while (in.ingestSeparator(']'));
+	}
+	
+	/**
+	 * Reads a member or element. A candidate for a filter is built first, so that the filter can be
+	 * tested against it, and anything that no state applies to is skipped
+	 */
+	private void visitChild(JSONInputStream in, char c, long children, long filters, Consumer<Object> callback) throws IOException, JSONException {
+		if (filters != 0) {
+			Object value = in.getNextInternal(c);
+			evaluate(value, children | passFilters(value, filters), callback);
+		} else if (children != 0) {
+			visit(in, c, children, callback);
+		} else {
+			in.skipValue(c);
+		}
+	}
+	
+	/**
+	 * The same as {@link #visit(JSONInputStream, char, long, Consumer)}, for a value that has already
+	 * been built
+	 */
+	private void evaluate(Object value, long states, Consumer<Object> callback) {
+		if ((states & accept) != 0)
+			callback.accept(value);
+		states &= ~accept;
+		if (states == 0)
+			return;
+		if (value instanceof Map) {
+			for (Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+				Object key = e.getKey();
+				Object child = e.getValue();
+				long children = 0;
+				for (long remaining = states; remaining != 0; remaining &= remaining - 1) {
+					int state = Long.numberOfTrailingZeros(remaining);
+					Step step = steps[state];
+					if (step.descendant)
+						children |= 1L << state;
+					if (step.kind == Step.FILTER ? step.filter.test(child) : step.matchesMember(key))
+						children |= 2L << state;
+				}
+				if (children != 0)
+					evaluate(child, children, callback);
+			}
+		} else if (value instanceof List) {
+			int index = 0;
+			for (Object child : (List<?>) value) {
+				long children = 0;
+				for (long remaining = states; remaining != 0; remaining &= remaining - 1) {
+					int state = Long.numberOfTrailingZeros(remaining);
+					Step step = steps[state];
+					if (step.descendant)
+						children |= 1L << state;
+					if (step.kind == Step.FILTER ? step.filter.test(child) : step.matchesIndex(index))
+						children |= 2L << state;
+				}
+				if (children != 0)
+					evaluate(child, children, callback);
+				index++;
+			}
+		}
+	}
+	
+	private long passFilters(Object value, long filters) {
+		long passed = 0;
+		for (long remaining = filters; remaining != 0; remaining &= remaining - 1) {
+			int state = Long.numberOfTrailingZeros(remaining);
+			if (steps[state].filter.test(value))
+				passed |= 2L << state;
+		}
+		return passed;
+	}
+	
+	/**
+	 * Returns TRUE if any of the states compares keys, which are otherwise skipped
+	 */
+	private boolean needsKey(long states) {
+		for (long remaining = states; remaining != 0; remaining &= remaining - 1) {
+			Step step = steps[Long.numberOfTrailingZeros(remaining)];
+			if (step.kind == Step.MEMBER || step.kind == Step.POINTER)
+				return true;
+		}
+		return false;
+	}
+	
+	private static final class Step {
+		
+		static final int MEMBER = 0;
+		static final int INDEX = 1;
+		static final int WILDCARD = 2;
+		static final int FILTER = 3;
+		static final int POINTER = 4; // a JSON Pointer token, which is a key or an array index
+		
+		final int kind;
+		final boolean descendant;
+		final String name;
+		final int index;
+		final Filter filter;
+		
+		Step(int kind, boolean descendant, String name, int index, Filter filter) {
+			this.kind = kind;
+			this.descendant = descendant;
+			this.name = name;
+			this.index = index;
+			this.filter = filter;
+		}
+		
+		/**
+		 * Compares against the key in the string buffer of the stream
+		 */
+		boolean matchesMember(JSONInputStream in) {
+			switch (kind) {
+				case MEMBER:
+				case POINTER:
+					return in.stringEquals(name);
+				case WILDCARD:
+					return true;
+				default:
+					return false;
+			}
+		}
+		
+		boolean matchesMember(Object key) {
+			switch (kind) {
+				case MEMBER:
+				case POINTER:
+					return name.equals(key);
+				case WILDCARD:
+					return true;
+				default:
+					return false;
+			}
+		}
+		
+		boolean matchesIndex(int i) {
+			switch (kind) {
+				case INDEX:
+				case POINTER:
+					return index == i;
+				case WILDCARD:
+					return true;
+				default:
+					return false;
+			}
+		}
+		
+	}
+	
+	/**
+	 * A relative path from the candidate, and optionally a comparison with a literal
+	 */
+	private static final class Filter {
+		
+		static final int EXISTS = 0;
+		static final int EQUAL = 1;
+		static final int NOT_EQUAL = 2;
+		static final int LESS = 3;
+		static final int LESS_EQUAL = 4;
+		static final int GREATER = 5;
+		static final int GREATER_EQUAL = 6;
+		
+		private static final Object MISSING = new Object();
+		
+		private final Object [] path; // String keys and Integer indexes
+		private final int operator;
+		private final Object literal;
+		
+		Filter(Object [] path, int operator, Object literal) {
+			this.path = path;
+			this.operator = operator;
+			this.literal = literal;
+		}
+		
+		boolean test(Object candidate) {
+			Object value = resolve(candidate);
+			if (value == MISSING)
+				return false;
+			switch (operator) {
+				case EXISTS:
+					return true;
+				case EQUAL:
+					return compare(value) == 0;
+				case NOT_EQUAL:
+					return compare(value) != 0;
+				case LESS:
+					return ordered(value) && compare(value) < 0;
+				case LESS_EQUAL:
+					return ordered(value) && compare(value) <= 0;
+				case GREATER:
+					return ordered(value) && compare(value) > 0;
+				case GREATER_EQUAL:
+					return ordered(value) && compare(value) >= 0;
+				default:
+					return false;
+			}
+		}
+		
+		private Object resolve(Object value) {
+			for (Object segment : path) {
+				if (segment instanceof String && value instanceof Map) {
+					Map<?, ?> map = (Map<?, ?>) value;
+					if (!map.containsKey(segment))
+						return MISSING;
+					value = map.get(segment);
+				} else if (segment instanceof Integer && value instanceof List) {
+					List<?> list = (List<?>) value;
+					int index = (Integer) segment;
+					if (index >= list.size())
+						return MISSING;
+					value = list.get(index);
+				} else {
+					return MISSING;
+				}
+			}
+			return value;
+		}
+		
+		/**
+		 * Returns TRUE if the value and the literal are both numbers or both strings
+		 */
+		private boolean ordered(Object value) {
+			return (value instanceof Number && literal instanceof Number) || (value instanceof String && literal instanceof String);
+		}
+		
+		/**
+		 * Compares the value with the literal, where values of different kinds are never equal
+		 */
+		private int compare(Object value) {
+			if (value instanceof Number && literal instanceof Number) {
+				if (value instanceof Long && literal instanceof Long)
+					return Long.compare((Long) value, (Long) literal);
+				return Double.compare(((Number) value).doubleValue(), ((Number) literal).doubleValue());
+			}
+			if (value instanceof String && literal instanceof String)
+				return ((String) value).compareTo((String) literal);
+			if (value == null ? literal == null : value.equals(literal))
+				return 0;
+			return 1;
+		}
+		
+	}
+	
+	/**
+	 * Compiles a JSON Pointer (RFC 6901), where "~1" and "~0" stand for '/' and '~'
+	 */
+	private static final class PointerCompiler {
+		
+		private final String expression;
+		
+		PointerCompiler(String expression) {
+			this.expression = expression;
+		}
+		
+		List<Step> compile() {
+			List<Step> steps = new ArrayList<>();
+			if (expression.isEmpty())
+				return steps;
+			for (String token : expression.substring(1).split("/", -1)) {
+				if (token.matches(".*~[^01].*|.*~$"))
+					throw new IllegalArgumentException("Invalid escape in JSON Pointer: " + expression);
+				token = token.replace("~1", "/").replace("~0", "~");
+				steps.add(new Step(Step.POINTER, false, token, parseIndex(token), null));
+			}
+			return steps;
+		}
+		
+		/**
+		 * Returns the array index that a token stands for, or -1 if it can only be a key
+		 */
+		private static int parseIndex(String token) {
+			if (token.isEmpty() || token.length() > 9 || (token.length() > 1 && token.charAt(0) == '0'))
+				return -1;
+			for (int i = 0; i < token.length(); i++) {
+				if (token.charAt(i) < '0' || token.charAt(i) > '9')
+					return -1;
+			}
+			return Integer.parseInt(token);
+		}
+		
+	}
+	
+	/**
+	 * Compiles the supported subset of JSONPath with a recursive descent over the expression
+	 */
+	private static final class PathCompiler {
+		
+		private final String expression;
+		private int pos;
+		
+		PathCompiler(String expression) {
+			this.expression = expression;
+			this.pos = 0;
+		}
+		
+		List<Step> compile() {
+			List<Step> steps = new ArrayList<>();
+			if (peek() == '$')
+				pos++;
+			else if (peek() != '.' && peek() != '[')
+				steps.add(new Step(Step.MEMBER, false, readName(), -1, null)); // "a.b" without the "$."
+			while (pos < expression.length()) {
+				if (expression.startsWith("..", pos)) {
+					pos += 2;
+					if (peek() == '[') {
+						pos++;
+						steps.add(readBracketed(true));
+					} else {
+						steps.add(readDotted(true));
+					}
+				} else if (peek() == '.') {
+					pos++;
+					steps.add(readDotted(false));
+				} else if (peek() == '[') {
+					pos++;
+					steps.add(readBracketed(false));
+				} else {
+					throw error("Expected '.' or '['");
+				}
+			}
+			return steps;
+		}
+		
+		private Step readDotted(boolean descendant) {
+			if (peek() == '*') {
+				pos++;
+				return new Step(Step.WILDCARD, descendant, null, -1, null);
+			}
+			return new Step(Step.MEMBER, descendant, readName(), -1, null);
+		}
+		
+		/**
+		 * Reads the contents of brackets, whose opening bracket has already been consumed
+		 */
+		private Step readBracketed(boolean descendant) {
+			Step step;
+			skipSpaces();
+			char c = peek();
+			if (c == '*') {
+				pos++;
+				step = new Step(Step.WILDCARD, descendant, null, -1, null);
+			} else if (c == '\'' || c == '\"') {
+				step = new Step(Step.MEMBER, descendant, readQuoted(), -1, null);
+			} else if (c == '?') {
+				pos++;
+				expect('(');
+				step = new Step(Step.FILTER, descendant, null, -1, readFilter());
+				expect(')');
+			} else if (c >= '0' && c <= '9') {
+				step = new Step(Step.INDEX, descendant, null, readIndex(), null);
+			} else {
+				throw error("Expected '*', an index, a quoted key or a filter");
+			}
+			skipSpaces();
+			expect(']');
+			return step;
+		}
+		
+		private Filter readFilter() {
+			skipSpaces();
+			expect('@');
+			List<Object> path = new ArrayList<>();
+			while (true) {
+				if (peek() == '.') {
+					pos++;
+					path.add(readName());
+				} else if (peek() == '[') {
+					pos++;
+					skipSpaces();
+					path.add(peek() == '\'' || peek() == '\"' ? readQuoted() : (Object) readIndex());
+					skipSpaces();
+					expect(']');
+				} else {
+					break;
+				}
+			}
+			skipSpaces();
+			int operator;
+			if (expression.startsWith("==", pos)) {
+				operator = Filter.EQUAL;
+			} else if (expression.startsWith("!=", pos)) {
+				operator = Filter.NOT_EQUAL;
+			} else if (expression.startsWith("<=", pos)) {
+				operator = Filter.LESS_EQUAL;
+			} else if (expression.startsWith(">=", pos)) {
+				operator = Filter.GREATER_EQUAL;
+			} else if (peek() == '<') {
+				operator = Filter.LESS;
+			} else if (peek() == '>') {
+				operator = Filter.GREATER;
+			} else {
+				return new Filter(path.toArray(), Filter.EXISTS, null);
+			}
+			pos += operator == Filter.LESS || operator == Filter.GREATER ? 1 : 2;
+			skipSpaces();
+			Object literal = readLiteral();
+			skipSpaces();
+			return new Filter(path.toArray(), operator, literal);
+		}
+		
+		private Object readLiteral() {
+			char c = peek();
+			if (c == '\'' || c == '\"')
+				return readQuoted();
+			int start = pos;
+			while (pos < expression.length() && ")] \t".indexOf(expression.charAt(pos)) == -1)
+				pos++;
+			String token = expression.substring(start, pos);
+			switch (token) {
+				case "true":
+					return Boolean.TRUE;
+				case "false":
+					return Boolean.FALSE;
+				case "null":
+					return null;
+			}
+			try {
+				if (token.indexOf('.') == -1 && token.indexOf('e') == -1 && token.indexOf('E') == -1)
+					return Long.valueOf(token);
+				return Double.valueOf(token);
+			} catch (NumberFormatException e) {
+				pos = start;
+				throw error("Expected a string, number, true, false or null");
+			}
+		}
+		
+		private String readName() {
+			int start = pos;
+			while (pos < expression.length() && ".[]()=!<> \t".indexOf(expression.charAt(pos)) == -1)
+				pos++;
+			if (pos == start)
+				throw error("Expected a name");
+			return expression.substring(start, pos);
+		}
+		
+		private String readQuoted() {
+			char quote = expression.charAt(pos++);
+			StringBuilder str = new StringBuilder();
+			while (true) {
+				if (pos >= expression.length())
+					throw error("Unterminated string");
+				char c = expression.charAt(pos++);
+				if (c == quote)
+					return str.toString();
+				if (c == '\\' && pos < expression.length())
+					c = expression.charAt(pos++);
+				str.append(c);
+			}
+		}
+		
+		private int readIndex() {
+			int start = pos;
+			while (pos < expression.length() && Character.isDigit(expression.charAt(pos)))
+				pos++;
+			if (pos == start || pos - start > 9)
+				throw error("Expected an index");
+			return Integer.parseInt(expression.substring(start, pos));
+		}
+		
+		private void skipSpaces() {
+			while (pos < expression.length() && (expression.charAt(pos) == ' ' || expression.charAt(pos) == '\t'))
+				pos++;
+		}
+		
+		private void expect(char c) {
+			if (peek() != c)
+				throw error("Expected '" + c + "'");
+			pos++;
+		}
+		
+		private char peek() {
+			return pos < expression.length() ? expression.charAt(pos) : 0;
+		}
+		
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " at index " + pos + " of " + expression);
+		}
+		
+	}
+	
+}
@@ -0,0 +1,535 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reads a JSON document one token at a time, using the same buffer and scanner as
+ * {@link JSONInputStream}. Only the token currently being read is held in memory, so arbitrarily
+ * large inputs can be walked in constant memory. Subtrees can still be materialized on demand with
+ * {@link #nextValue()}.
+ * <p>
+ * Multiple top-level values may follow one another in the input.
+ *
+ * @author josh
+ */
+public class JSONReader implements Closeable {
+	
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_OBJECT = 2;
+	private static final int NONEMPTY_OBJECT = 3;
+	private static final int DANGLING_NAME = 4;
+	private static final int EMPTY_ARRAY = 5;
+	private static final int NONEMPTY_ARRAY = 6;
+	
+	private final JSONInputStream in;
+	private int [] stack;
+	private int stackSize;
+	private JSONToken peeked;
+	private char peekedChar;
+	private Object value;
+	
+	/**
+	 * Creates a new reader around the specified string
+	 *
+	 * @param str a RFC 4627 JSON string
+	 */
+	public JSONReader(String str) {
+		this(new JSONInputStream(str));
+	}
+	
+	/**
+	 * Creates a new reader around the specified input stream
+	 *
+	 * @param is the input stream pointing to the RFC 4627 JSON string
+	 */
+	public JSONReader(InputStream is) {
+		this(new JSONInputStream(is));
+	}
+	
+	/**
+	 * Creates a new reader that reads the specified file, the same way as
+	 * {@link JSONInputStream#JSONInputStream(Path)}
+	 *
+	 * @param path the file containing the RFC 4627 JSON string
+	 * @throws IOException if the file cannot be opened
+	 */
+	public JSONReader(Path path) throws IOException {
+		this(new JSONInputStream(path));
+	}
+	
+	/**
+	 * Creates a new reader around the specified JSON input stream. Values materialized through
+	 * {@link #nextValue()} use the object and array suppliers of that stream
+	 *
+	 * @param in the JSON input stream to read from
+	 */
+	public JSONReader(JSONInputStream in) {
+		this.in = in;
+		this.stack = new int[32];
+		this.stackSize = 1;
+		this.stack[0] = EMPTY_DOCUMENT;
+		this.peeked = null;
+		this.value = null;
+	}
+	
+	/**
+	 * Returns the kind of the next token without consuming it
+	 *
+	 * @return the next token
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public JSONToken peek() throws IOException, JSONException {
+		if (peeked != null)
+			return peeked;
+		char c;
+		switch (stack[stackSize - 1]) {
+			case EMPTY_DOCUMENT:
+			case NONEMPTY_DOCUMENT:
+				try {
+					c = in.ingestWhitespace();
+				} catch (EOFException e) {
+					return peeked = JSONToken.END_DOCUMENT;
+				}
+				stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+				return peekValue(c);
+			case EMPTY_ARRAY:
+				c = in.ingestWhitespace();
+				if (c == ']')
+					return peeked = JSONToken.END_ARRAY;
+				stack[stackSize - 1] = NONEMPTY_ARRAY;
+				return peekValue(c);
+			case NONEMPTY_ARRAY:
+				c = in.ingestWhitespace();
+				if (c == ']')
+					return peeked = JSONToken.END_ARRAY;
+				if (c != ',')
+					throw new JSONException("Expected ',' or ']' after value!");
+				return peekValue(in.ingestWhitespace());
+			case EMPTY_OBJECT:
+				c = in.ingestWhitespace();
+				if (c == '}')
+					return peeked = JSONToken.END_OBJECT;
+				return peekName(c);
+			case NONEMPTY_OBJECT:
+				c = in.ingestWhitespace();
+				if (c == '}')
+					return peeked = JSONToken.END_OBJECT;
+				if (c != ',')
+					throw new JSONException("Expected ',' or '}' after value!");
+				return peekName(in.ingestWhitespace());
+			case DANGLING_NAME:
+				if (in.ingestWhitespace() != ':')
+					throw new JSONException("Attributes must be key-value pairs separated by ':'");
+				stack[stackSize - 1] = NONEMPTY_OBJECT;
+				return peekValue(in.ingestWhitespace());
+			default:
+				throw new IllegalStateException("peek()");
+		}
+	}
+	
+	/**
+	 * Consumes the next token and returns its kind. For names and scalar values, the decoded value is
+	 * available afterwards through {@link #getValue()}
+	 *
+	 * @return the token that was consumed
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public JSONToken nextToken() throws IOException, JSONException {
+		JSONToken token = peek();
+		value = null;
+		switch (token) {
+			case BEGIN_OBJECT:
+				beginObject();
+				break;
+			case END_OBJECT:
+				endObject();
+				break;
+			case BEGIN_ARRAY:
+				beginArray();
+				break;
+			case END_ARRAY:
+				endArray();
+				break;
+			case NAME:
+				value = nextName();
+				break;
+			case STRING:
+				value = nextString();
+				break;
+			case NUMBER:
+			case BOOLEAN:
+			case NULL:
+				peeked = null;
+				value = in.getNextTokenOther(peekedChar);
+				break;
+			case END_DOCUMENT:
+				break;
+		}
+		return token;
+	}
+	
+	/**
+	 * Returns the decoded value of the name or scalar most recently consumed by {@link #nextToken()}:
+	 * a String, Long, Double, Boolean or null
+	 *
+	 * @return the value of the last token
+	 */
+	public Object getValue() {
+		return value;
+	}
+	
+	/**
+	 * Returns the number of objects and arrays that are currently open
+	 *
+	 * @return the current nesting depth
+	 */
+	public int getDepth() {
+		return stackSize - 1;
+	}
+	
+	/**
+	 * Returns whether or not the current object or array has another element
+	 *
+	 * @return TRUE if there is another element, FALSE if the next token ends the object/array/input
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error
+	 */
+	public boolean hasNext() throws IOException, JSONException {
+		JSONToken token = peek();
+		return token != JSONToken.END_OBJECT && token != JSONToken.END_ARRAY && token != JSONToken.END_DOCUMENT;
+	}
+	
+	/**
+	 * Consumes the opening '{' of an object
+	 *
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if the next token is not the start of an object
+	 */
+	public void beginObject() throws IOException, JSONException {
+		expect(JSONToken.BEGIN_OBJECT);
+		push(EMPTY_OBJECT);
+	}
+	
+	/**
+	 * Consumes the closing '}' of an object
+	 *
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if the next token is not the end of an object
+	 */
+	public void endObject() throws IOException, JSONException {
+		expect(JSONToken.END_OBJECT);
+		stackSize--;
+	}
+	
+	/**
+	 * Consumes the opening '[' of an array
+	 *
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if the next token is not the start of an array
+	 */
+	public void beginArray() throws IOException, JSONException {
+		expect(JSONToken.BEGIN_ARRAY);
+		push(EMPTY_ARRAY);
+	}
+	
+	/**
+	 * Consumes the closing ']' of an array
+	 *
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if the next token is not the end of an array
+	 */
+	public void endArray() throws IOException, JSONException {
+		expect(JSONToken.END_ARRAY);
+		stackSize--;
+	}
+	
+	/**
+	 * Consumes the name of the next attribute in the current object
+	 *
+	 * @return the attribute name
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if the next token is not a name
+	 */
+	public String nextName() throws IOException, JSONException {
+		expect(JSONToken.NAME);
+		stack[stackSize - 1] = DANGLING_NAME;
+		return in.getNextTokenString();
+	}
+	
+	/**
+	 * Consumes the next value as a string
+	 *
+	 * @return the string value
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if the next token is not a string
+	 */
+	public String nextString() throws IOException, JSONException {
+		expect(JSONToken.STRING);
+		return in.getNextTokenString();
+	}
+	
+	/**
+	 * Consumes the next value as a long. Decimal values are accepted if they have no fractional part
+	 *
+	 * @return the integer value
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if the next token is not an integer
+	 */
+	public long nextLong() throws IOException, JSONException {
+		expect(JSONToken.NUMBER);
+		switch (in.getNextTokenNumber(peekedChar)) {
+			case JSONInputStream.TOKEN_LONG:
+				return in.getTokenLong();
+			case JSONInputStream.TOKEN_DOUBLE:
+				return toLong(in.getTokenDouble());
+			default:
+				Number n = parseNumber();
+				if (n instanceof Long)
+					return n.longValue();
+				return toLong(n.doubleValue());
+		}
+	}
+	
+	/**
+	 * Consumes the next value as a double
+	 *
+	 * @return the decimal value
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if the next token is not a number
+	 */
+	public double nextDouble() throws IOException, JSONException {
+		expect(JSONToken.NUMBER);
+		switch (in.getNextTokenNumber(peekedChar)) {
+			case JSONInputStream.TOKEN_LONG:
+				return in.getTokenLong();
+			case JSONInputStream.TOKEN_DOUBLE:
+				return in.getTokenDouble();
+			default:
+				return parseNumber().doubleValue();
+		}
+	}
+	
+	/**
+	 * Consumes the next value as a boolean
+	 *
+	 * @return the boolean value
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if the next token is not a boolean
+	 */
+	public boolean nextBoolean() throws IOException, JSONException {
+		expect(JSONToken.BOOLEAN);
+		Object o = in.getNextTokenOther(peekedChar);
+		if (!(o instanceof Boolean))
+			throw new JSONException("Expected a boolean but was " + o);
+		return (Boolean) o;
+	}
+	
+	/**
+	 * Consumes the next value, which must be null
+	 *
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if the next token is not null
+	 */
+	public void nextNull() throws IOException, JSONException {
+		expect(JSONToken.NULL);
+		Object o = in.getNextTokenOther(peekedChar);
+		if (o != null)
+			throw new JSONException("Expected null but was " + o);
+	}
+	
+	/**
+	 * Consumes the next value and everything nested within it, and returns it as a Map, List, String,
+	 * Long, Double, Boolean or null
+	 *
+	 * @return the value
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error, or the next token is not a value
+	 */
+	public Object nextValue() throws IOException, JSONException {
+		switch (peek()) {
+			case BEGIN_OBJECT:
+			case BEGIN_ARRAY:
+			case STRING:
+			case NUMBER:
+			case BOOLEAN:
+			case NULL:
+				peeked = null;
+				return in.getNextInternal(peekedChar);
+			default:
+				throw new JSONException("Expected a value but was " + peeked);
+		}
+	}
+	
+	/**
+	 * Skips the next value, including everything nested within it, without decoding or allocating
+	 * anything. If the next token is a name, both the name and its value are skipped
+	 *
+	 * @throws IOException   if there is an exception within the input stream
+	 * @throws JSONException if there is a JSON parsing error, or the next token is not a value
+	 */
+	public void skipValue() throws IOException, JSONException {
+		switch (peek()) {
+			case NAME:
+				peeked = null;
+				stack[stackSize - 1] = DANGLING_NAME;
+				in.skipString();
+				skipValue();
+				break;
+			case BEGIN_OBJECT:
+			case BEGIN_ARRAY:
+			case STRING:
+			case NUMBER:
+			case BOOLEAN:
+			case NULL:
+				peeked = null;
+				in.skipValue(peekedChar);
+				break;
+			default:
+				throw new JSONException("Expected a value but was " + peeked);
+		}
+	}
+	
+	/**
+	 * Points this reader at a new input stream and starts a new document, so the buffers of this
+	 * reader can be reused. The previous source is not closed
+	 *
+	 * @param is the input stream pointing to the RFC 4627 JSON string
+	 */
+	public void setInput(InputStream is) {
+		in.setInput(is);
+		resetState();
+	}
+	
+	/**
+	 * Points this reader at the specified UTF-8 bytes, which are parsed in place, and starts a new
+	 * document. The previous source is not closed
+	 *
+	 * @param data the RFC 4627 JSON string
+	 */
+	public void setInput(byte [] data) {
+		in.setInput(data);
+		resetState();
+	}
+	
+	/**
+	 * Points this reader at the specified characters and starts a new document. The previous source
+	 * is not closed
+	 *
+	 * @param str a RFC 4627 JSON string
+	 */
+	public void setInput(CharSequence str) {
+		in.setInput(str);
+		resetState();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+	
+	private static long toLong(double d) throws JSONException {
+		long l = (long) d;
+		if (l != d)
+			throw new JSONException("Expected an integer but was " + d);
+		return l;
+	}
+	
+	private Number parseNumber() throws JSONException {
+		Object o = in.parseToken();
+		if (!(o instanceof Number))
+			throw new JSONException("Expected a number but was " + o);
+		return (Number) o;
+	}
+	
+	private void expect(JSONToken token) throws IOException, JSONException {
+		JSONToken actual = peek();
+		if (actual != token)
+			throw new JSONException("Expected " + token + " but was " + actual);
+		peeked = null;
+	}
+	
+	private void resetState() {
+		stackSize = 1;
+		stack[0] = EMPTY_DOCUMENT;
+		peeked = null;
+		value = null;
+	}
+	
+	private void push(int state) {
+		if (stackSize == stack.length)
+			stack = Arrays.copyOf(stack, stackSize * 2);
+		stack[stackSize++] = state;
+	}
+	
+	private JSONToken peekName(char c) throws JSONException {
+		if (c != '\"')
+			throw new JSONException("Keys must start with \"!");
+		return peeked = JSONToken.NAME;
+	}
+	
+	private JSONToken peekValue(char c) throws JSONException {
+		peekedChar = c;
+		switch (c) {
+			case '{':
+				return peeked = JSONToken.BEGIN_OBJECT;
+			case '[':
+				return peeked = JSONToken.BEGIN_ARRAY;
+			case '\"':
+				return peeked = JSONToken.STRING;
+			case 't':
+			case 'f':
+				return peeked = JSONToken.BOOLEAN;
+			case 'n':
+				return peeked = JSONToken.NULL;
+			case '-':
+			case '+':
+			case '0':
+			case '1':
+			case '2':
+			case '3':
+			case '4':
+			case '5':
+			case '6':
+			case '7':
+			case '8':
+			case '9':
+				return peeked = JSONToken.NUMBER;
+			default:
+				throw new JSONException("Unexpected character: " + c);
+		}
+	}
+	
+}
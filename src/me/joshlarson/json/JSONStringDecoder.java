@@ -0,0 +1,249 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.util.Arrays;
+
+/**
+ * The string buffer of a parser, along with the escape and UTF-8 decoding that fills it. Multi-byte
+ * UTF-8 sequences are decoded one byte at a time through {@link #startUtf8(int)} and
+ * {@link #continueUtf8(int)}, so a parser that runs out of input in the middle of a sequence can
+ * carry on with the next chunk. Code points outside the BMP become a surrogate pair, and malformed
+ * sequences become U+FFFD without consuming the offending byte
+ *
+ * @author josh
+ */
+final class JSONStringDecoder {
+	
+	private final int initialCapacity;
+	private char [] chars;
+	private int length;
+	private int codePoint;
+	private int codePointMin;
+	private int remaining;
+	
+	JSONStringDecoder(int initialCapacity) {
+		this.initialCapacity = initialCapacity;
+		this.chars = new char[initialCapacity];
+		this.length = 0;
+		this.remaining = 0;
+	}
+	
+	void clear() {
+		length = 0;
+	}
+	
+	/**
+	 * Shrinks the buffer back to its initial capacity if a long string has grown it
+	 */
+	void trim() {
+		if (chars.length > initialCapacity)
+			chars = new char[initialCapacity];
+		length = 0;
+	}
+	
+	int length() {
+		return length;
+	}
+	
+	void append(char c) {
+		int len = length;
+		if (len >= chars.length)
+			grow(len + 1);
+		chars[len] = c;
+		length = len + 1;
+	}
+	
+	/**
+	 * Appends the plain ASCII bytes between start and end
+	 */
+	void appendAscii(byte [] data, int start, int end) {
+		int len = length;
+		if (len + end - start > chars.length)
+			grow(len + end - start);
+		char [] str = chars;
+		while (start < end)
+			str[len++] = (char) data[start++];
+		length = len;
+	}
+	
+	/**
+	 * Appends the character of the escape sequence that ends with the specified byte, which follows a
+	 * backslash. Returns FALSE for a unicode escape, whose four hex digits are left to the caller
+	 */
+	boolean appendEscape(int c) {
+		switch (c) {
+			case 'n':
+				append('\n');
+				return true;
+			case 'r':
+				append('\r');
+				return true;
+			case 't':
+				append('\t');
+				return true;
+			case 'b':
+				append('\b');
+				return true;
+			case 'u':
+				return false;
+			default:
+				append((char) c);
+				return true;
+		}
+	}
+	
+	/**
+	 * Starts a multi-byte UTF-8 sequence with the specified lead byte, and returns the number of
+	 * continuation bytes that have to follow. An invalid lead byte appends U+FFFD and returns 0
+	 */
+	int startUtf8(int lead) {
+		if (lead >= 0xC2 && lead < 0xE0) {
+			remaining = 1;
+			codePoint = lead & 0x1F;
+			codePointMin = 0x80;
+		} else if (lead >= 0xE0 && lead < 0xF0) {
+			remaining = 2;
+			codePoint = lead & 0x0F;
+			codePointMin = 0x800;
+		} else if (lead >= 0xF0 && lead <= 0xF4) {
+			remaining = 3;
+			codePoint = lead & 0x07;
+			codePointMin = 0x10000;
+		} else {
+			append('\uFFFD');
+			return 0;
+		}
+		return remaining;
+	}
+	
+	/**
+	 * Consumes the next byte of the current UTF-8 sequence, and returns the number of continuation
+	 * bytes that still have to follow. The character is appended once the sequence is complete. If
+	 * the byte is not a continuation byte, U+FFFD is appended and -1 is returned, and the byte should
+	 * be decoded again as the start of the next character
+	 */
+	int continueUtf8(int b) {
+		if ((b & 0xC0) != 0x80) {
+			remaining = 0;
+			append('\uFFFD');
+			return -1;
+		}
+		codePoint = (codePoint << 6) | (b & 0x3F);
+		if (--remaining == 0)
+			appendCodePoint(codePoint);
+		return remaining;
+	}
+	
+	/**
+	 * Decodes the two and three byte UTF-8 sequences from pos, which covers most non-Latin text
+	 * without going back through the caller's ASCII loop for every character. Stops before end, at
+	 * the first ASCII byte, or at anything that needs {@link #startUtf8(int)}, and returns the
+	 * position it stopped at
+	 */
+	int appendUtf8Run(byte [] data, int pos, int end) {
+		int c, decoded;
+		int limit = end - 2;
+		char [] str = chars;
+		int len = length;
+		int max = str.length - 1;
+		while (pos < limit && len < max) {
+			c = data[pos] & 0xFF;
+			if (c >= 0xC2 && c < 0xE0) {
+				if ((data[pos + 1] & 0xC0) != 0x80)
+					break;
+				str[len++] = (char) (((c & 0x1F) << 6) | (data[pos + 1] & 0x3F));
+				pos += 2;
+			} else if (c >= 0xE0 && c < 0xF0) {
+				if ((data[pos + 1] & 0xC0) != 0x80 || (data[pos + 2] & 0xC0) != 0x80)
+					break;
+				decoded = ((c & 0x0F) << 12) | ((data[pos + 1] & 0x3F) << 6) | (data[pos + 2] & 0x3F);
+				if (decoded < 0x800 || (decoded >= Character.MIN_SURROGATE && decoded <= Character.MAX_SURROGATE))
+					break;
+				str[len++] = (char) decoded;
+				pos += 3;
+			} else {
+				break;
+			}
+		}
+		length = len;
+		return pos;
+	}
+	
+	/**
+	 * Returns TRUE if the buffer holds exactly the specified string
+	 */
+	boolean contentEquals(String str) {
+		int len = str.length();
+		if (len != length)
+			return false;
+		char [] chars = this.chars;
+		for (int i = 0; i < len; ++i) {
+			if (chars[i] != str.charAt(i))
+				return false;
+		}
+		return true;
+	}
+	
+	@Override
+	public String toString() {
+		return new String(chars, 0, length);
+	}
+	
+	/**
+	 * Converts a hex digit of a unicode escape
+	 *
+	 * @throws NumberFormatException if it is not a hex digit
+	 */
+	static int hex(int c) {
+		if (c >= '0' && c <= '9')
+			return c - '0';
+		else if (c >= 'a' && c <= 'f')
+			return c - 'a' + 10;
+		else if (c >= 'A' && c <= 'F')
+			return c - 'A' + 10;
+		throw new NumberFormatException();
+	}
+	
+	private void appendCodePoint(int codePoint) {
+		if (codePoint < codePointMin || codePoint > Character.MAX_CODE_POINT || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+			append('\uFFFD');
+		} else if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+			append(Character.highSurrogate(codePoint));
+			append(Character.lowSurrogate(codePoint));
+		} else {
+			append((char) codePoint);
+		}
+	}
+	
+	private void grow(int minimum) {
+		int max = chars.length;
+		while (max < minimum)
+			max *= 2;
+		chars = Arrays.copyOf(chars, max);
+	}
+	
+}
@@ -0,0 +1,56 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+/**
+ * The kinds of tokens returned by {@link JSONReader} and {@link JSONFeedParser}
+ *
+ * @author josh
+ */
+public enum JSONToken {
+	/** The opening '{' of an object */
+	BEGIN_OBJECT,
+	/** The closing '}' of an object */
+	END_OBJECT,
+	/** The opening '[' of an array */
+	BEGIN_ARRAY,
+	/** The closing ']' of an array */
+	END_ARRAY,
+	/** The name of an attribute within an object */
+	NAME,
+	/** A string value */
+	STRING,
+	/** An integer or decimal value */
+	NUMBER,
+	/** A true or false value */
+	BOOLEAN,
+	/** A null value */
+	NULL,
+	/** The end of the input */
+	END_DOCUMENT,
+	/** More input has to be fed to a {@link JSONFeedParser} before the next token is known */
+	NOT_AVAILABLE
+}
@@ -0,0 +1,334 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a JSON document one token at a time, without building a Map or List first. The output is
+ * identical to what {@link JSONOutputStream} produces for the equivalent tree, in both compact and
+ * indented mode, and only a constant amount of memory is used regardless of the document size.
+ * <p>
+ * Multiple top-level values may be written one after another, and are separated by a newline.
+ *
+ * @author josh
+ */
+public class JSONWriter implements Closeable, Flushable {
+	
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_OBJECT = 2;
+	private static final int NONEMPTY_OBJECT = 3;
+	private static final int DANGLING_NAME = 4;
+	private static final int EMPTY_ARRAY = 5;
+	private static final int NONEMPTY_ARRAY = 6;
+	
+	private final JSONOutputStream out;
+	private int [] stack;
+	private int stackSize;
+	
+	/**
+	 * Creates a new writer around the specified output stream
+	 *
+	 * @param os the output stream to write to
+	 */
+	public JSONWriter(OutputStream os) {
+		this(new JSONOutputStream(os));
+	}
+	
+	/**
+	 * Creates a new writer around the specified JSON output stream, using its compact and indentation
+	 * settings
+	 *
+	 * @param out the JSON output stream to write to
+	 */
+	public JSONWriter(JSONOutputStream out) {
+		this.out = out;
+		this.stack = new int[32];
+		this.stackSize = 1;
+		this.stack[0] = EMPTY_DOCUMENT;
+	}
+	
+	/**
+	 * Sets the indentation for each additional tab. This is not used if compact is set to true
+	 *
+	 * @param indentation the indentation for each tab
+	 */
+	public void setIndentation(String indentation) {
+		out.setIndentation(indentation);
+	}
+	
+	/**
+	 * Sets the mode to compact. If TRUE, there is no indentation or newlines
+	 *
+	 * @param compact TRUE to enable compact, FALSE otherwise
+	 */
+	public void setCompact(boolean compact) {
+		out.setCompact(compact);
+	}
+	
+	/**
+	 * Begins a new object. Must be followed by name/value pairs and {@link #endObject()}
+	 *
+	 * @throws IOException if there is an I/O error
+	 */
+	public void beginObject() throws IOException {
+		beforeValue();
+		open(EMPTY_OBJECT, '{');
+	}
+	
+	/**
+	 * Ends the current object
+	 *
+	 * @throws IOException if there is an I/O error
+	 */
+	public void endObject() throws IOException {
+		close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+	}
+	
+	/**
+	 * Begins a new array. Must be followed by values and {@link #endArray()}
+	 *
+	 * @throws IOException if there is an I/O error
+	 */
+	public void beginArray() throws IOException {
+		beforeValue();
+		open(EMPTY_ARRAY, '[');
+	}
+	
+	/**
+	 * Ends the current array
+	 *
+	 * @throws IOException if there is an I/O error
+	 */
+	public void endArray() throws IOException {
+		close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+	}
+	
+	/**
+	 * Writes the name of the next attribute in the current object. Must be followed by exactly one
+	 * value
+	 *
+	 * @param name the attribute name
+	 * @throws IOException if there is an I/O error
+	 */
+	public void name(String name) throws IOException {
+		if (name == null)
+			throw new NullPointerException("name");
+		int state = stack[stackSize - 1];
+		if (state != EMPTY_OBJECT && state != NONEMPTY_OBJECT)
+			throw new IllegalStateException("Names can only be written inside an object");
+		boolean compact = out.isCompact();
+		if (state == NONEMPTY_OBJECT) {
+			out.writeByte(',');
+			if (!compact)
+				out.writeByte('\n');
+		}
+		if (!compact)
+			out.writeIndentation(stackSize - 1);
+		out.writeQuoted(name);
+		out.writeByte(':');
+		if (!compact)
+			out.writeByte(' ');
+		stack[stackSize - 1] = DANGLING_NAME;
+	}
+	
+	/**
+	 * Writes a string value, or null if the string is null
+	 *
+	 * @param value the string to write
+	 * @throws IOException if there is an I/O error
+	 */
+	public void value(String value) throws IOException {
+		beforeValue();
+		if (value == null)
+			out.writeString("null");
+		else
+			out.writeQuoted(value);
+		afterValue();
+	}
+	
+	/**
+	 * Writes an integer value
+	 *
+	 * @param value the integer to write
+	 * @throws IOException if there is an I/O error
+	 */
+	public void value(long value) throws IOException {
+		beforeValue();
+		out.writeLong(value);
+		afterValue();
+	}
+	
+	/**
+	 * Writes a decimal value. NaN and infinite values are written as 0, the same as
+	 * {@link JSONOutputStream}
+	 *
+	 * @param value the decimal to write
+	 * @throws IOException if there is an I/O error
+	 */
+	public void value(double value) throws IOException {
+		beforeValue();
+		out.writeDouble(value);
+		afterValue();
+	}
+	
+	/**
+	 * Writes a boolean value
+	 *
+	 * @param value the boolean to write
+	 * @throws IOException if there is an I/O error
+	 */
+	public void value(boolean value) throws IOException {
+		beforeValue();
+		out.writeString(value ? "true" : "false");
+		afterValue();
+	}
+	
+	/**
+	 * Writes an entire Map as the next value
+	 *
+	 * @param value the Map to write
+	 * @throws IOException if there is an I/O error
+	 */
+	public void value(Map<String, Object> value) throws IOException {
+		beforeValue();
+		out.writeValue(value, stackSize - 1);
+		afterValue();
+	}
+	
+	/**
+	 * Writes an entire List as the next value
+	 *
+	 * @param value the List to write
+	 * @throws IOException if there is an I/O error
+	 */
+	public void value(List<Object> value) throws IOException {
+		beforeValue();
+		out.writeValue(value, stackSize - 1);
+		afterValue();
+	}
+	
+	/**
+	 * Writes a null value
+	 *
+	 * @throws IOException if there is an I/O error
+	 */
+	public void nullValue() throws IOException {
+		beforeValue();
+		out.writeString("null");
+		afterValue();
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+	
+	/**
+	 * Points this writer at a new output stream and starts a new document, so the buffer of this
+	 * writer can be reused. Anything still buffered for the previous output stream is discarded, and
+	 * the indentation and compact mode go back to their defaults
+	 *
+	 * @param os the output stream to write to
+	 */
+	public void setOutput(OutputStream os) {
+		out.setOutput(os);
+		stackSize = 1;
+		stack[0] = EMPTY_DOCUMENT;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		out.close();
+		if (stackSize > 1)
+			throw new IllegalStateException("Incomplete document");
+	}
+	
+	private void open(int state, char c) throws IOException {
+		out.writeByte(c);
+		if (!out.isCompact())
+			out.writeByte('\n');
+		if (stackSize == stack.length)
+			stack = Arrays.copyOf(stack, stackSize * 2);
+		stack[stackSize++] = state;
+	}
+	
+	private void close(int emptyState, int nonemptyState, char c) throws IOException {
+		int state = stack[stackSize - 1];
+		if (state != emptyState && state != nonemptyState)
+			throw new IllegalStateException(state == DANGLING_NAME ? "Missing value after name" : "Nesting problem: unexpected '" + c + "'");
+		stackSize--;
+		if (!out.isCompact()) {
+			if (state == nonemptyState)
+				out.writeByte('\n');
+			out.writeIndentation(stackSize - 1);
+		}
+		out.writeByte(c);
+		afterValue();
+	}
+	
+	private void beforeValue() throws IOException {
+		boolean compact = out.isCompact();
+		switch (stack[stackSize - 1]) {
+			case EMPTY_DOCUMENT:
+				stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+				break;
+			case NONEMPTY_DOCUMENT:
+				out.writeByte('\n');
+				break;
+			case DANGLING_NAME:
+				stack[stackSize - 1] = NONEMPTY_OBJECT;
+				break;
+			case NONEMPTY_ARRAY:
+				out.writeByte(',');
+				if (!compact) {
+					out.writeByte('\n');
+					out.writeIndentation(stackSize - 1);
+				}
+				break;
+			case EMPTY_ARRAY:
+				stack[stackSize - 1] = NONEMPTY_ARRAY;
+				if (!compact)
+					out.writeIndentation(stackSize - 1);
+				break;
+			default:
+				throw new IllegalStateException("Expected a name before the value");
+		}
+	}
+	
+	private void afterValue() throws IOException {
+		if (stackSize == 1)
+			out.flushBuffer();
+	}
+	
+}
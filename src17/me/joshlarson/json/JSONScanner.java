@@ -0,0 +1,204 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The Java 17+ variant of the buffer scanner, packaged under META-INF/versions/17. When the
+ * jdk.incubator.vector module has been added to the runtime (--add-modules jdk.incubator.vector)
+ * whole vectors of 32-64 bytes are classified at once by {@link VectorScanner}. The remaining bytes,
+ * or every byte when the module is absent, use the same SWAR bit tricks as the Java 8 variant
+ * through a VarHandle view
+ *
+ * @author josh
+ */
+final class JSONScanner {
+	
+	private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final boolean VECTORIZED = isVectorAvailable();
+	private static final int VECTOR_LENGTH = VECTORIZED ? VectorScanner.LENGTH : Integer.MAX_VALUE;
+	
+	private static final long ONES = 0x0101010101010101L;
+	private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+	private static final long QUOTES = ONES * '\"';
+	private static final long BACKSLASHES = ONES * '\\';
+	private static final long SPACES = ONES * ' ';
+	private static final long NEWLINES = ONES * '\n';
+	private static final long TABS = ONES * '\t';
+	private static final long RETURNS = ONES * '\r';
+	private static final long OPEN_BRACES = ONES * '{';
+	private static final long CLOSE_BRACES = ONES * '}';
+	private static final long COLONS = ONES * ':';
+	private static final long COMMAS = ONES * ',';
+	private static final long CASE_BITS = ONES * 0x20; // maps '[' and ']' onto '{' and '}'
+	
+	private final byte [] buf;
+	
+	JSONScanner(byte [] buf) {
+		this.buf = buf;
+	}
+	
+	/**
+	 * Finds the next '"', '\\' or non-ASCII byte, which are the only bytes that end a plain run of
+	 * characters within a string
+	 */
+	int findStringSpecial(int pos, int end) {
+		byte [] buf = this.buf;
+		if (end - pos >= VECTOR_LENGTH)
+			pos = VectorScanner.findStringSpecial(buf, pos, end);
+		while (pos + 8 <= end) {
+			long word = (long) LONGS.get(buf, pos);
+			long mask = (anyZero(word ^ QUOTES) | anyZero(word ^ BACKSLASHES) | word) & HIGH_BITS;
+			if (mask != 0)
+				return pos + (Long.numberOfTrailingZeros(mask) >>> 3);
+			pos += 8;
+		}
+		while (pos < end) {
+			byte c = buf[pos];
+			if (c == '\"' || c == '\\' || c < 0)
+				return pos;
+			pos++;
+		}
+		return end;
+	}
+	
+	/**
+	 * Finds the next '"' or '\\'
+	 */
+	int findQuoteOrBackslash(int pos, int end) {
+		byte [] buf = this.buf;
+		if (end - pos >= VECTOR_LENGTH)
+			pos = VectorScanner.findQuoteOrBackslash(buf, pos, end);
+		while (pos + 8 <= end) {
+			long word = (long) LONGS.get(buf, pos);
+			long mask = (anyZero(word ^ QUOTES) | anyZero(word ^ BACKSLASHES)) & HIGH_BITS;
+			if (mask != 0)
+				return pos + (Long.numberOfTrailingZeros(mask) >>> 3);
+			pos += 8;
+		}
+		while (pos < end) {
+			byte c = buf[pos];
+			if (c == '\"' || c == '\\')
+				return pos;
+			pos++;
+		}
+		return end;
+	}
+	
+	/**
+	 * Finds the next byte that is not a space, newline, tab or carriage return
+	 */
+	int skipWhitespace(int pos, int end) {
+		byte [] buf = this.buf;
+		if (end - pos >= VECTOR_LENGTH)
+			pos = VectorScanner.skipWhitespace(buf, pos, end);
+		while (pos + 8 <= end) {
+			long word = (long) LONGS.get(buf, pos);
+			long mask = ~(exactZero(word ^ SPACES) | exactZero(word ^ NEWLINES) | exactZero(word ^ TABS) | exactZero(word ^ RETURNS)) & HIGH_BITS;
+			if (mask != 0)
+				return pos + (Long.numberOfTrailingZeros(mask) >>> 3);
+			pos += 8;
+		}
+		while (pos < end) {
+			byte c = buf[pos];
+			if (c != ' ' && c != '\n' && c != '\t' && c != '\r')
+				return pos;
+			pos++;
+		}
+		return end;
+	}
+	
+	/**
+	 * Classifies the 64 bytes at the specified position into one bit per byte, with the first byte in
+	 * the lowest bit. The masks are quotes, backslashes, structural characters ({ } [ ] : ,) and
+	 * whitespace, in that order
+	 */
+	void classifyBlock(int pos, long [] masks) {
+		byte [] buf = this.buf;
+		long quote = 0;
+		long backslash = 0;
+		long structural = 0;
+		long whitespace = 0;
+		for (int shift = 0; shift < 64; shift += 8) {
+			long word = (long) LONGS.get(buf, pos + shift);
+			long folded = word | CASE_BITS;
+			quote |= moveMask(exactZero(word ^ QUOTES)) << shift;
+			backslash |= moveMask(exactZero(word ^ BACKSLASHES)) << shift;
+			structural |= moveMask(exactZero(folded ^ OPEN_BRACES) | exactZero(folded ^ CLOSE_BRACES) | exactZero(word ^ COLONS) | exactZero(word ^ COMMAS)) << shift;
+			whitespace |= moveMask(exactZero(word ^ SPACES) | exactZero(word ^ NEWLINES) | exactZero(word ^ TABS) | exactZero(word ^ RETURNS)) << shift;
+		}
+		masks[0] = quote;
+		masks[1] = backslash;
+		masks[2] = structural;
+		masks[3] = whitespace;
+	}
+	
+	/**
+	 * Creates a String straight from ASCII bytes. With compact strings, ISO-8859-1 decoding is a
+	 * plain copy into the String's Latin-1 storage
+	 */
+	static String asciiString(byte [] buf, int offset, int length) {
+		return new String(buf, offset, length, StandardCharsets.ISO_8859_1);
+	}
+	
+	/**
+	 * Sets the high bit of every zero byte. Bytes above the lowest zero byte may also be flagged, so
+	 * this is only suitable for finding the first match
+	 */
+	private static long anyZero(long v) {
+		return (v - ONES) & ~v;
+	}
+	
+	/**
+	 * Gathers the high bit of each byte into the low eight bits
+	 */
+	private static long moveMask(long highBits) {
+		return ((highBits >>> 7) * 0x0102040810204080L) >>> 56;
+	}
+	
+	/**
+	 * Sets the high bit of exactly the zero bytes, and nothing else
+	 */
+	private static long exactZero(long v) {
+		return ~(((v & LOW_BITS) + LOW_BITS) | v) & HIGH_BITS;
+	}
+	
+	private static boolean isVectorAvailable() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+			return false;
+		try {
+			return VectorScanner.LENGTH >= 16;
+		} catch (LinkageError e) {
+			return false;
+		}
+	}
+	
+}
@@ -0,0 +1,80 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Classifies a full vector of bytes per step using the incubating Vector API. This class is only
+ * loaded by {@link JSONScanner} once it knows the jdk.incubator.vector module is present. Each
+ * method returns the index of the first matching byte, or the position where fewer than
+ * {@link #LENGTH} bytes remain so that the caller can finish the scan
+ *
+ * @author josh
+ */
+final class VectorScanner {
+	
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+	static final int LENGTH = SPECIES.length();
+	
+	private VectorScanner() {
+		
+	}
+	
+	static int findStringSpecial(byte [] buf, int pos, int end) {
+		for (int bound = end - LENGTH; pos <= bound; pos += LENGTH) {
+			ByteVector v = ByteVector.fromArray(SPECIES, buf, pos);
+			VectorMask<Byte> mask = v.eq((byte) '\"').or(v.eq((byte) '\\')).or(v.compare(VectorOperators.LT, (byte) 0));
+			if (mask.anyTrue())
+				return pos + mask.firstTrue();
+		}
+		return pos;
+	}
+	
+	static int findQuoteOrBackslash(byte [] buf, int pos, int end) {
+		for (int bound = end - LENGTH; pos <= bound; pos += LENGTH) {
+			ByteVector v = ByteVector.fromArray(SPECIES, buf, pos);
+			VectorMask<Byte> mask = v.eq((byte) '\"').or(v.eq((byte) '\\'));
+			if (mask.anyTrue())
+				return pos + mask.firstTrue();
+		}
+		return pos;
+	}
+	
+	static int skipWhitespace(byte [] buf, int pos, int end) {
+		for (int bound = end - LENGTH; pos <= bound; pos += LENGTH) {
+			ByteVector v = ByteVector.fromArray(SPECIES, buf, pos);
+			VectorMask<Byte> mask = v.eq((byte) ' ').or(v.eq((byte) '\n')).or(v.eq((byte) '\t')).or(v.eq((byte) '\r')).not();
+			if (mask.anyTrue())
+				return pos + mask.firstTrue();
+		}
+		return pos;
+	}
+	
+}
@@ -33,9 +33,17 @@ import org.junit.runners.JUnit4;
 import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 @RunWith(JUnit4.class)
 public class TestJSON {
@@ -87,6 +95,143 @@ public class TestJSON {
 		Assert.assertEquals("A", obj.get("key1"));
 	}
 	
+	@Test
+	public void testUtf8Read() throws JSONException, IOException {
+		String text = "caf\u00E9 \u65E5\u672C\u8A9E \uD83D\uDE00 \u0416";
+		JSONObject original = new JSONObject();
+		original.put("key", text);
+		original.put("\u00FCber", "x");
+		Assert.assertEquals(original, JSON.readObject(wrap(original.toString())));
+		Assert.assertEquals("\uD83D\uDE00", JSON.readObject("{\"key\":\"\\uD83D\\uDE00\"}").get("key"));
+		
+		for (int padding = 4080; padding < 4096; padding++) { // multi-byte sequences split across buffer refills
+			StringBuilder padded = new StringBuilder("[\"");
+			for (int i = 0; i < padding; i++)
+				padded.append('a');
+			padded.append(text).append("\"]");
+			Assert.assertEquals(padded.substring(2, padded.length() - 2), JSON.readArray(wrap(padded.toString())).get(0));
+		}
+	}
+	
+	@Test
+	public void testMalformedUtf8Read() throws JSONException, IOException {
+		byte [] json = {'[', '\"', 'a', (byte) 0xC3, 'b', (byte) 0xE6, (byte) 0x97, '\"', ',', '\"', (byte) 0xFF, (byte) 0xC0, (byte) 0x80, '\"', ']'};
+		List<Object> array = JSON.readArray(new ByteArrayInputStream(json));
+		Assert.assertEquals("a\uFFFDb\uFFFD", array.get(0));
+		Assert.assertEquals("\uFFFD\uFFFD\uFFFD", array.get(1));
+	}
+	
+	@Test(expected=JSONException.class)
+	public void testNonAsciiAfterValue() throws JSONException, IOException {
+		JSON.readArray(new ByteArrayInputStream(new byte[]{'[', '1', ' ', (byte) 0xC3, (byte) 0xA9, ']'}));
+	}
+	
+	@Test
+	public void testReadInMemory() throws JSONException, IOException {
+		StringBuilder str = new StringBuilder("{\"big\": [");
+		for (int i = 0; i < 2000; i++)
+			str.append(i).append(", \"caf\u00E9\", ");
+		str.append("0]}");
+		byte [] data = ("xx" + str + "yy").getBytes(StandardCharsets.UTF_8);
+		JSONObject expected = JSON.readObject(str.toString());
+		Assert.assertEquals(expected, JSON.readObject(data, 2, data.length - 4));
+		Assert.assertEquals(expected, JSON.readObject((CharSequence) str));
+		ByteBuffer heap = ByteBuffer.wrap(data, 2, data.length - 4);
+		Assert.assertEquals(expected, JSON.readObject(heap.slice()));
+		Assert.assertEquals(expected, JSON.readObject(heap));
+		Assert.assertEquals(2, heap.position());
+	}
+	
+	@Test
+	public void testRejectBufferWithoutArray() throws JSONException, IOException {
+		byte [] data = "{\"a\": 1}".getBytes(StandardCharsets.UTF_8);
+		ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+		direct.put(data).flip();
+		for (ByteBuffer buffer : new ByteBuffer[]{direct, ByteBuffer.wrap(data).asReadOnlyBuffer()}) {
+			try {
+				JSON.readObject(buffer);
+				Assert.fail("Expected an IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+	
+	@Test
+	public void testReadRemainingAfterValue() throws JSONException, IOException {
+		byte [] data = "[1, 2] trailing".getBytes(StandardCharsets.UTF_8);
+		try (JSONInputStream in = new JSONInputStream(data)) {
+			Assert.assertEquals(Arrays.asList(1L, 2L), in.readArray());
+			Assert.assertEquals(9, in.available());
+			Assert.assertEquals(1, in.skip(1));
+			byte [] remaining = new byte[16];
+			Assert.assertEquals(8, in.read(remaining));
+			Assert.assertEquals("trailing", new String(remaining, 0, 8, StandardCharsets.UTF_8));
+			Assert.assertEquals(-1, in.read());
+		}
+	}
+	
+	@Test
+	public void testReadFile() throws JSONException, IOException {
+		StringBuilder str = new StringBuilder("{\"big\": [");
+		for (int i = 0; i < 2000; i++)
+			str.append(i).append(", \"caf\u00E9 \\\"x\\\"\", 1.5e3, ");
+		str.append("0]}");
+		JSONObject expected = JSON.readObject(str.toString());
+		byte [] data = str.toString().getBytes(StandardCharsets.UTF_8);
+		Path file = Files.createTempFile("fast-json", ".json");
+		try {
+			Files.write(file, data);
+			Assert.assertEquals(expected, JSON.readObject(file));
+			Assert.assertEquals(expected, JSON.readNext(file, true));
+			Files.write(file, ("xx" + str + "yy").getBytes(StandardCharsets.UTF_8));
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				// tiny buffers put every kind of token across a read boundary
+				for (int bufferSize = 1; bufferSize <= 13; bufferSize += 4) {
+					try (JSONInputStream in = new JSONInputStream(new FileChannelInputStream(channel, 2, 2 + data.length), bufferSize)) {
+						Assert.assertEquals(expected, in.readObject());
+						Assert.assertEquals(-1, in.read());
+					}
+				}
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	public void testReset() throws JSONException, IOException {
+		byte [] data = "{\"a\": [1, \"two\"]} [3]".getBytes(StandardCharsets.UTF_8);
+		try (JSONInputStream in = new JSONInputStream(new ByteArrayInputStream(data), 3)) {
+			Assert.assertEquals(Arrays.asList(1L, "two"), in.readObject().get("a"));
+			in.setInput(new ByteArrayInputStream(data));
+			Assert.assertEquals(Arrays.asList(1L, "two"), in.readObject().get("a"));
+			in.setInput(data, 18, 3);
+			Assert.assertEquals(Arrays.asList(3L), in.readArray());
+			Assert.assertNull(in.readNext());
+			in.setInput("[\"" + new String(new char[10000]).replace('\0', 'x') + "\"]");
+			Assert.assertEquals(10000, ((String) in.readArray().get(0)).length());
+			in.setInput(ByteBuffer.wrap(data));
+			Assert.assertEquals(Arrays.asList(1L, "two"), in.readObject().get("a"));
+			Assert.assertEquals(Arrays.asList(3L), in.readArray());
+		}
+		try (JSONReader reader = new JSONReader("[1")) {
+			reader.beginArray();
+			reader.setInput("{}");
+			reader.beginObject();
+			reader.endObject();
+			Assert.assertEquals(JSONToken.END_DOCUMENT, reader.peek());
+		}
+	}
+	
+	@Test
+	public void testPooledAfterError() throws JSONException, IOException {
+		for (int i = 0; i < 100; i++) {
+			Assert.assertNull(JSON.readObject("{\"unterminated\": \"", false));
+			Assert.assertEquals(Arrays.asList(1L, 2L), JSON.readArray("[1, 2]"));
+		}
+	}
+	
 	@Test
 	public void testReadObjectString() throws JSONException, IOException {
 		String str;
@@ -121,6 +266,55 @@ public class TestJSON {
 		Assert.assertEquals(2, (long) array.get(5));
 	}
 	
+	@Test
+	public void testReadIntegers() throws JSONException, IOException {
+		List<Object> array = JSON.readArray("[0,-0,7,-128,1023,1024," + Long.MAX_VALUE + "," + Long.MIN_VALUE + ",007,-0012.5,12e1]");
+		Assert.assertEquals(0L, array.get(0));
+		Assert.assertEquals(0L, array.get(1));
+		Assert.assertEquals(7L, array.get(2));
+		Assert.assertEquals(-128L, array.get(3));
+		Assert.assertEquals(1023L, array.get(4));
+		Assert.assertEquals(1024L, array.get(5));
+		Assert.assertEquals(Long.MAX_VALUE, array.get(6));
+		Assert.assertEquals(Long.MIN_VALUE, array.get(7));
+		Assert.assertEquals(7L, array.get(8));
+		Assert.assertEquals(-12.5, (double) array.get(9), 0);
+		Assert.assertEquals(120, (double) array.get(10), 0);
+		
+		StringBuilder padded = new StringBuilder("[");
+		for (int i = 0; i < 4093; i++)
+			padded.append(' ');
+		padded.append("-123456789]");
+		Assert.assertEquals(-123456789L, JSON.readArray(wrap(padded.toString())).get(0));
+	}
+	
+	@Test
+	public void testReadDecimals() throws JSONException, IOException {
+		String [] decimals = {"0.0", "-0.0", "1.5", "-12.25e-3", "1E10", "1e+10", "2.2250738585072011e-308", "4.9e-324",
+				"2.4e-324", "1.7976931348623157e308", "1.8e308", "1e-400", "9007199254740993.0", "9007199254740993.00000000000000000001",
+				"0.1000000000000000055511151231257827021181583404541015625", "3.14159265358979323846264338327950288", "1.", "123456789012345678901234567890e-20"};
+		Random random = new Random(0);
+		List<String> tokens = new ArrayList<>(Arrays.asList(decimals));
+		for (int i = 0; i < 10000; i++) {
+			tokens.add(Double.toString(Double.longBitsToDouble(random.nextLong() & Long.MAX_VALUE)).replace("Infinity", "1.0"));
+			tokens.add(String.format("%." + random.nextInt(20) + "fe%d", random.nextDouble() * 1000, random.nextInt(640) - 320));
+		}
+		tokens.removeIf(token -> token.contains("NaN"));
+		List<Object> array = JSON.readArray(wrap("[" + String.join(",", tokens) + "]"));
+		for (int i = 0; i < tokens.size(); i++)
+			Assert.assertEquals(tokens.get(i), Double.valueOf(tokens.get(i)), array.get(i));
+	}
+	
+	@Test(expected=NumberFormatException.class)
+	public void testIntegerOverflow() throws JSONException, IOException {
+		JSON.readArray("[9223372036854775808]");
+	}
+	
+	@Test(expected=JSONException.class)
+	public void testInvalidNumber() throws JSONException, IOException {
+		JSON.readArray("[12x]");
+	}
+	
 	@Test(expected=EOFException.class)
 	public void testObjectReadError1() throws JSONException, IOException {
 		Assert.assertNull(JSON.readObject("{"));
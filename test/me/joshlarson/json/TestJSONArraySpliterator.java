@@ -0,0 +1,181 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestJSONArraySpliterator {
+	
+	@Test
+	public void testSequential() throws IOException, JSONException {
+		String document = "[1, \"two\", {\"three\": [3]}, [4, \"]\"], null, true,]";
+		List<Object> expected = readArray(document.getBytes(StandardCharsets.UTF_8));
+		try (Stream<Object> stream = JSON.streamArray(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)))) {
+			Assert.assertEquals(expected, toList(stream));
+		}
+		Assert.assertEquals(expected, toList(JSON.streamArray(document.getBytes(StandardCharsets.UTF_8))));
+		Assert.assertEquals(0, JSON.streamArray(" [ ] ".getBytes(StandardCharsets.UTF_8)).count());
+		Assert.assertEquals(0, JSON.streamArray(" ".getBytes(StandardCharsets.UTF_8)).count());
+	}
+	
+	@Test
+	public void testParallel() throws IOException, JSONException {
+		byte [] data = createArray(40000);
+		Assert.assertTrue(data.length > 4 * JSONParallelParser.DEFAULT_MIN_RANGE_SIZE);
+		List<Object> expected = readArray(data);
+		Assert.assertEquals(expected, JSON.streamArray(data).parallel().collect(Collectors.toList()));
+		Assert.assertEquals(expected.size(), JSON.streamArray(data).parallel().count());
+	}
+	
+	@Test
+	public void testSplit() throws IOException, JSONException {
+		byte [] data = createArray(40000);
+		List<Object> expected = readArray(data);
+		Spliterator<Object> suffix = new JSONArraySpliterator(JSONArraySpliterator.source(data, 0, data.length, JSONObject::new, JSONArray::new));
+		List<Object> elements = new ArrayList<>();
+		Spliterator<Object> prefix = suffix.trySplit();
+		Assert.assertNotNull(prefix);
+		Assert.assertTrue(prefix.tryAdvance(elements::add));
+		Spliterator<Object> prefixOfPrefix = prefix.trySplit(); // carries on with the partially read range
+		Assert.assertNotNull(prefixOfPrefix);
+		prefixOfPrefix.forEachRemaining(elements::add);
+		prefix.forEachRemaining(elements::add);
+		suffix.forEachRemaining(elements::add);
+		Assert.assertEquals(expected, elements);
+		Assert.assertEquals(0, suffix.estimateSize());
+		
+		Spliterator<Object> started = new JSONArraySpliterator(JSONArraySpliterator.source(data, 0, data.length, JSONObject::new, JSONArray::new));
+		Assert.assertTrue(started.tryAdvance(element -> {}));
+		Assert.assertNull(started.trySplit());
+	}
+	
+	@Test
+	public void testSplitRanges() throws IOException, JSONException {
+		byte [] data = createArray(40000);
+		List<Object> expected = readArray(data);
+		Spliterator<Object> spliterator = new JSONArraySpliterator(JSONArraySpliterator.source(data, 0, data.length, JSONObject::new, JSONArray::new));
+		Assert.assertEquals(data.length, spliterator.estimateSize());
+		// parallel streams stop splitting once the estimate is below a quarter of the first estimate per thread
+		long threshold = spliterator.estimateSize() / (4L * ForkJoinPool.getCommonPoolParallelism());
+		List<Spliterator<Object>> ranges = new ArrayList<>();
+		splitAll(spliterator, threshold, ranges);
+		Assert.assertTrue("Only split into " + ranges.size() + " ranges", ranges.size() > 2);
+		List<Object> elements = new ArrayList<>();
+		for (Spliterator<Object> range : ranges)
+			range.forEachRemaining(elements::add);
+		Assert.assertEquals(expected, elements);
+	}
+	
+	@Test
+	public void testFile() throws IOException, JSONException {
+		byte [] data = createArray(40000);
+		List<Object> expected = readArray(data);
+		Path file = Files.createTempFile("fast-json", ".json");
+		try {
+			Files.write(file, data);
+			try (Stream<Object> stream = JSON.streamArray(file)) {
+				Assert.assertEquals(expected, toList(stream));
+			}
+			try (Stream<Object> stream = JSON.streamArray(file)) {
+				Assert.assertEquals(expected, stream.parallel().collect(Collectors.toList()));
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	public void testErrors() {
+		String [] documents = {"{}", "[1 2]", "[1, 2", "[1}", "[1,, 2]"};
+		for (String document : documents) {
+			try {
+				JSON.streamArray(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8))).count();
+				Assert.fail("Expected an exception for " + document);
+			} catch (UncheckedJSONException | UncheckedIOException e) {
+				// expected
+			}
+		}
+		try {
+			JSON.streamArray(document(40000).getBytes(StandardCharsets.UTF_8)).parallel().count();
+			Assert.fail("Expected an exception for an unterminated array");
+		} catch (UncheckedJSONException e) {
+			Assert.assertEquals("Unexpected end of input", e.getCause().getMessage());
+		}
+	}
+	
+	private static void splitAll(Spliterator<Object> spliterator, long threshold, List<Spliterator<Object>> ranges) {
+		if (spliterator.estimateSize() > threshold) {
+			Spliterator<Object> prefix = spliterator.trySplit();
+			if (prefix != null) {
+				splitAll(prefix, threshold, ranges);
+				splitAll(spliterator, threshold, ranges);
+				return;
+			}
+		}
+		ranges.add(spliterator);
+	}
+	
+	private static byte [] createArray(int count) {
+		return (document(count) + "]").getBytes(StandardCharsets.UTF_8);
+	}
+	
+	private static String document(int count) {
+		StringBuilder str = new StringBuilder("[");
+		for (int i = 0; i < count; i++)
+			str.append(i == 0 ? "" : ",\n").append("{\"id\": ").append(i).append(", \"text\": \"caf\u00E9 [").append(i).append("], \\\"x\\\"\", \"tags\": [1, 2.5, null]}");
+		return str.toString();
+	}
+	
+	private static List<Object> toList(Stream<Object> stream) {
+		List<Object> list = new ArrayList<>();
+		stream.forEachOrdered(list::add);
+		return list;
+	}
+	
+	private static List<Object> readArray(byte [] data) throws IOException, JSONException {
+		try (JSONInputStream in = new JSONInputStream(data)) {
+			return in.readArray();
+		}
+	}
+	
+}
@@ -0,0 +1,150 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestJSONFeedParser {
+	
+	private static final String DOCUMENT = "{\"a\": 1, \"b\": [true, false, null], \"c\": {\"d\": -2.5e-3, \"e\": 1234567890123, \"f\": 1E400},"
+			+ " \"s\": \"\\u0041\\t\\\\\\\"x\\n\", \"utf8\": \"\u00E9\u4E2D\uD83D\uDE00\", \"deep\": [[[{}]], []]}";
+	
+	@Test
+	public void testEverySplit() throws IOException, JSONException {
+		byte [] data = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+		Object expected = JSON.readNext(data);
+		for (int split = 0; split <= data.length; split++) {
+			JSONFeedParser parser = new JSONFeedParser();
+			parser.feed(data, 0, split);
+			Object value = parser.readNext();
+			Assert.assertTrue(parser.needsInput());
+			if (value == null) {
+				parser.feed(data, split, data.length - split);
+				value = parser.readNext();
+			}
+			Assert.assertEquals("split at " + split, expected, value);
+		}
+	}
+	
+	@Test
+	public void testOneByteAtATime() throws IOException, JSONException {
+		byte [] data = (DOCUMENT + "\n[1, 2]\r\n{}").getBytes(StandardCharsets.UTF_8);
+		List<Object> expected = new ArrayList<>();
+		try (JSONInputStream in = new JSONInputStream(new ByteArrayInputStream(data))) {
+			Object value;
+			while ((value = in.readNext()) != null)
+				expected.add(value);
+		}
+		List<Object> values = new ArrayList<>();
+		JSONFeedParser parser = new JSONFeedParser();
+		for (byte b : data) {
+			parser.feed(new byte[]{b});
+			Object value;
+			while ((value = parser.readNext()) != null)
+				values.add(value);
+		}
+		parser.endOfInput();
+		Assert.assertNull(parser.readNext());
+		Assert.assertEquals(expected, values);
+	}
+	
+	@Test
+	public void testTokens() throws JSONException {
+		JSONFeedParser parser = new JSONFeedParser();
+		parser.feed("{\"name\": \"val".getBytes(StandardCharsets.UTF_8));
+		Assert.assertEquals(JSONToken.BEGIN_OBJECT, parser.nextToken());
+		Assert.assertEquals(JSONToken.NAME, parser.nextToken());
+		Assert.assertEquals("name", parser.getValue());
+		Assert.assertEquals(JSONToken.NOT_AVAILABLE, parser.nextToken());
+		parser.feed(ByteBuffer.wrap("ue\", \"n\": 12".getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer());
+		Assert.assertEquals(JSONToken.STRING, parser.nextToken());
+		Assert.assertEquals("value", parser.getValue());
+		Assert.assertEquals(JSONToken.NAME, parser.nextToken());
+		Assert.assertEquals(JSONToken.NOT_AVAILABLE, parser.nextToken()); // 12 may continue
+		parser.feed("3}".getBytes(StandardCharsets.UTF_8));
+		Assert.assertEquals(JSONToken.NUMBER, parser.nextToken());
+		Assert.assertEquals(123L, parser.getValue());
+		Assert.assertEquals(1, parser.getDepth());
+		Assert.assertEquals(JSONToken.END_OBJECT, parser.nextToken());
+		Assert.assertEquals(JSONToken.NOT_AVAILABLE, parser.nextToken());
+		parser.feed("  4".getBytes(StandardCharsets.UTF_8));
+		Assert.assertEquals(JSONToken.NOT_AVAILABLE, parser.nextToken());
+		parser.endOfInput();
+		Assert.assertEquals(JSONToken.NUMBER, parser.nextToken());
+		Assert.assertEquals(4L, parser.getValue());
+		Assert.assertEquals(JSONToken.END_DOCUMENT, parser.nextToken());
+	}
+	
+	@Test
+	public void testDirectBuffer() throws IOException, JSONException {
+		byte [] data = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+		direct.put(data).flip();
+		JSONFeedParser parser = new JSONFeedParser();
+		parser.feed(direct);
+		Assert.assertFalse(direct.hasRemaining());
+		Assert.assertEquals(JSON.readNext(data), parser.readNext());
+	}
+	
+	@Test(expected = JSONException.class)
+	public void testUnterminatedString() throws JSONException {
+		JSONFeedParser parser = new JSONFeedParser();
+		parser.feed("[\"abc".getBytes(StandardCharsets.UTF_8));
+		Assert.assertNull(parser.readNext());
+		parser.endOfInput();
+		parser.readNext();
+	}
+	
+	@Test(expected = JSONException.class)
+	public void testUnexpectedEnd() throws JSONException {
+		JSONFeedParser parser = new JSONFeedParser();
+		parser.feed("{\"a\": [1, 2]".getBytes(StandardCharsets.UTF_8));
+		Assert.assertNull(parser.readNext());
+		parser.endOfInput();
+		parser.readNext();
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testFeedBeforeConsumed() throws JSONException {
+		JSONFeedParser parser = new JSONFeedParser();
+		parser.feed("[1] [2]".getBytes(StandardCharsets.UTF_8));
+		Assert.assertEquals(Arrays.asList(1L), parser.readNext());
+		parser.feed("[3]".getBytes(StandardCharsets.UTF_8));
+	}
+	
+}
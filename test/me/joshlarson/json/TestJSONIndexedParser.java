@@ -0,0 +1,114 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestJSONIndexedParser {
+	
+	private static final String [] PIECES = {"\"", "\\\"", "\\\\", "\\n", "\\u00e9", "\u00E9", "\u4E2D", "\uD83D\uDE00", "{}", "[]", ",", ":", " ", "\t", "x", "abcdefgh"};
+	
+	@Test
+	public void testMatchesStream() throws IOException, JSONException {
+		String [] documents = {
+				"{}", "[]", "  [ ]  ", "{\"a\": 1, \"b\": [true, false, null], \"c\": {\"d\": -2.5e-3}}",
+				"[1, -0, 0.1, 1E400, 9223372036854775807, -9223372036854775808, 12345678901234567890.5]",
+				"[1,2,3,]", "{\"a\":1,}", "{\"a\":{\"b\":{\"c\":[[[{}]]]}}}", "[\"\\u0041\\t\\\\\\\"\", \"\u00E9\u4E2D\uD83D\uDE00\"]",
+				"\r\n[\t1\r\n,\n\"x\"\t]\n"
+		};
+		for (String document : documents)
+			assertSameAsStream(document);
+	}
+	
+	@Test
+	public void testStringsAcrossBlocks() throws IOException, JSONException {
+		Random random = new Random(0);
+		for (int iteration = 0; iteration < 2000; iteration++) {
+			StringBuilder str = new StringBuilder("{");
+			int keys = 1 + random.nextInt(8);
+			for (int key = 0; key < keys; key++) {
+				if (key > 0)
+					str.append(',');
+				str.append("\"k").append(key).append("\":\"");
+				int pieces = random.nextInt(30);
+				for (int i = 0; i < pieces; i++) {
+					String piece = PIECES[random.nextInt(PIECES.length)];
+					str.append(piece.equals("\"") ? "\\\"" : piece);
+				}
+				str.append("\"");
+			}
+			str.append('}');
+			assertSameAsStream(str.toString());
+		}
+	}
+	
+	@Test
+	public void testSlice() throws JSONException {
+		byte [] data = "xx{\"a\": [1, 2]}yy".getBytes(StandardCharsets.UTF_8);
+		Map<String, Object> obj = new JSONIndexedParser().readObject(data, 2, data.length - 4);
+		Assert.assertEquals(Arrays.asList(1L, 2L), obj.get("a"));
+	}
+	
+	@Test
+	public void testEmpty() throws JSONException {
+		Assert.assertNull(new JSONIndexedParser().readNext(" \n\t ".getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	@Test
+	public void testErrors() {
+		String [] invalid = {"{\"a\" 1}", "{1: 2}", "[1 2]", "{\"a\": 1", "[\"abc", "[tru]", "{\"a\": \"b\\\"}", "5"};
+		JSONIndexedParser parser = new JSONIndexedParser();
+		for (String document : invalid) {
+			try {
+				parser.readNext(document.getBytes(StandardCharsets.UTF_8));
+				Assert.fail("Expected an exception for " + document);
+			} catch (JSONException e) {
+				// expected
+			}
+		}
+	}
+	
+	private static void assertSameAsStream(String document) throws IOException, JSONException {
+		byte [] data = document.getBytes(StandardCharsets.UTF_8);
+		Object expected;
+		try (JSONInputStream in = new JSONInputStream(new ByteArrayInputStream(data))) {
+			expected = in.readNext();
+		}
+		Assert.assertEquals(document, expected, new JSONIndexedParser().readNext(data));
+	}
+	
+}
@@ -0,0 +1,260 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestJSONLazyParser {
+	
+	private static final String DOCUMENT = "{\"id\": 7, \"name\": \"caf\\u00e9 \u00E9\", \"score\": -2.5e1, \"ok\": true, \"none\": null,"
+			+ " \"user\": {\"name\": \"josh\", \"tags\": [\"x\", {\"y\": [1, 2]}]}, \"items\": [], \"empty\": {}, \"id\": 8}";
+	
+	@Test
+	public void testEquality() throws IOException, JSONException {
+		String [] documents = {DOCUMENT, "{}", "[]", " [1, \"a\", [2, [3]], {\"b\": null}] ", "{\"a\":{\"a\":{\"a\":[]}}}"};
+		for (String document : documents)
+			Assert.assertEquals(document, JSON.readNext(document), JSONLazyParser.readNext(bytes(document)));
+		Assert.assertNull(JSONLazyParser.readNext(bytes(" \n ")));
+		Assert.assertNull(JSONLazyParser.readObject(bytes("")));
+	}
+	
+	@Test
+	public void testGet() throws JSONException {
+		JSONObject obj = JSONLazyParser.readObject(bytes(DOCUMENT));
+		Assert.assertEquals(8, obj.size());
+		Assert.assertEquals(Arrays.asList("id", "name", "score", "ok", "none", "user", "items", "empty"), Arrays.asList(obj.keySet().toArray()));
+		Assert.assertEquals(8, obj.getLong("id"));
+		Assert.assertEquals("caf\u00E9 \u00E9", obj.getString("name"));
+		Assert.assertEquals(-25, obj.getDouble("score"), 0);
+		Assert.assertTrue(obj.getBoolean("ok"));
+		Assert.assertNull(obj.get("none"));
+		Assert.assertTrue(obj.containsKey("none"));
+		Assert.assertFalse(obj.containsKey("missing"));
+		Assert.assertEquals("josh", obj.getLayered("user.name"));
+		Assert.assertEquals(2L, JSONPath.compile("user.tags[1].y[1]").get(obj));
+		Assert.assertTrue(obj.getArray("items").isEmpty());
+		
+		// decoded values are cached
+		Assert.assertSame(obj.get("user"), obj.get("user"));
+		Assert.assertSame(obj.get("name"), obj.get("name"));
+	}
+	
+	@Test
+	public void testModify() throws IOException, JSONException {
+		JSONObject lazy = JSONLazyParser.readObject(bytes(DOCUMENT));
+		JSONObject eager = JSON.readObject(DOCUMENT);
+		for (Map<String, Object> obj : Arrays.<Map<String, Object>>asList(lazy, eager)) {
+			Assert.assertEquals(8L, obj.put("id", 9));
+			Assert.assertNull(obj.put("added", "value"));
+			Assert.assertEquals(true, obj.remove("ok"));
+			Assert.assertNull(obj.remove("missing"));
+			@SuppressWarnings("unchecked")
+			List<Object> tags = (List<Object>) ((Map<String, Object>) obj.get("user")).get("tags");
+			tags.add(0, "w");
+			tags.remove(2);
+			tags.set(1, "z");
+			Iterator<Entry<String, Object>> it = obj.entrySet().iterator();
+			while (it.hasNext()) {
+				Entry<String, Object> e = it.next();
+				if (e.getKey().equals("score"))
+					it.remove();
+				else if (e.getKey().equals("none"))
+					e.setValue(0);
+			}
+		}
+		Assert.assertEquals(eager, lazy);
+		Assert.assertEquals(Arrays.asList("id", "name", "none", "user", "items", "empty", "added"), Arrays.asList(lazy.keySet().toArray()));
+		Assert.assertEquals(eager.toString(true), lazy.toString(true));
+		Assert.assertEquals(eager.toString(false), lazy.toString(false));
+		
+		lazy.clear();
+		Assert.assertTrue(lazy.isEmpty());
+		Assert.assertNull(lazy.get("id"));
+		lazy.put("id", 1);
+		Assert.assertEquals("{\"id\":1}", lazy.toString(true));
+	}
+	
+	@Test
+	public void testKeys() throws IOException, JSONException {
+		// escaped and non-ASCII keys are decoded up front, and match plain keys with the same text
+		String document = "{\"a\": 1, \"caf\u00E9\": 2, \"\\u0061\": 3, \"b\\\"c\": 4, \"d\": 5, \"\\u0064\": 6, \"caf\\u00e9\": 7}";
+		JSONObject lazy = JSONLazyParser.readObject(bytes(document));
+		Assert.assertEquals(JSON.readObject(document), lazy);
+		Assert.assertEquals(Arrays.asList("a", "caf\u00E9", "b\"c", "d"), Arrays.asList(lazy.keySet().toArray()));
+		Assert.assertEquals(3L, lazy.get("a"));
+		Assert.assertEquals(7L, lazy.get("caf\u00E9"));
+		Assert.assertEquals(4L, lazy.get("b\"c"));
+		Assert.assertEquals(6L, lazy.get("d"));
+		Assert.assertEquals("{\"a\":3,\"caf\u00E9\":7,\"b\\\"c\":4,\"d\":6}", lazy.toString(true));
+	}
+	
+	@Test
+	public void testManyKeys() throws IOException, JSONException {
+		StringBuilder document = new StringBuilder("{");
+		for (int i = 0; i < 100; i++)
+			document.append(i == 0 ? "" : ",").append("\"k").append(i % 70).append("\":").append(i);
+		document.append('}');
+		JSONObject lazy = JSONLazyParser.readObject(bytes(document.toString()));
+		Assert.assertEquals(JSON.readObject(document.toString()), lazy);
+		for (int i = 0; i < 70; i += 2)
+			lazy.remove("k" + i);
+		Assert.assertEquals(35, lazy.size());
+		Assert.assertEquals(99L, lazy.get("k29"));
+		Assert.assertNull(lazy.get("k28"));
+	}
+	
+	@Test
+	public void testManyElements() throws IOException, JSONException {
+		StringBuilder document = new StringBuilder("[");
+		for (int i = 0; i < 100; i++)
+			document.append(i == 0 ? "" : ",").append(i % 3 == 0 ? "\"s" + i + "\"" : String.valueOf(i));
+		document.append(']');
+		JSONArray eager = JSON.readArray(document.toString());
+		JSONArray lazy = JSONLazyParser.readArray(bytes(document.toString()));
+		Assert.assertEquals(eager, lazy);
+		for (List<Object> array : Arrays.<List<Object>>asList(eager, lazy)) {
+			for (int i = 0; i < 20; i++)
+				array.add(i * 5, "added" + i);
+			for (int i = 0; i < 30; i++)
+				array.remove(i * 2);
+			array.subList(10, 20).clear();
+		}
+		Assert.assertEquals(eager, lazy);
+		Assert.assertEquals(eager.toString(true), lazy.toString(true));
+	}
+	
+	@Test
+	public void testWriteCompact() throws IOException, JSONException {
+		String document = "{\"a\":[1, {\"b\" : \"\\u00e9\"}],\"c\":{\"d\":2.50},\"e\":\"x\"}";
+		JSONObject obj = JSONLazyParser.readObject(bytes(document));
+		// values that were never decoded are copied as they were written, minus their whitespace
+		String compact = "{\"a\":[1,{\"b\":\"\\u00e9\"}],\"c\":{\"d\":2.50},\"e\":\"x\"}";
+		Assert.assertEquals(compact, obj.toString(true));
+		Assert.assertEquals(compact, write(obj));
+		
+		obj.put("e", "y");
+		((List<?>) obj.get("a")).size();
+		Assert.assertEquals("{\"a\":[1,{\"b\":\"\\u00e9\"}],\"c\":{\"d\":2.50},\"e\":\"y\"}", obj.toString(true));
+		
+		JSONArray array = JSONLazyParser.readArray(bytes("[ 1 , \"two\" ]"));
+		Assert.assertEquals("[1,\"two\"]", array.toString(true));
+		array.add(3L);
+		Assert.assertEquals("[1,\"two\",3]", array.toString(true));
+	}
+	
+	@Test
+	public void testWriteIndentedInput() throws IOException, JSONException {
+		String document = "{\n  \"a\": [1,\n    2],\n  \"b\": {\"c\" :  \"x y\\\" \\n\"},\n\t\"n\": 1E2\r\n}";
+		String compact = "{\"a\":[1,2],\"b\":{\"c\":\"x y\\\" \\n\"},\"n\":1E2}";
+		JSONObject obj = JSONLazyParser.readObject(bytes(document));
+		Assert.assertEquals(compact, obj.toString(true));
+		Assert.assertEquals(compact, write(obj));
+		
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (JSONWriter writer = new JSONWriter(baos)) {
+			writer.setCompact(true);
+			writer.value(obj);
+			writer.value(JSONLazyParser.readArray(bytes("[\n  [ ],\n  { }\n]")));
+		}
+		Assert.assertEquals(compact + "\n[[],{}]", new String(baos.toByteArray(), StandardCharsets.UTF_8));
+		Assert.assertEquals(JSON.readObject(document), JSON.readObject(obj.toString(true)));
+	}
+	
+	@Test
+	public void testLazyErrors() throws JSONException {
+		JSONObject obj = JSONLazyParser.readObject(bytes("{\"good\": 1, \"bad\": [1, }, \"worse\": tru}"));
+		Assert.assertEquals(1L, obj.get("good"));
+		Assert.assertEquals(3, obj.size());
+		for (String key : new String[]{"bad", "worse"}) {
+			try {
+				obj.get(key);
+				Assert.fail("Expected an UncheckedJSONException for " + key);
+			} catch (UncheckedJSONException e) {
+				Assert.assertNotNull(e.getCause());
+			}
+		}
+	}
+	
+	@Test
+	public void testTopLevelErrors() {
+		String [] documents = {"{\"a\" 1}", "{1: 2}", "{\"a\": 1", "[1, 2", "[1 2]", "5", "{\"a\": \"b}"};
+		for (String document : documents) {
+			try {
+				JSONLazyParser.readNext(bytes(document));
+				Assert.fail("Expected a JSONException for " + document);
+			} catch (JSONException e) {
+				// expected
+			}
+		}
+		try {
+			JSONLazyParser.readObject(bytes("[]"));
+			Assert.fail("Expected a JSONException for an array");
+		} catch (JSONException e) {
+			// expected
+		}
+		try {
+			JSONLazyParser.readArray(bytes("{}"));
+			Assert.fail("Expected a JSONException for an object");
+		} catch (JSONException e) {
+			// expected
+		}
+	}
+	
+	@Test
+	public void testRange() throws JSONException {
+		byte [] data = bytes("xx{\"a\": [1]}yy");
+		JSONObject obj = JSONLazyParser.readObject(data, 2, data.length - 4);
+		Assert.assertEquals(Arrays.asList(1L), obj.get("a"));
+		Assert.assertEquals("{\"a\":[1]}", obj.toString(true));
+	}
+	
+	private static byte [] bytes(String str) {
+		return str.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	private static String write(Map<String, Object> obj) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (JSONOutputStream out = new JSONOutputStream(baos)) {
+			out.setCompact(true);
+			out.writeObject(obj);
+		}
+		return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+}
@@ -0,0 +1,147 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestJSONLinesReader {
+	
+	@Test
+	public void testOrdered() throws IOException, JSONException {
+		byte [] data = createLines(500);
+		List<Object> expected = readSequential(data);
+		Assert.assertEquals(500, expected.size());
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			// small chunks put chunk boundaries everywhere, including right after a '\r'
+			for (int chunkSize = 1; chunkSize <= 300; chunkSize += 37)
+				Assert.assertEquals(expected, new JSONLinesReader(executor, chunkSize).readAll(data));
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertEquals(expected, new JSONLinesReader().readAll(data));
+	}
+	
+	@Test
+	public void testUnordered() throws IOException, JSONException {
+		byte [] data = createLines(500);
+		List<Object> expected = readSequential(data);
+		List<Object> values = new ArrayList<>();
+		new JSONLinesReader(Runnable::run, 100).read(data, false, values::add);
+		Assert.assertEquals(expected, values);
+		values.clear();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			new JSONLinesReader(executor, 64).read(data, false, values::add);
+		} finally {
+			executor.shutdown();
+		}
+		values.sort(Comparator.comparingLong(value -> (Long) ((Map<?, ?>) value).get("id")));
+		Assert.assertEquals(expected, values);
+	}
+	
+	@Test
+	public void testSlice() throws IOException, JSONException {
+		byte [] data = createLines(20);
+		List<Object> expected = readSequential(data);
+		int first = indexOf(data, (byte) '\n') + 1;
+		List<Object> values = new ArrayList<>();
+		new JSONLinesReader(Runnable::run, 50).read(data, first, data.length - first, true, values::add);
+		Assert.assertEquals(expected.subList(1, expected.size()), values);
+	}
+	
+	@Test
+	public void testFile() throws IOException, JSONException {
+		byte [] data = createLines(500);
+		List<Object> expected = readSequential(data);
+		Path file = Files.createTempFile("fast-json", ".jsonl");
+		try {
+			Files.write(file, data);
+			Assert.assertEquals(expected, new JSONLinesReader().readAll(file));
+			Assert.assertEquals(expected, new JSONLinesReader(Runnable::run, 123).readAll(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	public void testEmpty() throws IOException, JSONException {
+		Assert.assertTrue(new JSONLinesReader().readAll(new byte[0]).isEmpty());
+		Assert.assertTrue(new JSONLinesReader().readAll("\n\n  \r\n".getBytes(StandardCharsets.UTF_8)).isEmpty());
+	}
+	
+	@Test(expected = JSONException.class)
+	public void testError() throws IOException, JSONException {
+		byte [] data = (new String(createLines(100), StandardCharsets.UTF_8) + "{\"id\": }\n").getBytes(StandardCharsets.UTF_8);
+		new JSONLinesReader(ForkJoinPool.commonPool(), 64).readAll(data);
+	}
+	
+	private static byte [] createLines(int count) {
+		StringBuilder str = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			str.append("{\"id\": ").append(i).append(", \"name\": \"caf\u00E9 ").append(i).append("\", \"tags\": [");
+			for (int j = 0; j < i % 5; j++)
+				str.append(j == 0 ? "" : ", ").append(j * 1.5);
+			str.append("]}").append(i % 3 == 0 ? "\r\n" : "\n");
+		}
+		return str.toString().getBytes(StandardCharsets.UTF_8);
+	}
+	
+	private static List<Object> readSequential(byte [] data) throws IOException, JSONException {
+		List<Object> values = new ArrayList<>();
+		try (JSONInputStream in = new JSONInputStream(data)) {
+			Object value;
+			while ((value = in.readNext()) != null)
+				values.add(value);
+		}
+		return values;
+	}
+	
+	private static int indexOf(byte [] data, byte b) {
+		for (int i = 0; i < data.length; i++) {
+			if (data[i] == b)
+				return i;
+		}
+		return -1;
+	}
+	
+}
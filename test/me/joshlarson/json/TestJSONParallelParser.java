@@ -0,0 +1,155 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestJSONParallelParser {
+	
+	private static final String [] ELEMENTS = {
+			"1", "-2.5e3", "true", "null", "\"plain\"", "\"[{,}]\"", "\"\\\"],\"", "\"\\\\\"", "\"caf\u00E9\"",
+			"[]", "{}", "[1, [2, [3]]]", "{\"a\": [\",\", \"]\"], \"b\": {\"c\": \"}\"}}"
+	};
+	
+	@Test
+	public void testMatchesReadArray() throws IOException, JSONException {
+		Random random = new Random(0);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			for (int iteration = 0; iteration < 200; iteration++) {
+				String document = createArray(random, random.nextInt(40));
+				List<Object> expected = readArray(document);
+				byte [] data = document.getBytes(StandardCharsets.UTF_8);
+				for (int minRangeSize = 1; minRangeSize < 64; minRangeSize += 13)
+					Assert.assertEquals(document, expected, new JSONParallelParser(executor, minRangeSize).readArray(data));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testLarge() throws IOException, JSONException {
+		String document = createArray(new Random(1), 100000);
+		byte [] data = document.getBytes(StandardCharsets.UTF_8);
+		Assert.assertTrue(data.length > 2 * JSONParallelParser.DEFAULT_MIN_RANGE_SIZE);
+		Assert.assertEquals(readArray(document), new JSONParallelParser().readArray(data));
+	}
+	
+	@Test
+	public void testSlice() throws IOException, JSONException {
+		byte [] data = "xx[1, \"a\", [2]]yy".getBytes(StandardCharsets.UTF_8);
+		Assert.assertEquals(readArray("[1, \"a\", [2]]"), new JSONParallelParser(Runnable::run, 1).readArray(data, 2, data.length - 4));
+	}
+	
+	@Test
+	public void testFile() throws IOException, JSONException {
+		String document = createArray(new Random(2), 2000);
+		Path file = Files.createTempFile("fast-json", ".json");
+		try {
+			Files.write(file, document.getBytes(StandardCharsets.UTF_8));
+			Assert.assertEquals(readArray(document), new JSONParallelParser().readArray(file));
+			Assert.assertEquals(readArray(document), new JSONParallelParser(Runnable::run, 100).readArray(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	public void testSplitterInPieces() throws JSONException {
+		String document = " " + createArray(new Random(3), 300) + " ";
+		byte [] data = document.getBytes(StandardCharsets.UTF_8);
+		JSONArraySplitter whole = new JSONArraySplitter(50);
+		Assert.assertTrue(whole.scan(new JSONScanner(data), data, 0, data.length, 0));
+		for (int pieceSize = 1; pieceSize < 20; pieceSize += 3) {
+			JSONArraySplitter pieces = new JSONArraySplitter(50);
+			boolean done = false;
+			for (int offset = 0; offset < data.length && !done; offset += pieceSize) {
+				byte [] piece = new byte[Math.min(pieceSize, data.length - offset)];
+				System.arraycopy(data, offset, piece, 0, piece.length);
+				done = pieces.scan(new JSONScanner(piece), piece, 0, piece.length, offset);
+			}
+			Assert.assertTrue(done);
+			Assert.assertEquals(whole.getRangeCount(), pieces.getRangeCount());
+			for (int i = 0; i < whole.getRangeCount(); i++) {
+				Assert.assertEquals(whole.getRangeStart(i), pieces.getRangeStart(i));
+				Assert.assertEquals(whole.getRangeEnd(i), pieces.getRangeEnd(i));
+			}
+			Assert.assertEquals(data.length - 1, pieces.getEnd());
+		}
+	}
+	
+	@Test
+	public void testEmpty() throws IOException, JSONException {
+		JSONParallelParser parser = new JSONParallelParser(Runnable::run, 1);
+		Assert.assertNull(parser.readArray(" \n ".getBytes(StandardCharsets.UTF_8)));
+		Assert.assertTrue(parser.readArray(" [ ] ".getBytes(StandardCharsets.UTF_8)).isEmpty());
+		Assert.assertEquals(readArray("[1, 2,]"), parser.readArray("[1, 2,]".getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	@Test
+	public void testErrors() throws IOException {
+		String [] documents = {"{}", "[1 2]", "[1, 2", "[1, \"2]", "[1}", "[1, {\"a\": 2]}", "[1,, 2]", "[, 1]", "[1, 2 ,, ]"};
+		for (String document : documents) {
+			try {
+				new JSONParallelParser(Runnable::run, 1).readArray(document.getBytes(StandardCharsets.UTF_8));
+				Assert.fail("Expected an exception for " + document);
+			} catch (JSONException e) {
+				// expected
+			}
+		}
+	}
+	
+	private static String createArray(Random random, int count) {
+		StringBuilder str = new StringBuilder("[");
+		for (int i = 0; i < count; i++) {
+			if (i > 0)
+				str.append(random.nextBoolean() ? "," : " ,\n\t");
+			str.append(ELEMENTS[random.nextInt(ELEMENTS.length)]);
+		}
+		return str.append(count > 0 && random.nextInt(4) == 0 ? ",]" : "]").toString();
+	}
+	
+	private static List<Object> readArray(String document) throws IOException, JSONException {
+		try (JSONInputStream in = new JSONInputStream(document)) {
+			return in.readArray();
+		}
+	}
+	
+}
@@ -0,0 +1,132 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestJSONPath {
+	
+	private static final String DOCUMENT = "{\"id\": 7, \"user\": {\"name\": \"josh\", \"score\": 2.5, \"admin\": true, \"address\": {\"city\": \"x\"}},"
+			+ " \"items\": [{\"price\": 1.5}, {\"price\": 2, \"tags\": [\"a\", \"b\"]}], \"matrix\": [[1, 2], [3]], \"none\": null}";
+	
+	@Test
+	public void testGet() throws IOException, JSONException {
+		JSONObject document = JSON.readObject(DOCUMENT);
+		Assert.assertEquals(7L, JSONPath.compile("id").get(document));
+		Assert.assertEquals("x", JSONPath.compile("user.address.city").get(document));
+		Assert.assertEquals(1.5, JSONPath.compile("items[0].price").get(document));
+		Assert.assertEquals("b", JSONPath.compile("items[1].tags[1]").get(document));
+		Assert.assertEquals(3L, JSONPath.compile("matrix[1][0]").get(document));
+		Assert.assertEquals(document.getLayered("user.address"), JSONPath.compile("user.address").get(document));
+		
+		List<Object> array = JSON.readArray("[{\"a\": [5]}]");
+		Assert.assertEquals(5L, JSONPath.compile("[0].a[0]").get(array));
+	}
+	
+	@Test
+	public void testMissing() throws IOException, JSONException {
+		JSONObject document = JSON.readObject(DOCUMENT);
+		Assert.assertNull(JSONPath.compile("missing").get(document));
+		Assert.assertNull(JSONPath.compile("user.missing.city").get(document));
+		Assert.assertNull(JSONPath.compile("id.nested").get(document));
+		Assert.assertNull(JSONPath.compile("items[2].price").get(document));
+		Assert.assertNull(JSONPath.compile("user[0]").get(document));
+		Assert.assertNull(JSONPath.compile("items.price").get(document));
+		Assert.assertNull(JSONPath.compile("none.x").get(document));
+		Assert.assertNull(JSONPath.compile("id").get(null));
+	}
+	
+	@Test
+	public void testTyped() throws IOException, JSONException {
+		JSONObject document = JSON.readObject(DOCUMENT);
+		Assert.assertEquals(7, JSONPath.compile("id").getInt(document));
+		Assert.assertEquals(7L, JSONPath.compile("id").getLong(document));
+		Assert.assertEquals(2.5, JSONPath.compile("user.score").getDouble(document), 0);
+		Assert.assertEquals(2, JSONPath.compile("items[1].price").getDouble(document), 0);
+		Assert.assertEquals("josh", JSONPath.compile("user.name").getString(document));
+		Assert.assertTrue(JSONPath.compile("user.admin").getBoolean(document));
+		Assert.assertEquals(Collections.singletonMap("city", "x"), JSONPath.compile("user.address").getObject(document));
+		Assert.assertEquals(Arrays.asList("a", "b"), JSONPath.compile("items[1].tags").getArray(document));
+		
+		Assert.assertEquals(-1, JSONPath.compile("missing").getLong(document, -1));
+		Assert.assertEquals(-1, JSONPath.compile("user.name").getLong(document, -1));
+		Assert.assertEquals(7, JSONPath.compile("id").getLong(document, -1));
+		Assert.assertEquals(0.5, JSONPath.compile("none").getDouble(document, 0.5), 0);
+		Assert.assertEquals(2.5, JSONPath.compile("user.score").getDouble(document, 0.5), 0);
+	}
+	
+	@Test(expected = NullPointerException.class)
+	public void testTypedMissing() throws IOException, JSONException {
+		JSONPath.compile("user.missing").getLong(JSON.readObject(DOCUMENT));
+	}
+	
+	@Test
+	public void testPut() {
+		JSONObject document = new JSONObject();
+		JSONPath.compile("a.b.c").put(document, 1);
+		Assert.assertEquals(1, document.getLayered("a.b.c"));
+		Assert.assertEquals(1, JSONPath.compile("a.b.c").put(document, 2));
+		Assert.assertEquals(2, document.getLayered("a.b.c"));
+		
+		List<Object> list = new ArrayList<>(Arrays.asList(0, new JSONObject()));
+		document.put("list", list);
+		JSONPath.compile("list[1].x").put(document, "y");
+		JSONPath.compile("list[0]").put(document, "z");
+		Assert.assertEquals("y", JSONPath.compile("list[1].x").get(document));
+		Assert.assertEquals("z", list.get(0));
+		
+		JSONObject expected = new JSONObject();
+		expected.putLayered("a.b.c", 1);
+		Map<String, Object> actual = new JSONObject();
+		JSONPath.compile("a.b.c").put(actual, 1);
+		Assert.assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void testInvalid() {
+		for (String path : new String[]{"", ".", "a.", ".a", "a..b", "a[", "a[]", "a[x]", "a[-1]", "a[0]b", "a.[0]", "a[12345678901]"}) {
+			try {
+				JSONPath.compile(path);
+				Assert.fail("Expected an IllegalArgumentException for " + path);
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		Assert.assertEquals("items[0].price", JSONPath.compile("items[0].price").toString());
+	}
+	
+}
@@ -0,0 +1,121 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestJSONProjection {
+	
+	private static final String DOCUMENT = "{\"id\": 7, \"skip\": {\"a\": [1, \"}]\", {\"b\": null}]}, \"user\": {\"name\": \"josh\", \"age\": 30, \"tags\": [\"x\"]},"
+			+ " \"items\": [{\"price\": 1.5, \"sku\": \"a\"}, {\"sku\": \"b\"}, 3, {\"price\": 2}], \"caf\\u00e9\": true, \"\u00E9t\u00E9\": 1, \"matrix\": [[{\"v\": 1, \"w\": 2}], [{\"v\": 3}]]}";
+	
+	@Test
+	public void testPaths() throws IOException, JSONException {
+		assertProjection("{\"id\": 7}", "id");
+		assertProjection("{\"user\": {\"name\": \"josh\"}}", "user.name");
+		assertProjection("{\"id\": 7, \"user\": {\"name\": \"josh\", \"age\": 30, \"tags\": [\"x\"]}}", "user", "user.name", "id");
+		assertProjection("{\"items\": [{\"price\": 1.5}, {}, {\"price\": 2}]}", "items[*].price");
+		assertProjection("{\"items\": [{\"price\": 1.5, \"sku\": \"a\"}, {\"sku\": \"b\"}, 3, {\"price\": 2}]}", "items[*]");
+		assertProjection("{\"matrix\": [[{\"v\": 1}], [{\"v\": 3}]]}", "matrix[*][*].v");
+		assertProjection("{}", "missing", "id.nested", "user[*]");
+	}
+	
+	@Test
+	public void testKeys() throws IOException, JSONException {
+		// escaped and non-ASCII keys are decoded before they are matched
+		assertProjection("{\"caf\u00E9\": true, \"\u00E9t\u00E9\": 1}", "caf\u00E9", "\u00E9t\u00E9");
+	}
+	
+	@Test
+	public void testSmallBuffer() throws IOException, JSONException {
+		JSONProjection projection = new JSONProjection("id", "user.name", "items[*].price", "caf\u00E9");
+		Map<String, Object> expected = read(projection);
+		for (int bufferSize = 1; bufferSize < 40; bufferSize++) {
+			try (JSONInputStream in = new JSONInputStream(new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)), bufferSize)) {
+				Assert.assertEquals(expected, in.readObject(projection));
+			}
+		}
+	}
+	
+	@Test
+	public void testArray() throws IOException, JSONException {
+		String document = "[{\"id\": 1, \"x\": [1, 2]}, {\"id\": 2}, \"text\"]";
+		try (JSONInputStream in = new JSONInputStream(document)) {
+			Assert.assertEquals(Arrays.asList(Collections.singletonMap("id", 1L), Collections.singletonMap("id", 2L)), in.readArray(new JSONProjection("[*].id")));
+		}
+		try (JSONInputStream in = new JSONInputStream(document)) {
+			Assert.assertEquals(Collections.emptyList(), in.readNext(new JSONProjection("id")));
+		}
+	}
+	
+	@Test
+	public void testStillChecksStructure() throws IOException {
+		String [] documents = {"{\"id\" 7}", "{\"a\": 1 \"id\": 2}", "{id: 2}", "[1 2]"};
+		for (String document : documents) {
+			try (JSONInputStream in = new JSONInputStream(document)) {
+				in.readNext(new JSONProjection("id", "[*]"));
+				Assert.fail("Expected an exception for " + document);
+			} catch (JSONException e) {
+				// expected
+			}
+		}
+	}
+	
+	@Test
+	public void testInvalidPaths() {
+		String [] paths = {"", "a..b", "a.", ".a", "a[1]", "a[*]b", "a[]"};
+		for (String path : paths) {
+			try {
+				new JSONProjection(path);
+				Assert.fail("Expected an exception for " + path);
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+	
+	private static void assertProjection(String expected, String ... paths) throws IOException, JSONException {
+		Assert.assertEquals(JSON.readObject(expected), read(new JSONProjection(paths)));
+	}
+	
+	private static Map<String, Object> read(JSONProjection projection) throws IOException, JSONException {
+		try (JSONInputStream in = new JSONInputStream(DOCUMENT)) {
+			return in.readObject(projection);
+		}
+	}
+	
+}
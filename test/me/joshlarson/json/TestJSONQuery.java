@@ -0,0 +1,158 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestJSONQuery {
+	
+	private static final String DOCUMENT = "{\"store\": {\"name\": \"corner\", \"items\": ["
+			+ "{\"type\": \"x\", \"price\": 5, \"tags\": [\"a\", \"b\"]},"
+			+ "{\"price\": 12.5, \"type\": \"y\", \"tags\": []},"
+			+ "{\"type\": \"x\", \"price\": 20, \"stock\": {\"price\": 1}},"
+			+ "{\"type\": null, \"name\": \"a/b~c\"}"
+			+ "]}, \"price\": 0, \"caf\\u00e9\": [true]}";
+	
+	@Test
+	public void testMembers() throws IOException, JSONException {
+		assertQuery("$.store.name", "corner");
+		assertQuery("store.name", "corner");
+		assertQuery("$['store']['name']", "corner");
+		assertQuery("$.store.items[*].price", 5L, 12.5, 20L);
+		assertQuery("$.store.items[1].type", "y");
+		assertQuery("$.store.items[0].tags[*]", "a", "b");
+		assertQuery("$.price", 0L);
+		assertQuery("$.missing");
+		assertQuery("$.store.name.length");
+		assertQuery("$.caf\u00E9[0]", true);
+		assertQuery("$", JSON.readObject(DOCUMENT));
+	}
+	
+	@Test
+	public void testDescendants() throws IOException, JSONException {
+		assertQuery("$..price", 5L, 12.5, 20L, 1L, 0L);
+		assertQuery("$.store..tags[0]", "a");
+		assertQuery("$..items[3].name", "a/b~c");
+	}
+	
+	@Test
+	public void testFilters() throws IOException, JSONException {
+		assertQuery("$.store.items[?(@.type == 'x')].price", 5L, 20L);
+		assertQuery("$.store.items[?(@.type != 'x')].price", 12.5);
+		assertQuery("$.store.items[?(@.price < 12.5)].price", 5L);
+		assertQuery("$.store.items[?(@.price >= 12.5)].type", "y", "x");
+		assertQuery("$.store.items[?(@.stock)].stock.price", 1L);
+		assertQuery("$.store.items[?(@.type == null)].name", "a/b~c");
+		assertQuery("$.store.items[?(@.tags[1] == \"b\")].price", 5L);
+		assertQuery("$.store.items[?(@.price > 100)]");
+	}
+	
+	@Test
+	public void testPointer() throws IOException, JSONException {
+		assertQuery("/store/items/0/price", 5L);
+		assertQuery("/store/items/3/name", "a/b~c");
+		assertQuery("/store/items/03/name");
+		assertQuery("/store/items/-");
+		assertQuery("", JSON.readObject(DOCUMENT));
+		Assert.assertEquals(Collections.singletonList(1L), JSONQuery.compile("/a~1b/~0").select(JSON.readObject("{\"a/b\": {\"~\": 1}}")));
+	}
+	
+	@Test
+	public void testSmallBuffer() throws IOException, JSONException {
+		JSONQuery query = JSONQuery.compile("$..items[?(@.type == 'x')]..price");
+		List<Object> expected = query.select(JSON.readObject(DOCUMENT));
+		Assert.assertEquals(Arrays.asList(5L, 20L, 1L), expected);
+		for (int bufferSize = 1; bufferSize < 40; bufferSize++) {
+			List<Object> matches = new ArrayList<>();
+			try (JSONInputStream in = new JSONInputStream(new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)), bufferSize)) {
+				Assert.assertTrue(query.evaluate(in, matches::add));
+			}
+			Assert.assertEquals(expected, matches);
+		}
+	}
+	
+	@Test
+	public void testConsecutiveValues() throws IOException, JSONException {
+		JSONQuery query = JSONQuery.compile("$.id");
+		List<Object> matches = new ArrayList<>();
+		try (JSONInputStream in = new JSONInputStream("{\"id\": 1}\n{\"x\": 2}\n{\"id\": 3}\n\"text\"\n")) {
+			int values = 0;
+			while (query.evaluate(in, matches::add))
+				values++;
+			Assert.assertEquals(4, values);
+		}
+		Assert.assertEquals(Arrays.asList(1L, 3L), matches);
+	}
+	
+	@Test
+	public void testStillChecksStructure() throws IOException {
+		String [] documents = {"{\"a\" 1}", "{\"a\": 1 \"b\": 2}", "{a: 1}", "[1 2]"};
+		for (String document : documents) {
+			try (JSONInputStream in = new JSONInputStream(document)) {
+				JSONQuery.compile("$.b").evaluate(in, match -> {});
+				Assert.fail("Expected an exception for " + document);
+			} catch (JSONException e) {
+				// expected
+			}
+		}
+	}
+	
+	@Test
+	public void testInvalidExpressions() {
+		String [] expressions = {"$.", "$..", "$[", "$[-1]", "$[?(@.a == )]", "$[?(@.a == 'x)]", "$[?(@.a == 'x']", "$x", "/a~2", "$['a'"};
+		for (String expression : expressions) {
+			try {
+				JSONQuery.compile(expression);
+				Assert.fail("Expected an exception for " + expression);
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+	
+	private static void assertQuery(String expression, Object ... expected) throws IOException, JSONException {
+		JSONQuery query = JSONQuery.compile(expression);
+		List<Object> matches = new ArrayList<>();
+		try (JSONInputStream in = new JSONInputStream(DOCUMENT)) {
+			Assert.assertTrue(query.evaluate(in, matches::add));
+		}
+		Assert.assertEquals(expression, Arrays.asList(expected), matches);
+		Assert.assertEquals(expression, Arrays.asList(expected), query.select(JSON.readObject(DOCUMENT)));
+	}
+	
+}
@@ -0,0 +1,152 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestJSONReader {
+	
+	@Test
+	public void testTypedReads() throws IOException, JSONException {
+		String json = "{\"str\": \"value\", \"int\": -42, \"dbl\": 1.5E3, \"bool\": true, \"null\": null, \"arr\": [1, 2, 3]}";
+		try (JSONReader reader = new JSONReader(json)) {
+			reader.beginObject();
+			Assert.assertEquals("str", reader.nextName());
+			Assert.assertEquals("value", reader.nextString());
+			Assert.assertEquals("int", reader.nextName());
+			Assert.assertEquals(-42, reader.nextLong());
+			Assert.assertEquals("dbl", reader.nextName());
+			Assert.assertEquals(1500, reader.nextDouble(), 1E-10);
+			Assert.assertEquals("bool", reader.nextName());
+			Assert.assertTrue(reader.nextBoolean());
+			Assert.assertEquals("null", reader.nextName());
+			Assert.assertEquals(JSONToken.NULL, reader.peek());
+			reader.nextNull();
+			Assert.assertEquals("arr", reader.nextName());
+			reader.beginArray();
+			long sum = 0;
+			while (reader.hasNext())
+				sum += reader.nextLong();
+			Assert.assertEquals(6, sum);
+			reader.endArray();
+			Assert.assertFalse(reader.hasNext());
+			reader.endObject();
+			Assert.assertEquals(JSONToken.END_DOCUMENT, reader.peek());
+		}
+	}
+	
+	@Test
+	public void testTokenStream() throws IOException, JSONException {
+		try (JSONReader reader = new JSONReader("[{\"a\":\"b\"}, [], 7]")) {
+			List<JSONToken> expected = Arrays.asList(JSONToken.BEGIN_ARRAY, JSONToken.BEGIN_OBJECT, JSONToken.NAME, JSONToken.STRING,
+					JSONToken.END_OBJECT, JSONToken.BEGIN_ARRAY, JSONToken.END_ARRAY, JSONToken.NUMBER, JSONToken.END_ARRAY,
+					JSONToken.END_DOCUMENT);
+			for (JSONToken token : expected)
+				Assert.assertEquals(token, reader.nextToken());
+			Assert.assertEquals(JSONToken.END_DOCUMENT, reader.nextToken());
+		}
+	}
+	
+	@Test
+	public void testNextValue() throws IOException, JSONException {
+		try (JSONReader reader = new JSONReader("{\"skip\": 1, \"keep\": {\"inner\": [true, \"x\"]}, \"after\": 2}")) {
+			reader.beginObject();
+			Assert.assertEquals("skip", reader.nextName());
+			Assert.assertEquals(1L, reader.nextValue());
+			Assert.assertEquals("keep", reader.nextName());
+			@SuppressWarnings("unchecked")
+			Map<String, Object> keep = (Map<String, Object>) reader.nextValue();
+			Assert.assertEquals(Arrays.asList(true, "x"), keep.get("inner"));
+			Assert.assertEquals("after", reader.nextName());
+			Assert.assertEquals(2, reader.nextLong());
+			reader.endObject();
+		}
+	}
+	
+	@Test
+	public void testMultipleDocuments() throws IOException, JSONException {
+		try (JSONReader reader = new JSONReader("1 \"two\" [3]")) {
+			Assert.assertEquals(1, reader.nextLong());
+			Assert.assertEquals("two", reader.nextString());
+			Assert.assertEquals(Arrays.asList(3L), reader.nextValue());
+			Assert.assertFalse(reader.hasNext());
+		}
+	}
+	
+	@Test
+	public void testSkipValue() throws IOException, JSONException {
+		String json = "{\"a\": {\"x\": [1, {\"y\": \"}]\\\"[{\"}], \"z\": null}, \"b\": \"str \\\\\", \"c\": -12.5e3, \"d\": [[], {}], \"e\": true}";
+		try (JSONReader reader = new JSONReader(json)) {
+			reader.beginObject();
+			Assert.assertEquals("a", reader.nextName());
+			reader.skipValue();
+			Assert.assertEquals("b", reader.nextName());
+			reader.skipValue();
+			reader.skipValue(); // skips both "c" and its value
+			Assert.assertEquals("d", reader.nextName());
+			reader.skipValue();
+			Assert.assertEquals("e", reader.nextName());
+			Assert.assertTrue(reader.nextBoolean());
+			reader.endObject();
+		}
+		try (JSONReader reader = new JSONReader("[1, \"two\", [3], 4]")) {
+			reader.beginArray();
+			reader.skipValue();
+			reader.skipValue();
+			reader.skipValue();
+			Assert.assertEquals(4, reader.nextLong());
+			reader.endArray();
+		}
+	}
+	
+	@Test(expected = JSONException.class)
+	public void testWrongType() throws IOException, JSONException {
+		try (JSONReader reader = new JSONReader("{\"a\": \"b\"}")) {
+			reader.beginObject();
+			reader.nextName();
+			reader.nextLong();
+		}
+	}
+	
+	@Test(expected = JSONException.class)
+	public void testMissingColon() throws IOException, JSONException {
+		try (JSONReader reader = new JSONReader("{\"a\" 5}")) {
+			reader.beginObject();
+			reader.nextName();
+			reader.nextLong();
+		}
+	}
+	
+}
@@ -0,0 +1,97 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestJSONScanner {
+	
+	private static final byte [] ALPHABET = {'a', 'Z', '0', ' ', '\n', '\t', '\r', '\"', '\\', 0, 1, 0x7F, (byte) 0x80, (byte) 0xC3, (byte) 0xFF, '!', '#', '[', ']'};
+	
+	@Test
+	public void testMatchesByteByByteScan() {
+		Random random = new Random(0);
+		for (int iteration = 0; iteration < 20000; iteration++) {
+			byte [] buf = new byte[1 + random.nextInt(40)];
+			int density = 1 + random.nextInt(20);
+			for (int i = 0; i < buf.length; i++)
+				buf[i] = random.nextInt(density) == 0 ? ALPHABET[random.nextInt(ALPHABET.length)] : (byte) ('a' + random.nextInt(26));
+			if (random.nextBoolean())
+				for (int i = 0; i < buf.length; i++)
+					buf[i] = random.nextInt(density) == 0 ? (byte) 'x' : ALPHABET[3 + random.nextInt(4)];
+			JSONScanner scanner = new JSONScanner(buf);
+			int start = random.nextInt(buf.length);
+			int end = start + random.nextInt(buf.length - start + 1);
+			Assert.assertEquals(naive(buf, start, end, 0), scanner.findStringSpecial(start, end));
+			Assert.assertEquals(naive(buf, start, end, 1), scanner.findQuoteOrBackslash(start, end));
+			Assert.assertEquals(naive(buf, start, end, 2), scanner.skipWhitespace(start, end));
+		}
+	}
+	
+	@Test
+	public void testClassifyBlock() {
+		byte [] alphabet = {'\"', '\\', '{', '}', '[', ']', ':', ',', ' ', '\n', '\t', '\r', 'a', ';', '|', 0x0C, (byte) 0xDB, (byte) 0xFB};
+		Random random = new Random(0);
+		long [] masks = new long[4];
+		for (int iteration = 0; iteration < 2000; iteration++) {
+			byte [] buf = new byte[64 + random.nextInt(16)];
+			for (int i = 0; i < buf.length; i++)
+				buf[i] = alphabet[random.nextInt(alphabet.length)];
+			int pos = random.nextInt(buf.length - 63);
+			new JSONScanner(buf).classifyBlock(pos, masks);
+			for (int i = 0; i < 64; i++) {
+				byte c = buf[pos + i];
+				Assert.assertEquals(c == '\"', (masks[0] >>> i & 1) != 0);
+				Assert.assertEquals(c == '\\', (masks[1] >>> i & 1) != 0);
+				Assert.assertEquals(c == '{' || c == '}' || c == '[' || c == ']' || c == ':' || c == ',', (masks[2] >>> i & 1) != 0);
+				Assert.assertEquals(c == ' ' || c == '\n' || c == '\t' || c == '\r', (masks[3] >>> i & 1) != 0);
+			}
+		}
+	}
+	
+	private static int naive(byte [] buf, int start, int end, int mode) {
+		for (int i = start; i < end; i++) {
+			byte c = buf[i];
+			boolean match;
+			if (mode == 0)
+				match = c == '\"' || c == '\\' || c < 0;
+			else if (mode == 1)
+				match = c == '\"' || c == '\\';
+			else
+				match = c != ' ' && c != '\n' && c != '\t' && c != '\r';
+			if (match)
+				return i;
+		}
+		return end;
+	}
+	
+}
@@ -0,0 +1,206 @@
+/*
+ **********************************************************************************
+ * MIT License                                                                    *
+ *                                                                                *
+ * Copyright (c) 2017 Josh Larson                                                 *
+ *                                                                                *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy   *
+ * of this software and associated documentation files (the "Software"), to deal  *
+ * in the Software without restriction, including without limitation the rights   *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell      *
+ * copies of the Software, and to permit persons to whom the Software is          *
+ * furnished to do so, subject to the following conditions:                       *
+ *                                                                                *
+ * The above copyright notice and this permission notice shall be included in all *
+ * copies or substantial portions of the Software.                                *
+ *                                                                                *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR     *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,       *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE    *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER         *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  *
+ * SOFTWARE.                                                                      *
+ **********************************************************************************
+ */
+package me.joshlarson.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TestJSONWriter {
+	
+	@Test
+	public void testMatchesOutputStream() throws IOException {
+		JSONObject inner = new JSONObject();
+		inner.put("x", 1.5);
+		JSONArray emptyArray = new JSONArray();
+		JSONObject expected = new JSONObject(new LinkedHashMap<>());
+		expected.put("str", "quote\" and \\ and \n");
+		expected.put("num", 1234L);
+		expected.put("dbl", 12.5);
+		expected.put("bool", true);
+		expected.put("null", null);
+		expected.put("empty_obj", new JSONObject());
+		expected.put("empty_arr", emptyArray);
+		JSONArray array = new JSONArray();
+		array.add(1L);
+		array.add("two");
+		array.add(inner);
+		array.add(new JSONArray());
+		expected.put("arr", array);
+		expected.put("tree", inner);
+		
+		for (boolean compact : new boolean[]{true, false}) {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			try (JSONWriter writer = new JSONWriter(baos)) {
+				writer.setCompact(compact);
+				writer.beginObject();
+				writer.name("str");
+				writer.value("quote\" and \\ and \n");
+				writer.name("num");
+				writer.value(1234L);
+				writer.name("dbl");
+				writer.value(12.5);
+				writer.name("bool");
+				writer.value(true);
+				writer.name("null");
+				writer.nullValue();
+				writer.name("empty_obj");
+				writer.beginObject();
+				writer.endObject();
+				writer.name("empty_arr");
+				writer.beginArray();
+				writer.endArray();
+				writer.name("arr");
+				writer.beginArray();
+				writer.value(1L);
+				writer.value("two");
+				writer.beginObject();
+				writer.name("x");
+				writer.value(1.5);
+				writer.endObject();
+				writer.value(new JSONArray());
+				writer.endArray();
+				writer.name("tree");
+				writer.value(inner);
+				writer.endObject();
+			}
+			Assert.assertEquals(expected.toString(compact), new String(baos.toByteArray(), StandardCharsets.UTF_8));
+		}
+	}
+	
+	@Test
+	public void testMultipleDocuments() throws IOException, JSONException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		JSONWriter writer = new JSONWriter(baos);
+		writer.setCompact(true);
+		for (int i = 0; i < 3; i++) {
+			writer.beginArray();
+			writer.value(i);
+			writer.endArray();
+		}
+		Assert.assertEquals("[0]\n[1]\n[2]", baos.toString("UTF-8"));
+		try (JSONInputStream in = new JSONInputStream(baos.toString("UTF-8"))) {
+			for (long i = 0; i < 3; i++)
+				Assert.assertEquals(i, new JSONArray(in.readArray()).getLong(0));
+		}
+	}
+	
+	@Test
+	public void testNumberFormat() throws IOException {
+		double [] doubles = {0.0, -0.0, 1.0, 100.0, 0.001, 1.0E-4, 1234567.5, 1.0E7, 1.0E23, 0.1, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN,
+				Double.POSITIVE_INFINITY};
+		String [] expected = {"0.0", "-0.0", "1.0", "100.0", "0.001", "1.0E-4", "1234567.5", "1.0E7", "1.0E23", "0.1", "4.9E-324",
+				"1.7976931348623157E308", "0", "0"};
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (JSONWriter writer = new JSONWriter(baos)) {
+			writer.setCompact(true);
+			writer.beginArray();
+			for (double d : doubles)
+				writer.value(d);
+			writer.value(Long.MIN_VALUE);
+			writer.value(Long.MAX_VALUE);
+			writer.value(-7);
+			writer.endArray();
+		}
+		Assert.assertEquals("[" + String.join(",", expected) + ",-9223372036854775808,9223372036854775807,-7]", baos.toString("UTF-8"));
+	}
+	
+	@Test
+	public void testNumberRoundTrip() throws IOException, JSONException {
+		Random random = new Random(0);
+		JSONArray array = new JSONArray();
+		for (int i = 0; i < 10000; i++) {
+			array.add(Double.longBitsToDouble(random.nextLong() & 0x7FEFFFFFFFFFFFFFL));
+			array.add(random.nextDouble() * 360 - 180);
+			array.add(random.nextLong() >> random.nextInt(64));
+		}
+		for (boolean compact : new boolean[]{true, false}) {
+			String json = array.toString(compact);
+			Assert.assertEquals(array, new JSONArray(JSON.readArray(json)));
+		}
+	}
+	
+	@Test
+	public void testReset() throws IOException {
+		ByteArrayOutputStream first = new ByteArrayOutputStream();
+		ByteArrayOutputStream second = new ByteArrayOutputStream();
+		JSONWriter writer = new JSONWriter(new JSONOutputStream(first, 32));
+		writer.setCompact(true);
+		writer.beginArray();
+		writer.value("unfinished");
+		writer.setOutput(second);
+		writer.setCompact(true);
+		writer.beginObject();
+		writer.name("key");
+		writer.value("a value that is longer than the 32 byte buffer");
+		writer.endObject();
+		writer.flush();
+		Assert.assertEquals("{\"key\":\"a value that is longer than the 32 byte buffer\"}", new String(second.toByteArray(), StandardCharsets.UTF_8));
+		Assert.assertEquals(0, first.size());
+	}
+	
+	@Test
+	public void testToStringAfterLargeDocument() {
+		JSONArray big = new JSONArray();
+		for (int i = 0; i < 20000; i++)
+			big.add("element " + i);
+		JSONArray small = new JSONArray();
+		small.add(1L);
+		Assert.assertEquals(big, new JSONArray(JSON.readArray(big.toString(true), false)));
+		Assert.assertEquals("[1]", small.toString(true));
+		Assert.assertEquals("[\n    1\n]", small.toString());
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testValueWithoutName() throws IOException {
+		JSONWriter writer = new JSONWriter(new ByteArrayOutputStream());
+		writer.beginObject();
+		writer.value(5);
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testNameInArray() throws IOException {
+		JSONWriter writer = new JSONWriter(new ByteArrayOutputStream());
+		writer.beginArray();
+		writer.name("key");
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testMismatchedEnd() throws IOException {
+		JSONWriter writer = new JSONWriter(new ByteArrayOutputStream());
+		writer.beginArray();
+		writer.endObject();
+	}
+	
+}